@@ -0,0 +1,131 @@
+package org.seed.mybatis.benchmark;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.velocity.VelocityContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.seed.mybatis.benchmark.entity.User;
+import org.seed.mybatis.benchmark.entity.UserMapper;
+import org.seed.mybatis.core.SeedMybatisConfig;
+import org.seed.mybatis.core.ext.code.client.ClassClient;
+import org.seed.mybatis.core.ext.code.generator.MapperContext;
+import org.seed.mybatis.core.ext.code.generator.TableDefinition;
+import org.seed.mybatis.core.ext.code.generator.TableSelector;
+import org.seed.mybatis.core.ext.code.util.VelocityUtil;
+import org.seed.mybatis.core.util.IOUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成mapper xml：每个mapper重新解析模板（Velocity.evaluate） vs 解析一次后缓存Template
+ *
+ * <p>两种方式都包含构建表定义、上下文的开销，使用相同的模板和全局模板，差值即模板解析的开销。</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileCodeGeneratorBenchmark {
+
+    /**
+     * 全局模板，合并到模板的占位符处
+     */
+    private static final String GLOBAL_VM_LOCATION = "benchmark/global.vm";
+
+    @Param({"mysql", "postgresql", "oracle", "microsoftsqlserver", "sqlite"})
+    private String dialect;
+
+    private SeedMybatisConfig config;
+
+    private String templateContent;
+
+    private ClassClient client;
+
+    @Setup
+    public void setup() throws IOException {
+        config = new SeedMybatisConfig();
+        try (InputStream in = Resources.getResourceAsStream("seed-mybatis/tpl/" + dialect + ".vm")) {
+            templateContent = IOUtil.toString(in, StandardCharsets.UTF_8);
+        }
+        client = new ClassClient(config);
+        // 两种方式生成的内容必须一致，对象默认toString中的hashCode除外
+        String cached = cachedTemplate();
+        if (!cached.contains("id=\"countAll\"")) {
+            throw new IllegalStateException("全局模板未合并：" + dialect);
+        }
+        if (!normalize(evaluatePerMapper()).equals(normalize(cached))) {
+            throw new IllegalStateException("生成内容不一致：" + dialect);
+        }
+    }
+
+    /**
+     * 原方式：每个mapper都从classpath读取全局模板，合并后用Velocity.evaluate重新解析整个模板
+     */
+    @Benchmark
+    public String evaluatePerMapper() throws IOException {
+        String globalVmContent;
+        try (InputStream in = Resources.getResourceAsStream(GLOBAL_VM_LOCATION)) {
+            globalVmContent = IOUtil.toString(in, StandardCharsets.UTF_8);
+        }
+        String content = templateContent.replace(config.getGlobalVmPlaceholder(), globalVmContent);
+        return VelocityUtil.generate(this.buildContext(), content);
+    }
+
+    /**
+     * 现方式：FileCodeGenerator缓存解析后的Template，只渲染
+     */
+    @Benchmark
+    public String cachedTemplate() {
+        return client.generateMybatisXml(UserMapper.class, templateContent, GLOBAL_VM_LOCATION);
+    }
+
+    /**
+     * 与FileCodeGenerator相同的模板变量
+     */
+    private VelocityContext buildContext() {
+        TableDefinition tableDefinition = new TableSelector(User.class, config).getTableDefinition();
+        MapperContext sqlContext = new MapperContext(tableDefinition);
+        sqlContext.setClassName(User.class.getName());
+        sqlContext.setClassSimpleName(User.class.getSimpleName());
+        sqlContext.setPackageName(User.class.getPackage().getName());
+        sqlContext.setNamespace(UserMapper.class.getName());
+
+        VelocityContext context = new VelocityContext();
+        context.put("context", sqlContext);
+        context.put("table", tableDefinition);
+        context.put("key", tableDefinition.getKeyColumn());
+        context.put("columns", tableDefinition.getTableColumns());
+        context.put("allColumns", tableDefinition.getAllColumns());
+        context.put("countExpression", config.getCountExpression());
+        context.put("cursorFetchSize", config.getCursorFetchSize());
+        context.put("associations", tableDefinition.getAssociationDefinitions());
+        return context;
+    }
+
+    private static String normalize(String xml) {
+        return xml.replaceAll("@[0-9a-f]+\\b", "@");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FileCodeGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,38 @@
+package org.seed.mybatis.benchmark.entity;
+
+import lombok.Data;
+import org.seed.mybatis.core.annotation.Column;
+import org.seed.mybatis.core.annotation.LogicDelete;
+import org.seed.mybatis.core.annotation.PrimaryKey;
+import org.seed.mybatis.core.annotation.Table;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * 用户
+ */
+@Data
+@Table(name = "t_user", key = @PrimaryKey(name = "id"))
+public class User {
+
+    private Long id;
+
+    private String username;
+
+    private String state;
+
+    private Byte isdel;
+
+    private BigDecimal money;
+
+    @Column(version = true)
+    private Long version;
+
+    @LogicDelete
+    private Byte deleted;
+
+    private Date addTime;
+
+    private Date updateTime;
+}
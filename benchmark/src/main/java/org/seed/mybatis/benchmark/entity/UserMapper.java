@@ -0,0 +1,6 @@
+package org.seed.mybatis.benchmark.entity;
+
+import org.seed.mybatis.core.mapper.CrudMapper;
+
+public interface UserMapper extends CrudMapper<User, Long> {
+}
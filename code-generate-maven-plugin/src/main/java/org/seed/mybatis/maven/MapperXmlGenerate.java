@@ -0,0 +1,208 @@
+package org.seed.mybatis.maven;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.seed.mybatis.core.SeedMybatisConfig;
+import org.seed.mybatis.core.SeedMybatisConstants;
+import org.seed.mybatis.core.ext.MapperIndex;
+import org.seed.mybatis.core.ext.MapperLocationsBuilder;
+import org.seed.mybatis.core.ext.MyBatisResource;
+import org.seed.mybatis.core.handler.BaseFill;
+import org.seed.mybatis.core.util.IOUtil;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 构建期预生成mapper文件<br>
+ * 扫描编译后的Mapper接口，使用与运行时相同的生成流程，将合并扩展文件后的mapper和索引写入target/classes，
+ * 运行时检测到索引直接加载，跳过反射和模板生成。
+ *
+ * <pre>
+ * &lt;plugin&gt;
+ *     &lt;groupId&gt;org.seed.mybatis&lt;/groupId&gt;
+ *     &lt;artifactId&gt;code-generate-maven-plugin&lt;/artifactId&gt;
+ *     &lt;executions&gt;
+ *         &lt;execution&gt;
+ *             &lt;goals&gt;&lt;goal&gt;mapper-xml&lt;/goal&gt;&lt;/goals&gt;
+ *         &lt;/execution&gt;
+ *     &lt;/executions&gt;
+ *     &lt;configuration&gt;
+ *         &lt;basePackage&gt;com.example.mapper&lt;/basePackage&gt;
+ *         &lt;dialect&gt;mysql&lt;/dialect&gt;
+ *         &lt;mapperLocations&gt;mybatis/mapper&lt;/mapperLocations&gt;
+ *     &lt;/configuration&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ *
+ * 配置项需要与运行时一致（basePackage、方言、模板、全局模板、字段填充等），否则运行时会忽略索引并重新生成。
+ */
+@Mojo(name = "mapper-xml", defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+        requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME)
+public class MapperXmlGenerate extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File outputDirectory;
+
+    @Parameter(defaultValue = "${project.runtimeClasspathElements}", readonly = true, required = true)
+    private List<String> classpathElements;
+
+    /**
+     * Mapper所在包，多个用逗号隔开，与运行时basePackage一致
+     */
+    @Parameter(property = "seed.mybatis.basePackage", required = true)
+    private String basePackage;
+
+    /**
+     * 数据库方言，如：mysql，postgresql，oracle
+     */
+    @Parameter(property = "seed.mybatis.dialect", defaultValue = "mysql")
+    private String dialect;
+
+    /**
+     * 扩展mapper文件所在classpath目录，如：mybatis/mapper
+     */
+    @Parameter
+    private String[] mapperLocations;
+
+    @Parameter(defaultValue = "true")
+    private boolean camel2underline;
+
+    @Parameter
+    private String templateClasspath;
+
+    @Parameter
+    private String globalVmLocation;
+
+    @Parameter
+    private String countExpression;
+
+    @Parameter
+    private String logicDeleteValue;
+
+    @Parameter
+    private String logicNotDeleteValue;
+
+    @Parameter
+    private String globalIdName;
+
+    @Parameter(defaultValue = "true")
+    private boolean globalIdIncrement;
+
+    @Parameter(defaultValue = "false")
+    private boolean ignoreLogicDeleteWithAssociation;
+
+    @Parameter
+    private List<String> ignoreUpdateColumns;
+
+    /**
+     * 字段填充器类名，需要有无参构造方法
+     */
+    @Parameter
+    private List<String> fills;
+
+    @Parameter(property = "seed.mybatis.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("跳过预生成mapper");
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        ClassLoader originalClassLoader = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(this.buildClasspathUrls(), getClass().getClassLoader())) {
+            // 扫描Mapper、读取模板均使用线程上下文类加载器
+            thread.setContextClassLoader(classLoader);
+            SeedMybatisConfig config = this.buildConfig(classLoader);
+            MapperLocationsBuilder mapperLocationsBuilder = new MapperLocationsBuilder();
+            mapperLocationsBuilder.setConfig(config);
+            MapperIndex index = mapperLocationsBuilder.buildIndex(basePackage, this.loadExtMapperFiles(), dialect);
+            index.write(outputDirectory);
+            getLog().info("预生成mapper" + index.size() + "个，输出目录：" + new File(outputDirectory, MapperIndex.MAPPER_DIR));
+        } catch (MojoExecutionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MojoExecutionException("预生成mapper失败", e);
+        } finally {
+            thread.setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    private URL[] buildClasspathUrls() throws MalformedURLException {
+        List<URL> urls = new ArrayList<>(classpathElements.size());
+        for (String element : classpathElements) {
+            urls.add(new File(element).toURI().toURL());
+        }
+        return urls.toArray(new URL[0]);
+    }
+
+    private SeedMybatisConfig buildConfig(ClassLoader classLoader) throws MojoExecutionException {
+        SeedMybatisConfig config = new SeedMybatisConfig();
+        config.setCamel2underline(camel2underline);
+        config.setGlobalIdIncrement(globalIdIncrement);
+        config.setIgnoreLogicDeleteWithAssociation(ignoreLogicDeleteWithAssociation);
+        // 构建期只有一个线程池，避免占用构建机过多线程
+        config.setMapperExecutorPoolSize(Runtime.getRuntime().availableProcessors());
+        if (templateClasspath != null) {
+            config.setTemplateClasspath(templateClasspath);
+        }
+        if (globalVmLocation != null) {
+            config.setGlobalVmLocation(globalVmLocation);
+        }
+        if (countExpression != null) {
+            config.setCountExpression(countExpression);
+        }
+        if (logicDeleteValue != null) {
+            config.setLogicDeleteValue(logicDeleteValue);
+        }
+        if (logicNotDeleteValue != null) {
+            config.setLogicNotDeleteValue(logicNotDeleteValue);
+        }
+        if (globalIdName != null) {
+            config.setGlobalIdName(globalIdName);
+        }
+        if (ignoreUpdateColumns != null) {
+            config.setIgnoreUpdateColumns(ignoreUpdateColumns);
+        }
+        if (fills != null && !fills.isEmpty()) {
+            List<BaseFill<?>> fillList = new ArrayList<>(fills.size());
+            for (String fillClassName : fills) {
+                try {
+                    fillList.add((BaseFill<?>) classLoader.loadClass(fillClassName).getDeclaredConstructor().newInstance());
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    throw new MojoExecutionException("创建字段填充器失败：" + fillClassName, e);
+                }
+            }
+            config.setFills(fillList);
+        }
+        return config;
+    }
+
+    /**
+     * 读取扩展mapper文件，构建期合并到生成的mapper中
+     */
+    private List<MyBatisResource> loadExtMapperFiles() throws Exception {
+        List<MyBatisResource> myBatisResources = new ArrayList<>();
+        if (mapperLocations == null) {
+            return myBatisResources;
+        }
+        for (String mapperLocation : mapperLocations) {
+            File dir = new File(outputDirectory, mapperLocation);
+            for (IOUtil.ResourceFile resourceFile : IOUtil.listFiles(dir, SeedMybatisConstants.XML_SUFFIX)) {
+                myBatisResources.add(MyBatisResource.buildFromFile(resourceFile.getFilename(), resourceFile.getContent()));
+            }
+        }
+        return myBatisResources;
+    }
+
+}
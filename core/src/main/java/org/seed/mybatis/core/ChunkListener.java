@@ -0,0 +1,19 @@
+package org.seed.mybatis.core;
+
+/**
+ * 分批执行进度回调，每批提交后调用
+ *
+ * @see ChunkOption
+ */
+@FunctionalInterface
+public interface ChunkListener {
+
+    /**
+     * 一批执行完毕并提交
+     *
+     * @param chunkIndex 批次，从1开始
+     * @param rows       本批影响行数
+     * @param totalRows  累计影响行数
+     */
+    void onChunk(int chunkIndex, int rows, int totalRows);
+}
@@ -0,0 +1,116 @@
+package org.seed.mybatis.core;
+
+/**
+ * 按条件分批更新、删除的参数<br>
+ * 按主键升序每次取chunkSize条主键，按主键IN条件执行，每批一个事务，批次之间可暂停或限速
+ * <pre>
+ * {@literal
+ * ChunkOption option = ChunkOption.of(1000)
+ *         .pauseMillis(100)
+ *         .listener((chunkIndex, rows, totalRows) -> log.info("已删除：{}", totalRows));
+ * }
+ * </pre>
+ */
+public class ChunkOption {
+
+    /**
+     * 默认每批条数
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * 每批条数
+     */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * 每批之间暂停毫秒数
+     */
+    private long pauseMillis;
+
+    /**
+     * 每秒最多影响行数，小于等于0不限速
+     */
+    private int rowsPerSecond;
+
+    /**
+     * 进度回调
+     */
+    private ChunkListener listener;
+
+    /**
+     * 指定每批条数
+     *
+     * @param chunkSize 每批条数，不超过IN查询每批最大值个数
+     * @return 返回ChunkOption对象
+     */
+    public static ChunkOption of(int chunkSize) {
+        return new ChunkOption().chunkSize(chunkSize);
+    }
+
+    /**
+     * 设置每批条数
+     *
+     * @param chunkSize 每批条数
+     * @return 返回ChunkOption对象
+     */
+    public ChunkOption chunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize必须大于0");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * 设置每批之间暂停毫秒数
+     *
+     * @param pauseMillis 暂停毫秒数
+     * @return 返回ChunkOption对象
+     */
+    public ChunkOption pauseMillis(long pauseMillis) {
+        if (pauseMillis < 0) {
+            throw new IllegalArgumentException("pauseMillis不能小于0");
+        }
+        this.pauseMillis = pauseMillis;
+        return this;
+    }
+
+    /**
+     * 设置每秒最多影响行数，执行过快时在批次之间等待
+     *
+     * @param rowsPerSecond 每秒最多影响行数，小于等于0不限速
+     * @return 返回ChunkOption对象
+     */
+    public ChunkOption rowsPerSecond(int rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+        return this;
+    }
+
+    /**
+     * 设置进度回调
+     *
+     * @param listener 每批提交后调用
+     * @return 返回ChunkOption对象
+     */
+    public ChunkOption listener(ChunkListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public long getPauseMillis() {
+        return pauseMillis;
+    }
+
+    public int getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public ChunkListener getListener() {
+        return listener;
+    }
+}
@@ -0,0 +1,79 @@
+package org.seed.mybatis.core;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 游标分页结果，不查询总记录数
+ *
+ * @param <E> 实体类
+ */
+public class CursorPage<E> implements Serializable {
+
+    private static final long serialVersionUID = -2304885297519766612L;
+
+    /**
+     * 结果集
+     */
+    private List<E> list = Collections.emptyList();
+
+    /**
+     * 每页记录数
+     */
+    private int pageSize;
+
+    /**
+     * 下一页游标，没有下一页为null
+     */
+    private String nextCursor;
+
+    /**
+     * 结果集
+     *
+     * @return 返回结果集
+     */
+    public List<E> getList() {
+        return list;
+    }
+
+    public void setList(List<E> list) {
+        this.list = list;
+    }
+
+    /**
+     * 每页记录数
+     *
+     * @return 返回每页记录数
+     * @mock 20
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * 下一页游标，查询下一页时原样传回
+     *
+     * @return 返回下一页游标，没有下一页返回null
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * 是否有下一页
+     *
+     * @return true：有下一页
+     */
+    public boolean getHasNext() {
+        return nextCursor != null;
+    }
+}
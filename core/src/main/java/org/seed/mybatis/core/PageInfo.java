@@ -85,6 +85,16 @@ public class PageInfo<E> extends PageSupport<E> {
         return this.fetchTotal();
     }
 
+    /**
+     * 总记录数是否超出统计上限，为true时可显示为“total+”
+     *
+     * @return true：实际记录数大于总记录数
+     * @mock false
+     */
+    public boolean getTotalCapped() {
+        return this.fetchTotalCapped();
+    }
+
     /**
      * 当前页索引,等同于currentPageIndex
      *
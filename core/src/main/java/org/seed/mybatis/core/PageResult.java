@@ -51,4 +51,12 @@ public interface PageResult<E> extends Serializable {
      * @param pageCount 总页数
      */
     void setPageCount(int pageCount);
+
+    /**
+     * 设置总记录数是否超出统计上限，见{@link org.seed.mybatis.core.query.Query#countLimit(int)}
+     *
+     * @param totalCapped true：实际记录数大于总记录数
+     */
+    default void setTotalCapped(boolean totalCapped) {
+    }
 }
@@ -24,6 +24,10 @@ public class PageSupport<E> implements PageResult<E> {
      * 总记录数
      */
     private long total = 0;
+    /**
+     * 总记录数是否超出统计上限
+     */
+    private boolean totalCapped;
     /**
      * 当前记录位置
      */
@@ -131,6 +135,15 @@ public class PageSupport<E> implements PageResult<E> {
         return total;
     }
 
+    /**
+     * 总记录数是否超出统计上限
+     *
+     * @return true：实际记录数大于总记录数
+     */
+    protected boolean fetchTotalCapped() {
+        return totalCapped;
+    }
+
     /**
      * 当前页索引,等同于getCurrentPageIndex()
      *
@@ -172,6 +185,11 @@ public class PageSupport<E> implements PageResult<E> {
         this.total = total;
     }
 
+    @Override
+    public void setTotalCapped(boolean totalCapped) {
+        this.totalCapped = totalCapped;
+    }
+
     @Override
     public void setPageIndex(int pageIndex) {
         this.pageIndex = pageIndex;
@@ -202,6 +220,7 @@ public class PageSupport<E> implements PageResult<E> {
         return "PageSupport{" +
                 "list=" + list +
                 ", total=" + total +
+                ", totalCapped=" + totalCapped +
                 ", start=" + start +
                 ", pageIndex=" + pageIndex +
                 ", pageSize=" + pageSize +
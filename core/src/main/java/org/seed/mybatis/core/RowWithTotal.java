@@ -0,0 +1,48 @@
+package org.seed.mybatis.core;
+
+/**
+ * 分页查询的一行记录及窗口函数COUNT(*) OVER()返回的总记录数
+ *
+ * @param <E> 实体类
+ */
+public class RowWithTotal<E> {
+
+    /**
+     * 行号，区分每一行
+     */
+    private long rowNumber;
+
+    /**
+     * 总记录数
+     */
+    private long total;
+
+    /**
+     * 记录
+     */
+    private E entity;
+
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    public void setRowNumber(long rowNumber) {
+        this.rowNumber = rowNumber;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public E getEntity() {
+        return entity;
+    }
+
+    public void setEntity(E entity) {
+        this.entity = entity;
+    }
+}
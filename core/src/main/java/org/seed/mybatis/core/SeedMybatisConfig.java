@@ -8,7 +8,9 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * fastmybatis配置项
@@ -64,6 +66,71 @@ public class SeedMybatisConfig {
      */
     private String mapperSaveDir;
 
+    /**
+     * 生成的mapper缓存文件夹，不为空时开启磁盘缓存
+     */
+    private String mapperCacheDir;
+
+    /**
+     * 存在构建期预生成的mapper索引时直接加载，默认true
+     */
+    private boolean usePregeneratedMapper = true;
+
+    /**
+     * 使用Java拼接Query条件，代替commonSql.xml中condition片段的OGNL解析，默认true
+     */
+    private boolean useJavaCondition = true;
+
+    /**
+     * Query形状缓存大小，小于等于0关闭，默认1024
+     */
+    private int queryShapeCacheSize = 1024;
+
+    /**
+     * IN查询每批最大值个数，超过后listByIds、deleteByIds等方法分批执行，默认1000
+     */
+    private int inChunkSize = 1000;
+
+    /**
+     * 各数据库IN查询每批最大值个数，key：方言，如：oracle，microsoftsqlserver
+     */
+    private Map<String, Integer> dialectInChunkSize = new HashMap<>(8);
+
+    /**
+     * 分批查询的并行数，大于1时并行查询，默认1
+     */
+    private int inChunkParallelism = 1;
+
+    /**
+     * IN值个数补齐到2的幂，减少SQL语句种类，默认true
+     */
+    private boolean inListPadding = true;
+
+    /**
+     * 分页查询时用窗口函数COUNT(*) OVER()一次查出结果集和总记录数，默认false
+     */
+    private boolean pageWithWindowTotal;
+
+    /**
+     * 分页查询总记录数缓存秒数，默认0，不缓存
+     */
+    private int totalCacheSeconds;
+
+    /**
+     * 总记录数缓存最大条数
+     */
+    private int totalCacheSize = 1024;
+
+    /**
+     * 游标查询每次从数据库读取的记录数，默认0：MySQL逐行流式读取，其它数据库1000
+     */
+    private int cursorFetchSize;
+
+    /**
+     * 记录查询出来的实体类字段快照，updateChanged只更新修改过的字段，默认false
+     */
+    private boolean dirtyTracking;
+
     private String countExpression = COUNT_EXPRESSION;
 
     /**
@@ -113,6 +180,9 @@ public class SeedMybatisConfig {
 
     public SeedMybatisConfig() {
         ignoreUpdateColumns.addAll(defaultIgnoreUpdateColumns);
+        // oracle IN最多1000个值，sqlserver单条语句最多2100个参数
+        dialectInChunkSize.put("oracle", 1000);
+        dialectInChunkSize.put("microsoftsqlserver", 2000);
     }
 
     public String[] getMapperLocations() {
@@ -192,6 +262,224 @@ public class SeedMybatisConfig {
         this.mapperSaveDir = mapperSaveDir;
     }
 
+    public String getMapperCacheDir() {
+        return mapperCacheDir;
+    }
+
+    /**
+     * 设置生成的mapper缓存文件夹<br>
+     * 开启后启动时根据实体类字节码、模板、配置计算指纹，指纹不变直接读取缓存的mapper，跳过模板生成，加快启动速度。<br>
+     * 多个实例可以共享同一个文件夹。
+     *
+     * @param mapperCacheDir 缓存文件夹地址，如：/data/seed-mybatis/mapper-cache
+     */
+    public void setMapperCacheDir(String mapperCacheDir) {
+        this.mapperCacheDir = mapperCacheDir;
+    }
+
+    public boolean isUsePregeneratedMapper() {
+        return usePregeneratedMapper;
+    }
+
+    /**
+     * 是否使用构建期预生成的mapper<br>
+     * classpath下存在META-INF/seed-mybatis/mapper-index.properties（由code-generate-maven-plugin的mapper-xml目标生成），
+     * 且basePackage、方言、模板和配置一致时，直接加载预生成的mapper，跳过反射和模板生成。
+     *
+     * @param usePregeneratedMapper true：使用
+     */
+    public void setUsePregeneratedMapper(boolean usePregeneratedMapper) {
+        this.usePregeneratedMapper = usePregeneratedMapper;
+    }
+
+    public boolean isUseJavaCondition() {
+        return useJavaCondition;
+    }
+
+    /**
+     * 是否使用Java拼接Query条件<br>
+     * 开启后未指定defaultScriptingLanguage时，默认脚本语言驱动设置为SeedLanguageDriver，
+     * 直接遍历Query条件生成WHERE语句和参数，不再对每个条件执行OGNL表达式。
+     *
+     * @param useJavaCondition true：使用
+     */
+    public void setUseJavaCondition(boolean useJavaCondition) {
+        this.useJavaCondition = useJavaCondition;
+    }
+
+    public int getQueryShapeCacheSize() {
+        return queryShapeCacheSize;
+    }
+
+    /**
+     * 设置Query形状缓存大小<br>
+     * 使用SeedLanguageDriver时，参数只有Query的语句（list、getCount等）按条件字段、操作符、IN个数、排序、分页等形状缓存渲染好的SQL，
+     * 形状相同的查询只绑定参数值，不再渲染动态SQL。命中率通过SeedLanguageDriver.getShapeCacheStats()查看。
+     *
+     * @param queryShapeCacheSize 最大缓存条目数，小于等于0关闭
+     */
+    public void setQueryShapeCacheSize(int queryShapeCacheSize) {
+        this.queryShapeCacheSize = queryShapeCacheSize;
+    }
+
+    public int getInChunkSize() {
+        return inChunkSize;
+    }
+
+    /**
+     * 设置IN查询每批最大值个数<br>
+     * listByIds、listByCollection、deleteByIds、deleteByColumn传入的值超过该数量时拆分成多条语句执行，结果按顺序合并；分批删除在同一个事务中执行
+     *
+     * @param inChunkSize 每批最大值个数，小于等于0不拆分
+     */
+    public void setInChunkSize(int inChunkSize) {
+        this.inChunkSize = inChunkSize;
+    }
+
+    public Map<String, Integer> getDialectInChunkSize() {
+        return dialectInChunkSize;
+    }
+
+    /**
+     * 设置各数据库IN查询每批最大值个数，覆盖inChunkSize
+     *
+     * @param dialectInChunkSize key：方言，如：oracle，microsoftsqlserver，value：每批最大值个数
+     */
+    public void setDialectInChunkSize(Map<String, Integer> dialectInChunkSize) {
+        for (Map.Entry<String, Integer> entry : dialectInChunkSize.entrySet()) {
+            this.dialectInChunkSize.put(normalizeDialect(entry.getKey()), entry.getValue());
+        }
+    }
+
+    /**
+     * 返回指定数据库IN查询每批最大值个数
+     *
+     * @param dialect 数据库方言
+     * @return 返回每批最大值个数，小于等于0不拆分
+     */
+    public int getInChunkSize(String dialect) {
+        if (dialect != null) {
+            Integer size = dialectInChunkSize.get(normalizeDialect(dialect));
+            if (size != null) {
+                return size;
+            }
+        }
+        return inChunkSize;
+    }
+
+    private static String normalizeDialect(String dialect) {
+        return dialect.replaceAll("\\s", "").toLowerCase();
+    }
+
+    public int getInChunkParallelism() {
+        return inChunkParallelism;
+    }
+
+    /**
+     * 设置分批查询的并行数<br>
+     * 大于1时listByIds、listByCollection的各批次并行查询，并行查询不在当前事务中执行，且要求Mapper由Spring管理（线程安全的SqlSessionTemplate）。删除始终按顺序执行。<br>
+     * 只作用于当前SqlSessionFactory的实体类；当前线程的上下文通过{@link SeedMybatisContext#setTaskDecorator(TaskDecorator)}传给执行线程。
+     *
+     * @param inChunkParallelism 并行数
+     */
+    public void setInChunkParallelism(int inChunkParallelism) {
+        if (inChunkParallelism <= 0) {
+            throw new IllegalArgumentException("inChunkParallelism必须大于0");
+        }
+        this.inChunkParallelism = inChunkParallelism;
+    }
+
+    public boolean isInListPadding() {
+        return inListPadding;
+    }
+
+    /**
+     * 是否补齐IN值个数<br>
+     * 开启后使用Java拼接Query条件时，IN值个数补齐到2的幂（不超过每批最大值个数），补齐部分重复最后一个值，
+     * 如3个值补齐为4个，使不同个数的IN查询只产生少数几种SQL语句，提高数据库语句缓存和Query形状缓存命中率。
+     *
+     * @param inListPadding true：补齐
+     */
+    public void setInListPadding(boolean inListPadding) {
+        this.inListPadding = inListPadding;
+    }
+
+    public boolean isPageWithWindowTotal() {
+        return pageWithWindowTotal;
+    }
+
+    /**
+     * 分页查询是否用窗口函数一次查出结果集和总记录数<br>
+     * 开启后MySQL 8.0+、PostgreSQL、SQL Server、Oracle的分页查询执行listWithTotal，不再单独执行COUNT语句；
+     * 数据库不支持窗口函数、没有listWithTotal语句（如SQLite、自定义模板）或distinct查询时自动改为先查总数再查结果集。<br>
+     * 只作用于当前SqlSessionFactory的实体类。
+     *
+     * @param pageWithWindowTotal true：开启
+     */
+    public void setPageWithWindowTotal(boolean pageWithWindowTotal) {
+        this.pageWithWindowTotal = pageWithWindowTotal;
+    }
+
+    public int getTotalCacheSeconds() {
+        return totalCacheSeconds;
+    }
+
+    /**
+     * 设置分页查询总记录数缓存秒数<br>
+     * 相同查询条件（不含分页、排序）翻页时直接使用缓存的总记录数，不再执行COUNT；
+     * 该mapper执行insert、update、delete后缓存失效。其它途径修改了表数据时，最多在缓存秒数后更新。<br>
+     * 只作用于当前SqlSessionFactory的mapper，各SqlSessionFactory的缓存互相独立。
+     *
+     * @param totalCacheSeconds 缓存秒数，0表示不缓存
+     */
+    public void setTotalCacheSeconds(int totalCacheSeconds) {
+        this.totalCacheSeconds = totalCacheSeconds;
+    }
+
+    public int getTotalCacheSize() {
+        return totalCacheSize;
+    }
+
+    /**
+     * 设置总记录数缓存最大条数，超出后淘汰最早的缓存
+     *
+     * @param totalCacheSize 最大条数，默认1024
+     */
+    public void setTotalCacheSize(int totalCacheSize) {
+        this.totalCacheSize = totalCacheSize;
+    }
+
+    public int getCursorFetchSize() {
+        return cursorFetchSize;
+    }
+
+    /**
+     * 设置游标查询每次从数据库读取的记录数<br>
+     * 默认0：MySQL使用Integer.MIN_VALUE逐行流式读取，其它数据库每次读取1000条。
+     * MySQL设置大于0的值时需要在连接参数中加上useCursorFetch=true。
+     *
+     * @param cursorFetchSize 每次读取的记录数
+     */
+    public void setCursorFetchSize(int cursorFetchSize) {
+        this.cursorFetchSize = cursorFetchSize;
+    }
+
+    public boolean isDirtyTracking() {
+        return dirtyTracking;
+    }
+
+    /**
+     * 设置是否记录实体类字段快照<br>
+     * 开启后mapper查询出来的实体类记录每个字段值，updateChanged只更新与快照不同的字段；
+     * 没有快照的实体类（如new出来的对象）updateChanged更新全部字段。<br>
+     * 只作用于当前SqlSessionFactory的实体类。
+     *
+     * @param dirtyTracking true：开启
+     */
+    public void setDirtyTracking(boolean dirtyTracking) {
+        this.dirtyTracking = dirtyTracking;
+    }
+
     /**
      * 设置字段填充
      *
@@ -206,6 +494,10 @@ public class SeedMybatisConfig {
         fillList.sort(Comparator.comparingInt(BaseFill::getOrder));
     }
 
+    public List<BaseFill<?>> getFillList() {
+        return Collections.unmodifiableList(fillList);
+    }
+
     public BaseFill<?> getFill(Class<?> entityClass, Field field, String columnName) {
         for (BaseFill<?> fillHandler : fillList) {
             if (fillHandler.match(entityClass, field, columnName)) {
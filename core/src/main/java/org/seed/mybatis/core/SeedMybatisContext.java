@@ -12,18 +12,52 @@ import org.seed.mybatis.core.mapper.CrudMapper;
 import org.seed.mybatis.core.util.ClassUtil;
 
 import java.lang.reflect.Field;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 
 public class SeedMybatisContext {
 
     private static final Log LOG = LogFactory.getLog(SeedMybatisContext.class);
 
-    private static final Map<String, EntityInfo> ENTITY_INFO_MAP = new HashMap<>(16);
+    private static final Map<String, EntityInfo> ENTITY_INFO_MAP = new ConcurrentHashMap<>(16);
+
+    /**
+     * key：实体类名，value：IN查询每批最大值个数
+     */
+    private static final Map<String, Integer> IN_CHUNK_SIZE_MAP = new ConcurrentHashMap<>(16);
+
+    /**
+     * key：实体类名，value：IN查询分批并行数
+     */
+    private static final Map<String, Integer> IN_CHUNK_PARALLELISM_MAP = new ConcurrentHashMap<>(16);
+
+    /**
+     * key：并行数，value：分批并行查询使用的线程池
+     */
+    private static final Map<Integer, ExecutorService> IN_CHUNK_EXECUTOR_MAP = new ConcurrentHashMap<>(4);
+
+    /**
+     * 不支持listWithTotal的实体类名，数据库不支持窗口函数或没有该语句
+     */
+    private static final Set<String> WINDOW_TOTAL_UNSUPPORTED = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 分页查询使用窗口函数的实体类名
+     */
+    private static final Set<String> WINDOW_TOTAL_ENABLED = ConcurrentHashMap.newKeySet();
 
     private static Object applicationContext;
 
+    private static volatile TaskDecorator taskDecorator;
+
+    private static volatile Supplier<Object> routingKeySupplier;
+
     public static void setApplicationContext(Object applicationContext) {
         SeedMybatisContext.applicationContext = applicationContext;
     }
@@ -95,4 +129,139 @@ public class SeedMybatisContext {
         }
     }
 
+    /**
+     * 设置实体类IN查询每批最大值个数，由所属数据库决定
+     *
+     * @param entityClass 实体类class
+     * @param chunkSize   每批最大值个数，小于等于0不拆分
+     */
+    public static void setInChunkSize(Class<?> entityClass, int chunkSize) {
+        IN_CHUNK_SIZE_MAP.put(entityClass.getName(), chunkSize);
+    }
+
+    /**
+     * 获取实体类IN查询每批最大值个数
+     *
+     * @param entityClass 实体类class
+     * @return 返回每批最大值个数，小于等于0不拆分
+     */
+    public static int getInChunkSize(Class<?> entityClass) {
+        if (entityClass == null) {
+            return 0;
+        }
+        Integer chunkSize = IN_CHUNK_SIZE_MAP.get(entityClass.getName());
+        return chunkSize == null ? 0 : chunkSize;
+    }
+
+    /**
+     * 设置实体类IN查询分批并行数，由所属SqlSessionFactory的配置决定
+     *
+     * @param entityClass        实体类class
+     * @param inChunkParallelism 并行数，小于等于1串行
+     */
+    public static void setInChunkParallelism(Class<?> entityClass, int inChunkParallelism) {
+        IN_CHUNK_PARALLELISM_MAP.put(entityClass.getName(), inChunkParallelism);
+    }
+
+    /**
+     * 获取实体类IN查询分批并行数
+     *
+     * @param entityClass 实体类class
+     * @return 返回并行数，小于等于1串行
+     */
+    public static int getInChunkParallelism(Class<?> entityClass) {
+        if (entityClass == null) {
+            return 1;
+        }
+        Integer parallelism = IN_CHUNK_PARALLELISM_MAP.get(entityClass.getName());
+        return parallelism == null ? 1 : parallelism;
+    }
+
+    /**
+     * 分批并行查询使用的线程池，守护线程，相同并行数共用一个
+     *
+     * @param parallelism 并行数，即线程池大小
+     * @return 返回线程池
+     */
+    public static ExecutorService getInChunkExecutor(int parallelism) {
+        return IN_CHUNK_EXECUTOR_MAP.computeIfAbsent(parallelism, size -> {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newFixedThreadPool(size, runnable -> {
+                Thread thread = new Thread(runnable, "seed-mybatis-in-chunk-" + size + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        });
+    }
+
+    /**
+     * 设置任务装饰，分批并行查询时用来把当前线程的上下文传给执行线程
+     *
+     * @param taskDecorator 任务装饰，null表示不装饰
+     */
+    public static void setTaskDecorator(TaskDecorator taskDecorator) {
+        SeedMybatisContext.taskDecorator = taskDecorator;
+    }
+
+    public static TaskDecorator getTaskDecorator() {
+        return taskDecorator;
+    }
+
+    /**
+     * 设置当前线程数据源、分表路由标识的获取方式<br>
+     * 总记录数缓存的key包含该标识，不同库、表的结果互不干扰
+     *
+     * @param routingKeySupplier 返回当前线程的路由标识，未路由返回null
+     */
+    public static void setRoutingKeySupplier(Supplier<Object> routingKeySupplier) {
+        SeedMybatisContext.routingKeySupplier = routingKeySupplier;
+    }
+
+    public static Supplier<Object> getRoutingKeySupplier() {
+        return routingKeySupplier;
+    }
+
+    /**
+     * 返回当前线程的路由标识
+     *
+     * @return 返回路由标识，未设置获取方式或未路由返回null
+     */
+    public static Object getRoutingKey() {
+        Supplier<Object> supplier = routingKeySupplier;
+        return supplier == null ? null : supplier.get();
+    }
+
+    /**
+     * 设置实体类分页查询是否使用窗口函数，按实体类所属SqlSessionFactory的配置设置
+     *
+     * @param entityClass         实体类class
+     * @param pageWithWindowTotal true：使用
+     */
+    public static void setPageWithWindowTotal(Class<?> entityClass, boolean pageWithWindowTotal) {
+        if (pageWithWindowTotal) {
+            WINDOW_TOTAL_ENABLED.add(entityClass.getName());
+        } else {
+            WINDOW_TOTAL_ENABLED.remove(entityClass.getName());
+        }
+    }
+
+    /**
+     * 实体类分页查询是否使用窗口函数一次查出结果集和总记录数
+     *
+     * @param entityClass 实体类class
+     * @return true：使用listWithTotal
+     */
+    public static boolean isPageWithWindowTotal(Class<?> entityClass) {
+        return WINDOW_TOTAL_ENABLED.contains(entityClass.getName()) && !WINDOW_TOTAL_UNSUPPORTED.contains(entityClass.getName());
+    }
+
+    /**
+     * 标记实体类不支持listWithTotal，之后改为先查总数再查结果集
+     *
+     * @param entityClass 实体类class
+     */
+    public static void setWindowTotalUnsupported(Class<?> entityClass) {
+        WINDOW_TOTAL_UNSUPPORTED.add(entityClass.getName());
+    }
+
 }
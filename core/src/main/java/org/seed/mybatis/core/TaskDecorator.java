@@ -0,0 +1,18 @@
+package org.seed.mybatis.core;
+
+/**
+ * 任务装饰，任务提交到其它线程前调用，用于把当前线程的上下文（如数据源路由）传给执行线程
+ *
+ * @see SeedMybatisContext#setTaskDecorator(TaskDecorator)
+ */
+@FunctionalInterface
+public interface TaskDecorator {
+
+    /**
+     * 在提交任务的线程中调用
+     *
+     * @param task 任务
+     * @return 返回包装后的任务，在执行线程中运行
+     */
+    Runnable decorate(Runnable task);
+}
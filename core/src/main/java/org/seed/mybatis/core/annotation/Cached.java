@@ -0,0 +1,41 @@
+package org.seed.mybatis.core.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+
+/**
+ * 按主键缓存实体类，作用在实体类上<br>
+ * Service的getById、listByIds先查缓存，listByIds只查询缓存中没有的主键；
+ * mapper执行写操作后按主键清除缓存，无法确定主键时清除该实体类全部缓存。
+ * <pre>
+ * {@literal
+ * @Table(name = "t_user")
+ * @Cached(seconds = 300, maxSize = 10000)
+ * public class TUser {
+ * }
+ * }
+ * </pre>
+ *
+ * @see org.seed.mybatis.core.util.EntityCache
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(TYPE)
+public @interface Cached {
+
+    /**
+     * 缓存秒数
+     *
+     * @return 返回缓存秒数，默认300
+     */
+    int seconds() default 300;
+
+    /**
+     * 最大缓存条数，超过后淘汰最久未使用的条目
+     *
+     * @return 返回最大缓存条数，默认1024
+     */
+    int maxSize() default 1024;
+}
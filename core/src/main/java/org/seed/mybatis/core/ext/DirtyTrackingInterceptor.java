@@ -0,0 +1,49 @@
+package org.seed.mybatis.core.ext;
+
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.seed.mybatis.core.util.DirtyTracker;
+
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 查询结果为实体类时记录字段快照，游标查询不记录
+ *
+ * @see DirtyTracker
+ */
+@Intercepts(@Signature(type = ResultSetHandler.class, method = "handleResultSets", args = {Statement.class}))
+public class DirtyTrackingInterceptor implements Interceptor {
+
+    /**
+     * 开启了字段快照时注册拦截器
+     *
+     * @param configuration mybatis配置
+     */
+    public static void register(Configuration configuration) {
+        if (!DirtyTracker.isEnabled()) {
+            return;
+        }
+        for (Interceptor interceptor : configuration.getInterceptors()) {
+            if (interceptor instanceof DirtyTrackingInterceptor) {
+                return;
+            }
+        }
+        configuration.addInterceptor(new DirtyTrackingInterceptor());
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (result instanceof List) {
+            for (Object row : (List<?>) result) {
+                DirtyTracker.snapshot(row);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+package org.seed.mybatis.core.ext;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.seed.mybatis.core.util.EntityCache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * mapper执行insert、update、delete后按主键清除实体类缓存<br>
+ * 执行后立即清除一次，session关闭（事务已提交或回滚）时再清除一次，
+ * 避免其它事务在提交前读到旧数据重新放入缓存。
+ *
+ * @see EntityCache
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+public class EntityCacheInterceptor implements Interceptor {
+
+    /**
+     * 一个session记录的主键个数上限，超过后关闭时清除全部
+     */
+    private static final int MAX_PENDING_KEYS = 1024;
+
+    /**
+     * key：执行器，value：mapper命名空间对应写过的缓存key，null表示全部
+     */
+    private final Map<Executor, Map<String, Set<Object>>> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 有实体类开启了缓存时注册拦截器
+     *
+     * @param configuration mybatis配置
+     */
+    public static void register(Configuration configuration) {
+        if (!EntityCache.isEnabled()) {
+            return;
+        }
+        for (Interceptor interceptor : configuration.getInterceptors()) {
+            if (interceptor instanceof EntityCacheInterceptor) {
+                return;
+            }
+        }
+        configuration.addInterceptor(new EntityCacheInterceptor());
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Executor executor = (Executor) invocation.getTarget();
+        if ("close".equals(invocation.getMethod().getName())) {
+            Map<String, Set<Object>> written = pending.remove(executor);
+            try {
+                return invocation.proceed();
+            } finally {
+                if (written != null) {
+                    written.forEach(EntityCache::invalidate);
+                }
+            }
+        }
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        try {
+            return invocation.proceed();
+        } finally {
+            String id = ms.getId();
+            int index = id.lastIndexOf('.');
+            if (index > 0) {
+                String namespace = id.substring(0, index);
+                Collection<Object> keys = EntityCache.invalidate(namespace, id.substring(index + 1), invocation.getArgs()[1]);
+                if (keys == null || !keys.isEmpty()) {
+                    this.remember(executor, namespace, keys);
+                }
+            }
+        }
+    }
+
+    private void remember(Executor executor, String namespace, Collection<Object> keys) {
+        Map<String, Set<Object>> written = pending.computeIfAbsent(executor, k -> new HashMap<>(4));
+        if (!written.containsKey(namespace)) {
+            written.put(namespace, keys == null || keys.size() > MAX_PENDING_KEYS ? null : new HashSet<>(keys));
+            return;
+        }
+        Set<Object> writtenKeys = written.get(namespace);
+        if (writtenKeys == null) {
+            return;
+        }
+        if (keys == null || writtenKeys.size() + keys.size() > MAX_PENDING_KEYS) {
+            written.put(namespace, null);
+        } else {
+            writtenKeys.addAll(keys);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.seed.mybatis.core.ext;
+
+import org.apache.ibatis.io.Resources;
+import org.seed.mybatis.core.SeedMybatisConstants;
+import org.seed.mybatis.core.ext.info.EntityInfo;
+import org.seed.mybatis.core.util.StringUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 构建期预生成的mapper索引<br>
+ * 由code-generate-maven-plugin的mapper-xml目标生成，运行时存在且与当前配置一致时直接加载预生成的mapper，跳过反射和模板生成。
+ *
+ * <pre>
+ * META-INF/seed-mybatis/mapper-index.properties     索引
+ * META-INF/seed-mybatis/mapper/com.xx.UserMapper.xml 合并扩展文件后的mapper
+ * </pre>
+ */
+public class MapperIndex {
+
+    public static final String INDEX_LOCATION = "META-INF/seed-mybatis/mapper-index.properties";
+
+    public static final String MAPPER_DIR = "META-INF/seed-mybatis/mapper/";
+
+    private static final String KEY_BASE_PACKAGE = "basePackage";
+    private static final String KEY_DIALECT = "dialect";
+    private static final String KEY_CONFIG_DIGEST = "configDigest";
+    private static final String KEY_MAPPERS = "mappers";
+    private static final String KEY_MERGED_FILES = "mergedFiles";
+    private static final String PREFIX_KEY_COLUMN = "keyColumn.";
+    private static final String PREFIX_KEY_JAVA_FIELD = "keyJavaField.";
+
+    private static final String SEPARATOR = ",";
+
+    private final String basePackage;
+
+    private final String dialect;
+
+    private final String configDigest;
+
+    /**
+     * key：Mapper类名，value：主键信息，非实体Mapper为null
+     */
+    private final Map<String, EntityInfo> mappers = new LinkedHashMap<>();
+
+    /**
+     * key：Mapper类名，value：mapper内容，只在构建期使用
+     */
+    private final Map<String, String> contents = new LinkedHashMap<>();
+
+    /**
+     * 构建期已经合并的扩展文件名
+     */
+    private final Set<String> mergedFiles = new LinkedHashSet<>();
+
+    public MapperIndex(String basePackage, String dialect, String configDigest) {
+        this.basePackage = basePackage;
+        this.dialect = dialect;
+        this.configDigest = configDigest;
+    }
+
+    /**
+     * 从classpath加载索引
+     *
+     * @return 返回索引，不存在返回null
+     * @throws IOException 读取失败
+     */
+    public static MapperIndex load() throws IOException {
+        InputStream in;
+        try {
+            in = Resources.getResourceAsStream(INDEX_LOCATION);
+        } catch (IOException e) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream input = in) {
+            properties.load(input);
+        }
+        MapperIndex index = new MapperIndex(properties.getProperty(KEY_BASE_PACKAGE),
+                properties.getProperty(KEY_DIALECT), properties.getProperty(KEY_CONFIG_DIGEST));
+        for (String mapperClassName : split(properties.getProperty(KEY_MAPPERS))) {
+            EntityInfo entityInfo = null;
+            String keyColumn = properties.getProperty(PREFIX_KEY_COLUMN + mapperClassName);
+            if (keyColumn != null) {
+                entityInfo = new EntityInfo();
+                entityInfo.setKeyColumn(keyColumn);
+                entityInfo.setKeyJavaField(properties.getProperty(PREFIX_KEY_JAVA_FIELD + mapperClassName));
+            }
+            index.mappers.put(mapperClassName, entityInfo);
+        }
+        index.mergedFiles.addAll(split(properties.getProperty(KEY_MERGED_FILES)));
+        return index;
+    }
+
+    /**
+     * 添加生成的mapper
+     *
+     * @param mapperClass Mapper类
+     * @param content     合并扩展文件后的mapper内容
+     * @param entityInfo  主键信息，可为null
+     */
+    public void addMapper(Class<?> mapperClass, String content, EntityInfo entityInfo) {
+        mappers.put(mapperClass.getName(), entityInfo);
+        contents.put(mapperClass.getName(), content);
+    }
+
+    /**
+     * 添加构建期已经合并的扩展文件
+     *
+     * @param filename 文件名
+     */
+    public void addMergedFile(String filename) {
+        mergedFiles.add(getSimpleFilename(filename));
+    }
+
+    /**
+     * 写入索引和mapper文件
+     *
+     * @param outputDirectory 输出目录，如：target/classes
+     * @throws IOException 写入失败
+     */
+    public void write(File outputDirectory) throws IOException {
+        File mapperDir = new File(outputDirectory, MAPPER_DIR);
+        if (!mapperDir.exists() && !mapperDir.mkdirs()) {
+            throw new IOException("创建文件夹失败：" + mapperDir);
+        }
+        Properties properties = new Properties();
+        properties.setProperty(KEY_BASE_PACKAGE, basePackage);
+        properties.setProperty(KEY_DIALECT, dialect);
+        properties.setProperty(KEY_CONFIG_DIGEST, configDigest);
+        properties.setProperty(KEY_MAPPERS, String.join(SEPARATOR, mappers.keySet()));
+        properties.setProperty(KEY_MERGED_FILES, String.join(SEPARATOR, mergedFiles));
+        for (Map.Entry<String, EntityInfo> entry : mappers.entrySet()) {
+            String mapperClassName = entry.getKey();
+            EntityInfo entityInfo = entry.getValue();
+            if (entityInfo != null && entityInfo.getKeyColumn() != null) {
+                properties.setProperty(PREFIX_KEY_COLUMN + mapperClassName, entityInfo.getKeyColumn());
+                if (entityInfo.getKeyJavaField() != null) {
+                    properties.setProperty(PREFIX_KEY_JAVA_FIELD + mapperClassName, entityInfo.getKeyJavaField());
+                }
+            }
+            String content = contents.get(mapperClassName);
+            Files.write(new File(mapperDir, mapperClassName + SeedMybatisConstants.XML_SUFFIX).toPath(),
+                    content.getBytes(StandardCharsets.UTF_8));
+        }
+        try (OutputStream out = Files.newOutputStream(new File(outputDirectory, INDEX_LOCATION).toPath())) {
+            properties.store(out, "Generated by seed-mybatis, do not edit");
+        }
+    }
+
+    /**
+     * 索引是否可以在当前环境使用
+     *
+     * @param basePackage  Mapper所在包
+     * @param dialect      数据库方言
+     * @param configDigest 当前模板和配置的摘要
+     * @return 返回true可以使用
+     */
+    public boolean matches(String basePackage, String dialect, String configDigest) {
+        return this.basePackage != null && this.basePackage.equals(basePackage)
+                && this.dialect != null && this.dialect.equals(dialect)
+                && this.configDigest != null && this.configDigest.equals(configDigest);
+    }
+
+    /**
+     * 返回预生成mapper的classpath路径
+     *
+     * @param mapperClassName Mapper类名
+     * @return 返回classpath路径
+     */
+    public static String getMapperLocation(String mapperClassName) {
+        return MAPPER_DIR + mapperClassName + SeedMybatisConstants.XML_SUFFIX;
+    }
+
+    public Collection<String> getMapperClassNames() {
+        return Collections.unmodifiableSet(mappers.keySet());
+    }
+
+    public EntityInfo getEntityInfo(String mapperClassName) {
+        return mappers.get(mapperClassName);
+    }
+
+    public boolean isMerged(String filename) {
+        return filename != null && mergedFiles.contains(getSimpleFilename(filename));
+    }
+
+    public String getBasePackage() {
+        return basePackage;
+    }
+
+    public String getDialect() {
+        return dialect;
+    }
+
+    public int size() {
+        return mappers.size();
+    }
+
+    private static String getSimpleFilename(String filename) {
+        return filename.substring(filename.lastIndexOf('/') + 1);
+    }
+
+    private static Set<String> split(String value) {
+        Set<String> set = new LinkedHashSet<>();
+        if (StringUtil.isEmpty(value)) {
+            return set;
+        }
+        for (String item : value.split(SEPARATOR)) {
+            if (!item.isEmpty()) {
+                set.add(item);
+            }
+        }
+        return set;
+    }
+}
@@ -2,29 +2,48 @@ package org.seed.mybatis.core.ext;
 
 
 import lombok.extern.slf4j.Slf4j;
-import org.dom4j.Attribute;
+import org.apache.ibatis.io.Resources;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
-import org.dom4j.Element;
 import org.dom4j.io.SAXReader;
 import org.seed.mybatis.core.SeedMybatisConfig;
 import org.seed.mybatis.core.SeedMybatisConstants;
+import org.seed.mybatis.core.SeedMybatisContext;
 import org.seed.mybatis.core.ext.code.client.ClassClient;
+import org.seed.mybatis.core.ext.code.util.FieldUtil;
+import org.seed.mybatis.core.ext.code.util.JavaTypeUtil;
+import org.seed.mybatis.core.ext.code.util.ReflectUtil;
 import org.seed.mybatis.core.ext.exception.GenerateCodeException;
 import org.seed.mybatis.core.ext.exception.MapperFileBuildException;
+import org.seed.mybatis.core.ext.info.EntityInfo;
+import org.seed.mybatis.core.ext.scripting.SeedLanguageDriver;
 import org.seed.mybatis.core.ext.spi.ClassSearch;
 import org.seed.mybatis.core.ext.spi.SpiContext;
+import org.seed.mybatis.core.util.ClassUtil;
 import org.seed.mybatis.core.util.IOUtil;
 import org.seed.mybatis.core.util.MybatisFileUtil;
 import org.seed.mybatis.core.util.StringUtil;
+import org.seed.mybatis.core.util.DirtyTracker;
+import org.seed.mybatis.core.util.EntityCache;
+import org.seed.mybatis.core.util.TotalCache;
 import org.xml.sax.SAXException;
 
+import javax.xml.stream.XMLStreamException;
+
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * mapper构建
@@ -35,6 +54,11 @@ public class MapperLocationsBuilder {
 
     private final Map<String, MyBatisResource> mybatisMapperStore = new HashMap<>();
 
+    /**
+     * 扩展mapper文件，key：namespace
+     */
+    private final Map<String, List<MyBatisResource>> namespaceIndex = new HashMap<>();
+
     private SeedMybatisConfig config = new SeedMybatisConfig();
 
     private List<String> mapperNames = Collections.emptyList();
@@ -44,6 +68,41 @@ public class MapperLocationsBuilder {
     private String dialect;
 
     public MyBatisResource[] build(String basePackage, List<MyBatisResource> myBatisResources, String dialect) {
+        return this.build(basePackage, myBatisResources, dialect, config.isUsePregeneratedMapper());
+    }
+
+    /**
+     * 构建期生成mapper索引，由code-generate-maven-plugin调用
+     *
+     * @param basePackage      Mapper所在包
+     * @param myBatisResources 扩展mapper文件
+     * @param dialect          数据库方言
+     * @return 返回索引，包含合并扩展文件后的mapper
+     * @throws IOException 读取模板失败
+     */
+    public MapperIndex buildIndex(String basePackage, List<MyBatisResource> myBatisResources, String dialect) throws IOException {
+        // 构建期不能读取上一次生成的索引
+        MyBatisResource[] resources = this.build(basePackage, myBatisResources, dialect, false);
+        String configDigest = MapperXmlCache.configDigest(config, this.buildTemplateResource(dialect).getContent(),
+                config.getGlobalVmLocation());
+        MapperIndex index = new MapperIndex(basePackage, this.normalizeDialect(dialect), configDigest);
+        for (MyBatisResource resource : resources) {
+            Class<?> mapperClass = resource.getMapperClass();
+            if (mapperClass != null) {
+                EntityInfo entityInfo = SeedMybatisContext.getEntityInfo(ExtContext.getEntityClass(mapperClass));
+                index.addMapper(mapperClass, resource.getContent(), entityInfo);
+            }
+        }
+        for (MyBatisResource myBatisResource : myBatisResources) {
+            if (myBatisResource.isMerged()) {
+                index.addMergedFile(myBatisResource.getFilename());
+            }
+        }
+        return index;
+    }
+
+    private MyBatisResource[] build(String basePackage, List<MyBatisResource> myBatisResources, String dialect,
+                                    boolean usePregeneratedMapper) {
         for (MyBatisResource myBatisResource : myBatisResources) {
             // XxDao.xml
             String filename = myBatisResource.getFilename();
@@ -51,11 +110,24 @@ public class MapperLocationsBuilder {
         }
         this.dialect = dialect;
         try {
-            String[] basePackages = StringUtil.tokenizeToStringArray(basePackage,
-                    StringUtil.CONFIG_LOCATION_DELIMITERS);
-            ClassSearch classSearch = SpiContext.getClassSearch();
-            Set<Class<?>> clazzSet = classSearch.search(Object.class, basePackages);
-            return this.buildMapperLocations(clazzSet);
+            MyBatisResource[] resources = null;
+            if (usePregeneratedMapper) {
+                resources = this.buildFromIndex(basePackage, myBatisResources);
+            }
+            if (resources == null) {
+                String[] basePackages = StringUtil.tokenizeToStringArray(basePackage,
+                        StringUtil.CONFIG_LOCATION_DELIMITERS);
+                ClassSearch classSearch = SpiContext.getClassSearch();
+                long startTime = System.currentTimeMillis();
+                Set<Class<?>> clazzSet = classSearch.search(Object.class, basePackages);
+                log.info("扫描Mapper类{}个，耗时：{}ms", clazzSet.size(), System.currentTimeMillis() - startTime);
+                resources = this.buildMapperLocations(clazzSet);
+            }
+            this.registerInListSettings();
+            this.registerColumnJavaFields();
+            this.registerFactorySettings();
+            this.registerEntityCaches();
+            return resources;
         } catch (Exception e) {
             log.error("构建mapper失败", e);
             throw new MapperFileBuildException(e);
@@ -64,8 +136,139 @@ public class MapperLocationsBuilder {
         }
     }
 
+    /**
+     * 按当前数据库设置实体类IN查询分批大小、并行数
+     */
+    private void registerInListSettings() {
+        int chunkSize = config.getInChunkSize(this.dialect);
+        for (Class<?> mapperClass : mapperClasses) {
+            Class<?> entityClass = ExtContext.getEntityClass(mapperClass);
+            SeedMybatisContext.setInChunkSize(entityClass, chunkSize);
+            SeedMybatisContext.setInChunkParallelism(entityClass, config.getInChunkParallelism());
+        }
+    }
+
+    /**
+     * 按当前配置设置实体类分页查询是否使用窗口函数、总记录数缓存、字段快照，只作用于当前SqlSessionFactory的实体类
+     */
+    private void registerFactorySettings() {
+        for (Class<?> mapperClass : mapperClasses) {
+            Class<?> entityClass = ExtContext.getEntityClass(mapperClass);
+            SeedMybatisContext.setPageWithWindowTotal(entityClass, config.isPageWithWindowTotal());
+            DirtyTracker.setEnabled(entityClass, config.isDirtyTracking());
+        }
+        TotalCache.register(mapperClasses, config.getTotalCacheSeconds(), config.getTotalCacheSize());
+    }
+
+    /**
+     * IN值补齐上限，为当前数据库IN查询每批最大值个数，未开启补齐返回0<br>
+     * 构建SqlSessionFactory后通过{@link SeedLanguageDriver#setInListPaddingLimit(org.apache.ibatis.session.Configuration, int)}设置
+     *
+     * @return 返回补齐上限
+     */
+    public int getInListPaddingLimit() {
+        return config.isInListPadding() ? Math.max(config.getInChunkSize(this.dialect), 0) : 0;
+    }
+
+    /**
+     * 实体类有@Cached注解时创建主键缓存
+     */
+    private void registerEntityCaches() {
+        for (Class<?> mapperClass : mapperClasses) {
+            EntityCache.register(mapperClass);
+        }
+    }
+
+    /**
+     * 记录实体类数据库字段与JAVA字段的对应关系，游标分页根据排序字段取值；
+     * 以及可更新的JAVA字段，updateChanged只更新其中修改过的字段
+     */
+    private void registerColumnJavaFields() {
+        for (Class<?> mapperClass : mapperClasses) {
+            Class<?> entityClass = ExtContext.getEntityClass(mapperClass);
+            EntityInfo entityInfo = SeedMybatisContext.getEntityInfo(entityClass);
+            if (entityInfo == null) {
+                continue;
+            }
+            List<Field> fields = ReflectUtil.getDeclaredFields(entityClass);
+            Map<String, String> columnJavaFields = new HashMap<>(fields.size() * 2);
+            Set<String> updateJavaFields = new HashSet<>(fields.size() * 2);
+            for (Field field : fields) {
+                if (FieldUtil.isTransientField(field)) {
+                    continue;
+                }
+                String columnName = FieldUtil.getColumnName(field, config);
+                columnJavaFields.putIfAbsent(columnName, field.getName());
+                if (isColumnType(entityClass, field)
+                        && !field.getName().equals(entityInfo.getKeyJavaField())
+                        && !config.getIgnoreUpdateColumns().contains(columnName)) {
+                    updateJavaFields.add(field.getName());
+                }
+            }
+            entityInfo.setColumnJavaFields(columnJavaFields);
+            entityInfo.setUpdateJavaFields(updateJavaFields);
+        }
+    }
+
+    /**
+     * 字段是否生成到SQL中，枚举或JAVA类型，同ColumnSelector
+     */
+    private static boolean isColumnType(Class<?> entityClass, Field field) {
+        Class<?> type = field.getType();
+        if (type == Object.class) {
+            type = ClassUtil.getSuperClassGenricType(entityClass, 0);
+        }
+        return type.isEnum() || JavaTypeUtil.isJavaType(type.getSimpleName());
+    }
+
+    /**
+     * 加载构建期预生成的mapper
+     *
+     * @return 返回mapper资源，没有索引或索引与当前配置不一致返回null
+     */
+    private MyBatisResource[] buildFromIndex(String basePackage, List<MyBatisResource> myBatisResources)
+            throws IOException, ClassNotFoundException {
+        MapperIndex index = MapperIndex.load();
+        if (index == null) {
+            return null;
+        }
+        long startTime = System.currentTimeMillis();
+        String configDigest = MapperXmlCache.configDigest(config, this.buildTemplateResource(this.dialect).getContent(),
+                config.getGlobalVmLocation());
+        if (!index.matches(basePackage, this.normalizeDialect(this.dialect), configDigest)) {
+            log.warn("预生成Mapper索引与当前配置不一致，改为运行时生成。索引basePackage：{}，dialect：{}",
+                    index.getBasePackage(), index.getDialect());
+            return null;
+        }
+        List<MyBatisResource> mapperLocations = new ArrayList<>(index.size() + myBatisResources.size() + 1);
+        for (String mapperClassName : index.getMapperClassNames()) {
+            Class<?> mapperClass = Resources.classForName(mapperClassName);
+            mapperClasses.add(mapperClass);
+            ExtContext.addMapperClass(mapperClass);
+            EntityInfo entityInfo = index.getEntityInfo(mapperClassName);
+            if (entityInfo != null) {
+                SeedMybatisContext.setEntityInfo(ExtContext.getEntityClass(mapperClass), entityInfo);
+            }
+            MyBatisResource myBatisResource = MyBatisResource.buildFromClasspath(MapperIndex.getMapperLocation(mapperClassName));
+            if (!myBatisResource.exists()) {
+                throw new MapperFileBuildException("预生成Mapper文件不存在：" + myBatisResource.getFilepath());
+            }
+            mapperLocations.add(myBatisResource);
+        }
+        // 构建期已经合并的扩展文件不再加载
+        for (MyBatisResource myBatisResource : myBatisResources) {
+            if (!index.isMerged(myBatisResource.getFilename())) {
+                mapperLocations.add(myBatisResource);
+            }
+        }
+        this.addCommonSqlClasspathMapper(mapperLocations);
+        log.info("加载预生成Mapper{}个，耗时：{}ms", index.size(), System.currentTimeMillis() - startTime);
+        return mapperLocations.toArray(new MyBatisResource[0]);
+    }
+
     private void destroy() {
         mybatisMapperStore.clear();
+        namespaceIndex.clear();
     }
 
     private MyBatisResource getMapperFile(String mapperFileName) {
@@ -75,6 +278,13 @@ public class MapperLocationsBuilder {
     private MyBatisResource[] buildMapperLocations(Set<Class<?>> clazzSet) {
         this.initContext(clazzSet);
 
+        if (!clazzSet.isEmpty()) {
+            long startTime = System.currentTimeMillis();
+            this.buildNamespaceIndex();
+            log.info("建立扩展Mapper文件namespace索引，文件数：{}，耗时：{}ms", this.mybatisMapperStore.size(),
+                    System.currentTimeMillis() - startTime);
+        }
+
         List<MyBatisResource> mapperLocations = this.buildMapperResource(clazzSet);
 
         this.addUnmergedResource(mapperLocations);
@@ -94,18 +304,41 @@ public class MapperLocationsBuilder {
         final String globalVmLocation = this.config.getGlobalVmLocation();
         final ClassClient codeClient = new ClassClient(config);
         final List<MyBatisResource> mapperLocations = new ArrayList<>(classCount);
+        // 按类名排序，保证输出顺序稳定
+        final List<Class<?>> daoClasses = new ArrayList<>(clazzSet);
+        daoClasses.sort(Comparator.comparing(Class::getName));
 
         long startTime = System.currentTimeMillis();
         try {
             String templateContent = templateResource.getContent();
-            for (Class<?> daoClass : clazzSet) {
-                String xml = codeClient.generateMybatisXml(daoClass, templateContent, globalVmLocation);
-                xml = mergeExtMapperFile(daoClass, xml);
-                saveMapper(daoClass.getSimpleName() + SeedMybatisConstants.XML_SUFFIX, xml);
-                mapperLocations.add(MyBatisResource.build(xml, daoClass));
+            MapperXmlCache mapperXmlCache = StringUtil.hasText(config.getMapperCacheDir())
+                    ? new MapperXmlCache(config.getMapperCacheDir(), config, templateContent, globalVmLocation)
+                    : null;
+            PhaseTimer timer = new PhaseTimer();
+            String[] xmlArr = new String[classCount];
+            int poolSize = Math.min(config.getMapperExecutorPoolSize(), classCount);
+            if (poolSize <= 1) {
+                for (int i = 0; i < classCount; i++) {
+                    xmlArr[i] = this.buildMapperXml(codeClient, daoClasses.get(i), templateContent, globalVmLocation, mapperXmlCache, timer);
+                }
+            } else {
+                this.buildMapperXmlParallel(daoClasses, xmlArr, poolSize, codeClient, templateContent, globalVmLocation, mapperXmlCache, timer);
+            }
+            long generateEndTime = System.currentTimeMillis();
+            for (int i = 0; i < classCount; i++) {
+                Class<?> daoClass = daoClasses.get(i);
+                saveMapper(daoClass.getSimpleName() + SeedMybatisConstants.XML_SUFFIX, xmlArr[i]);
+                mapperLocations.add(MyBatisResource.build(xmlArr[i], daoClass));
             }
 
             long endTime = System.currentTimeMillis();
+            log.info("生成Mapper{}个，线程数：{}，模板生成：{}ms，合并扩展文件：{}ms（各线程累计），并行阶段：{}ms，保存：{}ms",
+                    classCount, Math.max(poolSize, 1), timer.generateMillis(), timer.mergeMillis(),
+                    generateEndTime - startTime, endTime - generateEndTime);
+            if (mapperXmlCache != null) {
+                log.info("Mapper缓存命中：{}，未命中：{}，缓存目录：{}", mapperXmlCache.getHitCount(),
+                        mapperXmlCache.getMissCount(), config.getMapperCacheDir());
+            }
             log.debug("生成Mapper内容总耗时：" + (endTime - startTime) / 1000.0 + "秒");
             return mapperLocations;
         } catch (Exception e) {
@@ -115,6 +348,70 @@ public class MapperLocationsBuilder {
 
     }
 
+    private void buildMapperXmlParallel(List<Class<?>> daoClasses, String[] xmlArr, int poolSize, ClassClient codeClient,
+                                        String templateContent, String globalVmLocation, MapperXmlCache mapperXmlCache,
+                                        PhaseTimer timer) throws Exception {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "seed-mapper-builder-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<String>> futures = new ArrayList<>(daoClasses.size());
+            for (Class<?> daoClass : daoClasses) {
+                futures.add(executor.submit(() -> this.buildMapperXml(codeClient, daoClass, templateContent, globalVmLocation, mapperXmlCache, timer)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    xmlArr[i] = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String buildMapperXml(ClassClient codeClient, Class<?> daoClass, String templateContent, String globalVmLocation,
+                                  MapperXmlCache mapperXmlCache, PhaseTimer timer) throws IOException, DocumentException {
+        long start = System.nanoTime();
+        String xml;
+        String fingerprint = mapperXmlCache == null ? null : mapperXmlCache.fingerprint(daoClass);
+        if (fingerprint == null) {
+            xml = codeClient.generateMybatisXml(daoClass, templateContent, globalVmLocation);
+        } else {
+            xml = mapperXmlCache.get(daoClass, fingerprint);
+            if (xml == null) {
+                xml = codeClient.generateMybatisXml(daoClass, templateContent, globalVmLocation);
+                mapperXmlCache.put(daoClass, fingerprint, xml);
+            }
+        }
+        long generated = System.nanoTime();
+        xml = mergeExtMapperFile(daoClass, xml);
+        timer.generate.add(generated - start);
+        timer.merge.add(System.nanoTime() - generated);
+        return xml;
+    }
+
+    /**
+     * 各阶段累计耗时
+     */
+    private static class PhaseTimer {
+        private final LongAdder generate = new LongAdder();
+        private final LongAdder merge = new LongAdder();
+
+        long generateMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(generate.sum());
+        }
+
+        long mergeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(merge.sum());
+        }
+    }
+
     private List<String> buildMapperNames(Set<Class<?>> clazzSet) {
         List<String> list = new ArrayList<>(clazzSet.size());
         for (Class<?> mapperClass : clazzSet) {
@@ -175,8 +472,11 @@ public class MapperLocationsBuilder {
      * 构建文件名
      */
     private String buildTemplateFileName(String dialect) {
-        dialect = dialect.replaceAll("\\s", "").toLowerCase();
-        return dialect + SeedMybatisConstants.TEMPLATE_SUFFIX;
+        return this.normalizeDialect(dialect) + SeedMybatisConstants.TEMPLATE_SUFFIX;
+    }
+
+    private String normalizeDialect(String dialect) {
+        return dialect.replaceAll("\\s", "").toLowerCase();
     }
 
     private void addCommonSqlClasspathMapper(List<MyBatisResource> mapperLocations) {
@@ -220,7 +520,7 @@ public class MapperLocationsBuilder {
             myBatisResource.setMerged(true);
         }
         // 再找namespace一样的xml
-        String otherMapperXml = this.buildOtherMapperContent(mapperClass, this.mybatisMapperStore.values());
+        String otherMapperXml = this.buildOtherMapperContent(mapperClass);
         extXml.append(otherMapperXml);
 
         xml = xml.replace(SeedMybatisConstants.EXT_MAPPER_PLACEHOLDER, extXml.toString());
@@ -232,37 +532,45 @@ public class MapperLocationsBuilder {
      * 一个Mapper.java可以对应多个Mapper.xml。只要namespace相同，就会把它们的内容合并，最终形成一个完整的MapperResource<br>
      * 这样做的好处是每人维护一个文件相互不干扰，至少在提交代码是不会冲突，同时也遵循了开闭原则。
      *
-     * @throws IOException
      * @throws DocumentException
      */
-    private String buildOtherMapperContent(Class<?> mapperClass, Collection<MyBatisResource> mapperResourceDefinitions) throws IOException, DocumentException {
+    private String buildOtherMapperContent(Class<?> mapperClass) throws DocumentException {
+        List<MyBatisResource> resources = this.namespaceIndex.get(mapperClass.getName());
+        if (resources == null) {
+            return SeedMybatisConstants.EMPTY;
+        }
         StringBuilder xml = new StringBuilder();
-        String trueNamespace = mapperClass.getName();
-        for (MyBatisResource mapperResourceDefinition : mapperResourceDefinitions) {
+        for (MyBatisResource mapperResourceDefinition : resources) {
+            Document document = this.buildSAXReader().read(mapperResourceDefinition.getInputStream());
+            String contentXml = MybatisFileUtil.trimMapperNode(document.getRootElement());
+            xml.append(contentXml);
+            mapperResourceDefinition.setMerged(true);
+        }
+        return xml.toString();
+    }
+
+    /**
+     * 建立namespace索引，每个扩展文件只读取到根节点
+     */
+    private void buildNamespaceIndex() {
+        for (MyBatisResource mapperResourceDefinition : this.mybatisMapperStore.values()) {
             String filename = mapperResourceDefinition.getFilename();
             filename = filename.substring(0, filename.length() - 4);
-            if (mapperResourceDefinition.isMerged() || mapperNames.contains(filename)) {
+            // 与Mapper同名的文件直接合并，不参与namespace匹配
+            if (mapperNames.contains(filename)) {
                 continue;
             }
-            InputStream in = mapperResourceDefinition.getInputStream();
-            Document document = this.buildSAXReader().read(in);
-            Element mapperNode = document.getRootElement();
-
-            Attribute attrNamespace = mapperNode.attribute(SeedMybatisConstants.ATTR_NAMESPACE);
-            String namespaceValue = attrNamespace == null ? null : attrNamespace.getValue();
-
+            String namespaceValue;
+            try {
+                namespaceValue = MybatisFileUtil.readNamespace(mapperResourceDefinition.getInputStream());
+            } catch (XMLStreamException e) {
+                throw new MapperFileBuildException("Mapper文件[" + mapperResourceDefinition.getFilename() + "]解析失败", e);
+            }
             if (StringUtil.isEmpty(namespaceValue)) {
                 throw new MapperFileBuildException("Mapper文件[" + mapperResourceDefinition.getFilename() + "]的namespace不能为空。");
             }
-
-            if (trueNamespace.equals(namespaceValue)) {
-                String contentXml = MybatisFileUtil.trimMapperNode(mapperNode);
-                xml.append(contentXml);
-                mapperResourceDefinition.setMerged(true);
-            }
+            this.namespaceIndex.computeIfAbsent(namespaceValue, k -> new ArrayList<>(2)).add(mapperResourceDefinition);
         }
-        return xml.toString();
-
     }
 
     private SAXReader buildSAXReader() {
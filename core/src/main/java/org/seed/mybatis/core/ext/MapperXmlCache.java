@@ -0,0 +1,319 @@
+package org.seed.mybatis.core.ext;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.io.Resources;
+import org.seed.mybatis.core.SeedMybatisConfig;
+import org.seed.mybatis.core.SeedMybatisConstants;
+import org.seed.mybatis.core.SeedMybatisContext;
+import org.seed.mybatis.core.ext.info.EntityInfo;
+import org.seed.mybatis.core.handler.BaseFill;
+import org.seed.mybatis.core.util.IOUtil;
+import org.seed.mybatis.core.util.StringUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 生成的mapper文件磁盘缓存<br>
+ * 缓存key为指纹：Mapper类、实体类及其父类的字节码，模板内容，全局模板内容，以及影响生成结果的配置项。<br>
+ * 命中时直接读取缓存的xml，不再经过模板生成；缓存的是合并扩展文件之前的内容，扩展文件每次启动重新合并。
+ *
+ * <pre>
+ * 每个Mapper对应两个文件：
+ * com.xx.UserMapper.xml         生成的xml
+ * com.xx.UserMapper.properties  指纹、xml摘要、主键信息
+ * </pre>
+ */
+@Slf4j
+class MapperXmlCache {
+
+    /**
+     * 缓存格式版本，格式变化时修改
+     */
+    private static final String CACHE_VERSION = "1";
+
+    private static final String PROPERTIES_SUFFIX = ".properties";
+
+    private static final String KEY_FINGERPRINT = "fingerprint";
+    private static final String KEY_XML_DIGEST = "xmlDigest";
+    private static final String KEY_KEY_COLUMN = "keyColumn";
+    private static final String KEY_KEY_JAVA_FIELD = "keyJavaField";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File cacheDir;
+
+    /**
+     * 所有Mapper共用部分的摘要：模板、全局模板、配置项
+     */
+    private final byte[] baseDigest;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param cacheDir         缓存文件夹
+     * @param config           配置
+     * @param templateContent  模板内容
+     * @param globalVmLocation 全局模板路径
+     * @throws IOException 读取全局模板失败
+     */
+    MapperXmlCache(String cacheDir, SeedMybatisConfig config, String templateContent, String globalVmLocation) throws IOException {
+        this.cacheDir = new File(cacheDir);
+        this.baseDigest = buildBaseDigest(config, templateContent, globalVmLocation);
+    }
+
+    /**
+     * 计算模板、全局模板、配置项的摘要，用于判断预生成的mapper是否与当前配置一致
+     *
+     * @param config           配置
+     * @param templateContent  模板内容
+     * @param globalVmLocation 全局模板路径
+     * @return 返回摘要
+     * @throws IOException 读取全局模板失败
+     */
+    static String configDigest(SeedMybatisConfig config, String templateContent, String globalVmLocation) throws IOException {
+        return toHex(buildBaseDigest(config, templateContent, globalVmLocation));
+    }
+
+    private static byte[] buildBaseDigest(SeedMybatisConfig config, String templateContent, String globalVmLocation) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, CACHE_VERSION);
+        update(digest, templateContent);
+        if (StringUtil.hasText(globalVmLocation)) {
+            try (InputStream inputStream = Resources.getResourceAsStream(globalVmLocation)) {
+                update(digest, IOUtil.toString(inputStream, StandardCharsets.UTF_8));
+            }
+            update(digest, config.getGlobalVmPlaceholder());
+        }
+        update(digest, String.valueOf(config.isCamel2underline()));
+        update(digest, config.getCountExpression());
+        update(digest, String.valueOf(config.getCursorFetchSize()));
+        update(digest, config.getLogicDeleteValue());
+        update(digest, config.getLogicNotDeleteValue());
+        update(digest, config.getGlobalIdName());
+        update(digest, String.valueOf(config.isGlobalIdIncrement()));
+        update(digest, String.valueOf(config.getIgnoreLogicDeleteWithAssociation()));
+        update(digest, String.valueOf(config.getIgnoreUpdateColumns()));
+        for (BaseFill<?> fill : config.getFillList()) {
+            update(digest, fill.getClass().getName());
+            update(digest, fill.getColumnName());
+            update(digest, String.valueOf(fill.getFillType()));
+            update(digest, String.valueOf(fill.getOrder()));
+            Class<?>[] targetClasses = fill.getTargetEntityClasses();
+            if (targetClasses != null) {
+                for (Class<?> targetClass : targetClasses) {
+                    update(digest, targetClass.getName());
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * 读取缓存，命中时恢复实体类主键信息
+     *
+     * @param mapperClass Mapper类
+     * @param fingerprint 指纹
+     * @return 返回缓存的xml，未命中返回null
+     */
+    String get(Class<?> mapperClass, String fingerprint) {
+        File propertiesFile = this.getFile(mapperClass, PROPERTIES_SUFFIX);
+        File xmlFile = this.getFile(mapperClass, SeedMybatisConstants.XML_SUFFIX);
+        if (!propertiesFile.isFile() || !xmlFile.isFile()) {
+            missCount.increment();
+            return null;
+        }
+        try {
+            Properties properties = new Properties();
+            try (InputStream in = IOUtil.openInputStream(propertiesFile)) {
+                properties.load(in);
+            }
+            if (!fingerprint.equals(properties.getProperty(KEY_FINGERPRINT))) {
+                missCount.increment();
+                return null;
+            }
+            byte[] xmlBytes = Files.readAllBytes(xmlFile.toPath());
+            // 防止xml文件被截断或篡改
+            if (!toHex(newDigest().digest(xmlBytes)).equals(properties.getProperty(KEY_XML_DIGEST))) {
+                missCount.increment();
+                return null;
+            }
+            String keyColumn = properties.getProperty(KEY_KEY_COLUMN);
+            if (keyColumn != null) {
+                EntityInfo entityInfo = new EntityInfo();
+                entityInfo.setKeyColumn(keyColumn);
+                entityInfo.setKeyJavaField(properties.getProperty(KEY_KEY_JAVA_FIELD));
+                SeedMybatisContext.setEntityInfo(ExtContext.getEntityClass(mapperClass), entityInfo);
+            }
+            hitCount.increment();
+            return new String(xmlBytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("读取Mapper缓存失败，重新生成：" + mapperClass.getName(), e);
+            missCount.increment();
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存，写入失败只记录日志
+     *
+     * @param mapperClass Mapper类
+     * @param fingerprint 指纹
+     * @param xml         生成的xml，合并扩展文件之前
+     */
+    void put(Class<?> mapperClass, String fingerprint, String xml) {
+        byte[] xmlBytes = xml.getBytes(StandardCharsets.UTF_8);
+        Properties properties = new Properties();
+        properties.setProperty(KEY_FINGERPRINT, fingerprint);
+        properties.setProperty(KEY_XML_DIGEST, toHex(newDigest().digest(xmlBytes)));
+        Class<?> entityClass = ExtContext.getEntityClass(mapperClass);
+        EntityInfo entityInfo = entityClass == null ? null : SeedMybatisContext.getEntityInfo(entityClass);
+        if (entityInfo != null && entityInfo.getKeyColumn() != null) {
+            properties.setProperty(KEY_KEY_COLUMN, entityInfo.getKeyColumn());
+            if (entityInfo.getKeyJavaField() != null) {
+                properties.setProperty(KEY_KEY_JAVA_FIELD, entityInfo.getKeyJavaField());
+            }
+        }
+        try {
+            if (!cacheDir.exists() && !cacheDir.mkdirs() && !cacheDir.isDirectory()) {
+                throw new IOException("创建Mapper缓存文件夹失败：" + cacheDir);
+            }
+            // 先写xml再写properties，properties中的摘要保证两者一致
+            this.writeAtomically(this.getFile(mapperClass, SeedMybatisConstants.XML_SUFFIX), xmlBytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            properties.store(out, mapperClass.getName());
+            this.writeAtomically(this.getFile(mapperClass, PROPERTIES_SUFFIX), out.toByteArray());
+        } catch (IOException e) {
+            log.warn("写入Mapper缓存失败：" + mapperClass.getName(), e);
+        }
+    }
+
+    /**
+     * 计算Mapper指纹
+     *
+     * @param mapperClass Mapper类
+     * @return 返回指纹，读取不到字节码（如运行时生成的类）返回null，此时不使用缓存
+     * @throws IOException 读取字节码失败
+     */
+    String fingerprint(Class<?> mapperClass) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(baseDigest);
+        if (!updateClassBytes(digest, mapperClass)) {
+            return null;
+        }
+        Class<?> entityClass = ExtContext.getEntityClass(mapperClass);
+        if (entityClass != null) {
+            update(digest, entityClass.getName());
+            for (Class<?> clazz = entityClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                if (!updateClassBytes(digest, clazz)) {
+                    return null;
+                }
+                // 关联对象的select取决于对应的Mapper
+                TreeSet<String> associations = new TreeSet<>();
+                for (Field field : clazz.getDeclaredFields()) {
+                    Class<?> associationMapper = ExtContext.getMapperClass(field.getType());
+                    if (associationMapper != null) {
+                        associations.add(field.getName() + "=" + associationMapper.getName());
+                    }
+                }
+                update(digest, String.valueOf(associations));
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static boolean updateClassBytes(MessageDigest digest, Class<?> clazz) throws IOException {
+        update(digest, clazz.getName());
+        String resource = clazz.getName().replace('.', '/') + ".class";
+        ClassLoader classLoader = clazz.getClassLoader();
+        InputStream in = classLoader == null ? ClassLoader.getSystemResourceAsStream(resource) : classLoader.getResourceAsStream(resource);
+        if (in == null) {
+            log.debug("无法读取类字节码，不使用Mapper缓存：{}", clazz.getName());
+            return false;
+        }
+        try (InputStream input = in) {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return true;
+    }
+
+    private void writeAtomically(File target, byte[] content) throws IOException {
+        // 多个实例共享缓存目录时，先写临时文件再替换，避免读到写了一半的文件
+        Path tmp = Files.createTempFile(cacheDir.toPath(), target.getName(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                out.write(content);
+            }
+            try {
+                Files.move(tmp, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private File getFile(Class<?> mapperClass, String suffix) {
+        return new File(cacheDir, mapperClass.getName() + suffix);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // 写入长度，避免不同字段拼接后产生相同内容
+        digest.update(intToBytes(bytes.length));
+        digest.update(bytes);
+    }
+
+    private static byte[] intToBytes(int value) {
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    long getHitCount() {
+        return hitCount.sum();
+    }
+
+    long getMissCount() {
+        return missCount.sum();
+    }
+}
@@ -20,14 +20,20 @@ public class MyBatisResource {
 
     private String filepath;
 
-    private boolean merged;
+    private volatile boolean merged;
 
     private boolean exist = true;
 
+    /**
+     * 生成的mapper对应的Mapper类，扩展文件为null
+     */
+    private Class<?> mapperClass;
+
     public static MyBatisResource build(String content, Class<?> daoClass) {
         MyBatisResource myBatisResource = new MyBatisResource();
         myBatisResource.setContent(content);
         myBatisResource.setFilename(daoClass.getSimpleName() + SeedMybatisConstants.XML_SUFFIX);
+        myBatisResource.mapperClass = daoClass;
         return myBatisResource;
     }
 
@@ -96,6 +102,10 @@ public class MyBatisResource {
         this.filepath = filepath;
     }
 
+    public Class<?> getMapperClass() {
+        return mapperClass;
+    }
+
     public boolean exists() {
         return exist;
     }
@@ -0,0 +1,108 @@
+package org.seed.mybatis.core.ext;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按行号回填批量保存的主键<br>
+ * 语句执行后返回一个结果集，第一列为集合中的下标，第二列为主键值，如SQL Server的{@code MERGE ... OUTPUT}。
+ * keyProperty格式为：参数名.主键属性，如：entities.id；keyColumn固定为{@value #KEY_COLUMN}，用来标识语句
+ */
+public class RowKeyGenerator implements KeyGenerator {
+
+    public static final RowKeyGenerator INSTANCE = new RowKeyGenerator();
+
+    /**
+     * 生成的语句声明的keyColumn，即结果集的行号列、主键列
+     */
+    public static final String KEY_COLUMN = "seed_row,seed_key";
+
+    private static final String[] KEY_COLUMNS = KEY_COLUMN.split(",");
+
+    /**
+     * 给keyColumn为{@value #KEY_COLUMN}、没有使用useGeneratedKeys的语句设置主键回填，
+     * 即模板生成的SQL Server批量保存语句，不影响用户自己的语句
+     *
+     * @param configuration mybatis配置
+     */
+    public static void register(Configuration configuration) {
+        for (Object value : configuration.getMappedStatements()) {
+            // getMappedStatements中包含短名称的重复项、歧义项
+            if (!(value instanceof MappedStatement)) {
+                continue;
+            }
+            MappedStatement ms = (MappedStatement) value;
+            if (ms.getKeyProperties() != null
+                    && Arrays.equals(KEY_COLUMNS, ms.getKeyColumns())
+                    && ms.getKeyGenerator() instanceof NoKeyGenerator) {
+                SystemMetaObject.forObject(ms).setValue("keyGenerator", INSTANCE);
+            }
+        }
+    }
+
+    @Override
+    public void processBefore(Executor executor, MappedStatement ms, Statement stmt, Object parameter) {
+        // do nothing
+    }
+
+    @Override
+    public void processAfter(Executor executor, MappedStatement ms, Statement stmt, Object parameter) {
+        String keyProperty = ms.getKeyProperties()[0];
+        int index = keyProperty.indexOf('.');
+        if (!(parameter instanceof Map) || index < 0) {
+            throw new ExecutorException("keyProperty格式不正确，应为：参数名.主键属性，statement：" + ms.getId());
+        }
+        Object value = ((Map<?, ?>) parameter).get(keyProperty.substring(0, index));
+        if (!(value instanceof Collection)) {
+            return;
+        }
+        List<Object> entities = new ArrayList<>((Collection<?>) value);
+        String property = keyProperty.substring(index + 1);
+        Configuration configuration = ms.getConfiguration();
+        try (ResultSet rs = nextResultSet(stmt)) {
+            if (rs == null) {
+                return;
+            }
+            TypeHandler<?> typeHandler = null;
+            while (rs.next()) {
+                MetaObject metaObject = configuration.newMetaObject(entities.get(rs.getInt(1)));
+                if (typeHandler == null) {
+                    typeHandler = configuration.getTypeHandlerRegistry().getTypeHandler(metaObject.getSetterType(property));
+                }
+                metaObject.setValue(property, typeHandler.getResult(rs, 2));
+            }
+        } catch (SQLException e) {
+            throw new ExecutorException("回填主键失败，statement：" + ms.getId() + "，原因：" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 跳过更新计数，返回下一个结果集
+     */
+    private static ResultSet nextResultSet(Statement stmt) throws SQLException {
+        ResultSet rs = stmt.getResultSet();
+        while (rs == null) {
+            if (!stmt.getMoreResults() && stmt.getUpdateCount() == -1) {
+                return null;
+            }
+            rs = stmt.getResultSet();
+        }
+        return rs;
+    }
+}
@@ -0,0 +1,54 @@
+package org.seed.mybatis.core.ext;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.seed.mybatis.core.util.IOUtil;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * 持有session的游标，关闭游标时同时关闭session
+ *
+ * @param <T> 实体类
+ */
+public class SessionCursor<T> implements Cursor<T> {
+
+    private final Cursor<T> cursor;
+
+    private final SqlSession session;
+
+    public SessionCursor(Cursor<T> cursor, SqlSession session) {
+        this.cursor = cursor;
+        this.session = session;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return cursor.isOpen();
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return cursor.isConsumed();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return cursor.getCurrentIndex();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return cursor.iterator();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            cursor.close();
+        } finally {
+            IOUtil.closeQuietly(session);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.seed.mybatis.core.ext;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.seed.mybatis.core.util.TotalCache;
+
+/**
+ * mapper执行insert、update、delete后使该mapper的总记录数缓存失效
+ *
+ * @see TotalCache
+ */
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class TotalCacheInterceptor implements Interceptor {
+
+    /**
+     * 开启了总记录数缓存时注册拦截器
+     *
+     * @param configuration mybatis配置
+     */
+    public static void register(Configuration configuration) {
+        if (!TotalCache.isEnabled()) {
+            return;
+        }
+        for (Interceptor interceptor : configuration.getInterceptors()) {
+            if (interceptor instanceof TotalCacheInterceptor) {
+                return;
+            }
+        }
+        configuration.addInterceptor(new TotalCacheInterceptor());
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        try {
+            return invocation.proceed();
+        } finally {
+            String id = ms.getId();
+            int index = id.lastIndexOf('.');
+            TotalCache.invalidate(index < 0 ? id : id.substring(0, index));
+        }
+    }
+}
@@ -22,11 +22,13 @@ import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.*;
 import org.apache.ibatis.transaction.TransactionFactory;
 import org.apache.ibatis.type.JdbcType;
 import org.seed.mybatis.core.SeedMybatisConfig;
 import org.seed.mybatis.core.SeedMybatisConstants;
+import org.seed.mybatis.core.ext.scripting.SeedLanguageDriver;
 import org.seed.mybatis.core.util.DbUtil;
 import org.seed.mybatis.core.util.IOUtil;
 
@@ -262,7 +264,14 @@ public class XmlConfigBuilderExt extends BaseBuilder {
         configuration.setJdbcTypeForNull(JdbcType.valueOf(props.getProperty("jdbcTypeForNull", "OTHER")));
         configuration.setLazyLoadTriggerMethods(stringSetValueOf(props.getProperty("lazyLoadTriggerMethods"), "equals,clone,hashCode,toString"));
         configuration.setSafeResultHandlerEnabled(booleanValueOf(props.getProperty("safeResultHandlerEnabled"), true));
-        configuration.setDefaultScriptingLanguage(resolveClass(props.getProperty("defaultScriptingLanguage")));
+        Class<? extends LanguageDriver> defaultScriptingLanguage = resolveClass(props.getProperty("defaultScriptingLanguage"));
+        if (defaultScriptingLanguage == null && config != null && config.isUseJavaCondition()) {
+            defaultScriptingLanguage = SeedLanguageDriver.class;
+        }
+        if (config != null) {
+            SeedLanguageDriver.setShapeCacheSize(config.getQueryShapeCacheSize());
+        }
+        configuration.setDefaultScriptingLanguage(defaultScriptingLanguage);
         configuration.setDefaultEnumTypeHandler(resolveClass(props.getProperty("defaultEnumTypeHandler")));
         configuration.setCallSettersOnNulls(booleanValueOf(props.getProperty("callSettersOnNulls"), false));
         configuration.setUseActualParamName(booleanValueOf(props.getProperty("useActualParamName"), true));
@@ -414,6 +423,11 @@ public class XmlConfigBuilderExt extends BaseBuilder {
         this.addNotConfigMapper(existResource, myBatisResources);
         //
         MyBatisResource[] allMybatisMapperResources = mapperLocationsBuilder.build(basePackage, myBatisResources, dialect);
+        SeedLanguageDriver.setDialect(configuration, dialect);
+        SeedLanguageDriver.setInListPaddingLimit(configuration, mapperLocationsBuilder.getInListPaddingLimit());
+        TotalCacheInterceptor.register(configuration);
+        DirtyTrackingInterceptor.register(configuration);
+        EntityCacheInterceptor.register(configuration);
         for (MyBatisResource myBatisResource : allMybatisMapperResources) {
             try (InputStream inputStream = myBatisResource.getInputStream()) {
                 String resource = myBatisResource.getFilepath();
@@ -425,6 +439,7 @@ public class XmlConfigBuilderExt extends BaseBuilder {
                 log.debug("Parsed xml content by resource: '{}'", resource);
             }
         }
+        RowKeyGenerator.register(configuration);
     }
 
     /**
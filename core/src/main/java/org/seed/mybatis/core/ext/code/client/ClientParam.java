@@ -55,6 +55,10 @@ public class ClientParam {
 		return this.config.getCountExpression();
 	}
 
+	public int getCursorFetchSize() {
+		return this.config.getCursorFetchSize();
+	}
+
 	public String getTemplateContent() {
 		return templateContent;
 	}
@@ -2,6 +2,7 @@ package org.seed.mybatis.core.ext.code.client;
 
 
 import org.apache.ibatis.io.Resources;
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.seed.mybatis.core.ext.code.NotEntityException;
 import org.seed.mybatis.core.ext.code.generator.MapperContext;
@@ -13,14 +14,22 @@ import org.seed.mybatis.core.util.StringUtil;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 代码生成器，根据定义好的velocity模板生成代码
  */
 public class FileCodeGenerator {
 
+    /**
+     * 解析后的模板，key：全局模板路径 + 模板内容
+     */
+    private final Map<TemplateKey, Template> templateCache = new ConcurrentHashMap<>(8);
+
     public String generateCode(ClientParam clientParam) throws NotEntityException, IOException {
-        String finalContent = this.buildTemplateInputStream(clientParam);
+        Template template = this.getTemplate(clientParam);
         MapperContext sqlContext = this.buildClientSQLContextList(clientParam);
         VelocityContext context = new VelocityContext();
 
@@ -34,9 +43,28 @@ public class FileCodeGenerator {
         // include transient column
         context.put("allColumns", tableDefinition.getAllColumns());
         context.put("countExpression", clientParam.getCountExpression());
+        context.put("cursorFetchSize", clientParam.getCursorFetchSize());
         context.put("associations", tableDefinition.getAssociationDefinitions());
 
-        return VelocityUtil.generate(context, finalContent);
+        return VelocityUtil.generate(context, template);
+    }
+
+    /**
+     * 返回解析后的模板，同一个模板和全局模板只解析一次
+     *
+     * @throws IOException
+     */
+    private Template getTemplate(ClientParam clientParam) throws IOException {
+        TemplateKey key = new TemplateKey(clientParam.getTemplateContent(), clientParam.getGlobalVmLocation());
+        Template template = templateCache.get(key);
+        if (template == null) {
+            template = VelocityUtil.parse(this.buildTemplateInputStream(clientParam));
+            Template prev = templateCache.putIfAbsent(key, template);
+            if (prev != null) {
+                template = prev;
+            }
+        }
+        return template;
     }
 
     /**
@@ -98,4 +126,32 @@ public class FileCodeGenerator {
         return mapperClass.getName();
     }
 
+    private static final class TemplateKey {
+        private final String templateContent;
+        private final String globalVmLocation;
+
+        TemplateKey(String templateContent, String globalVmLocation) {
+            this.templateContent = templateContent;
+            this.globalVmLocation = globalVmLocation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey that = (TemplateKey) o;
+            return Objects.equals(globalVmLocation, that.globalVmLocation)
+                    && Objects.equals(templateContent, that.templateContent);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(templateContent, globalVmLocation);
+        }
+    }
+
 }
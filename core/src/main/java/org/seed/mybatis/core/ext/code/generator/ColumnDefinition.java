@@ -74,6 +74,14 @@ public class ColumnDefinition {
         return (!this.isPrimaryKey && !isIgnoreUpdate);
     }
 
+    /**
+     * 是否是upsert更新字段，既是插入字段又是更新字段，排除只在插入时填充的字段，如create_time
+     * @return true：主键冲突时更新该字段
+     */
+    public boolean getIsUpsertUpdateColumn() {
+        return getIsInsertColumn() && getIsUpdateColumn() && (!isCustomFill || fillType == FillType.UPDATE);
+    }
+
     public boolean getIsCustomIdFill() {
         return isAuto && typeHandler != null;
     }
@@ -1,7 +1,11 @@
 package org.seed.mybatis.core.ext.code.util;
 
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.Velocity;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.RuntimeSingleton;
+import org.apache.velocity.runtime.parser.ParseException;
 import org.seed.mybatis.core.util.IOUtil;
 
 import java.io.*;
@@ -48,4 +52,37 @@ public class VelocityUtil {
 	public static String generate(VelocityContext context, String template) {
 		return generate(context, new StringReader(template));
 	}
+
+	/**
+	 * 解析模板内容，返回的Template可以多次、多线程渲染
+	 *
+	 * @param template 模板内容
+	 * @return 返回解析后的模板
+	 */
+	public static Template parse(String template) {
+		RuntimeServices runtimeServices = RuntimeSingleton.getRuntimeServices();
+		Template velocityTemplate = new Template();
+		velocityTemplate.setRuntimeServices(runtimeServices);
+		velocityTemplate.setName(TAG);
+		try {
+			velocityTemplate.setData(runtimeServices.parse(new StringReader(template), velocityTemplate));
+		} catch (ParseException e) {
+			throw new IllegalArgumentException("解析velocity模板失败", e);
+		}
+		velocityTemplate.initDocument();
+		return velocityTemplate;
+	}
+
+	/**
+	 * 使用解析后的模板生成内容
+	 *
+	 * @param context  上下文
+	 * @param template 解析后的模板
+	 * @return 返回生成内容
+	 */
+	public static String generate(VelocityContext context, Template template) {
+		StringWriter writer = new StringWriter();
+		template.merge(context, writer);
+		return writer.toString();
+	}
 }
@@ -14,5 +14,9 @@ public class MapperFileBuildException extends RuntimeException {
 	public MapperFileBuildException(String message) {
 		super(message);
 	}
+
+	public MapperFileBuildException(String message, Throwable cause) {
+		super(message, cause);
+	}
 	
 }
@@ -1,5 +1,10 @@
 package org.seed.mybatis.core.ext.info;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * 实体类信息
  */
@@ -15,6 +20,15 @@ public class EntityInfo {
      */
     private String keyJavaField;
 
+    /**
+     * key：数据库字段名（小写，不含表别名、引号），value：JAVA字段名称
+     */
+    private Map<String, String> columnJavaFields = Collections.emptyMap();
+
+    /**
+     * 可更新的JAVA字段名称，不含主键、忽略更新的字段，null表示未知
+     */
+    private Set<String> updateJavaFields;
 
     public String getKeyColumn() {
         return keyColumn;
@@ -31,4 +45,50 @@ public class EntityInfo {
     public void setKeyJavaField(String keyJavaField) {
         this.keyJavaField = keyJavaField;
     }
+
+    /**
+     * 根据数据库字段名获取JAVA字段名称
+     *
+     * @param column 数据库字段名，可以带表别名、引号，如：t.`user_name`
+     * @return 返回JAVA字段名称，没有找到返回null
+     */
+    public String getJavaField(String column) {
+        return columnJavaFields.get(normalizeColumn(column));
+    }
+
+    /**
+     * @param columnJavaFields key：数据库字段名，value：JAVA字段名称
+     */
+    public void setColumnJavaFields(Map<String, String> columnJavaFields) {
+        Map<String, String> map = new HashMap<>(columnJavaFields.size() * 2);
+        columnJavaFields.forEach((column, javaField) -> map.put(normalizeColumn(column), javaField));
+        this.columnJavaFields = map;
+    }
+
+    /**
+     * @return 返回可更新的JAVA字段名称，不含主键、忽略更新的字段，未知返回null
+     */
+    public Set<String> getUpdateJavaFields() {
+        return updateJavaFields;
+    }
+
+    public void setUpdateJavaFields(Set<String> updateJavaFields) {
+        this.updateJavaFields = Collections.unmodifiableSet(updateJavaFields);
+    }
+
+    private static String normalizeColumn(String column) {
+        String name = column.trim();
+        int dotIndex = name.lastIndexOf('.');
+        if (dotIndex >= 0) {
+            name = name.substring(dotIndex + 1);
+        }
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '`' && c != '"' && c != '[' && c != ']') {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase();
+    }
 }
@@ -0,0 +1,263 @@
+package org.seed.mybatis.core.ext.scripting;
+
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.session.Configuration;
+import org.seed.mybatis.core.SqlConsts;
+import org.seed.mybatis.core.handler.ArrayInTypeHandler;
+import org.seed.mybatis.core.query.Query;
+import org.seed.mybatis.core.query.expression.Expression;
+import org.seed.mybatis.core.query.expression.ExpressionBetweenFeature;
+import org.seed.mybatis.core.query.expression.ExpressionListFeature;
+import org.seed.mybatis.core.query.expression.ExpressionType;
+import org.seed.mybatis.core.query.expression.ExpressionValueFeature;
+import org.seed.mybatis.core.query.expression.ExpressionWhereArgsFeature;
+import org.seed.mybatis.core.query.expression.ExpressionWhereFeature;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query条件节点，等同于commonSql.xml中的：
+ * <pre>
+ * &lt;foreach collection="query.expressions" item="expressionItem"&gt;
+ *     &lt;if test="expressionItem.type == 0"&gt;...&lt;/if&gt;
+ *     ...
+ * &lt;/foreach&gt;
+ * </pre>
+ * 直接遍历Query条件拼接SQL，参数绑定方式与foreach一致，不经过OGNL。<br>
+ * 开启IN值补齐时，IN值个数补齐到2的幂，见{@link SeedLanguageDriver#setInListPaddingLimit(Configuration, int)}。<br>
+ * 数组绑定的IN条件在PostgreSQL、Oracle下整体作为一个参数，见{@link ArrayInTypeHandler}。
+ */
+public class QueryConditionSqlNode implements SqlNode {
+
+    private static final String QUERY = "query";
+
+    private static final String ITEM_PREFIX = "__seed_cond_";
+
+    private static final String ARRAY_TYPE_HANDLER = ",typeHandler=" + ArrayInTypeHandler.class.getName() + "}";
+
+    private final Configuration configuration;
+
+    private final SqlNode fallback;
+
+    /**
+     * @param fallback 原始foreach节点，参数不是Query或存在无法识别的条件时使用
+     */
+    public QueryConditionSqlNode(SqlNode fallback) {
+        this(null, fallback);
+    }
+
+    /**
+     * @param configuration 用于获取数据库方言，为null时不使用数组绑定
+     * @param fallback      原始foreach节点，参数不是Query或存在无法识别的条件时使用
+     */
+    public QueryConditionSqlNode(Configuration configuration, SqlNode fallback) {
+        this.configuration = configuration;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public boolean apply(DynamicContext context) {
+        Object query = getQuery(context);
+        if (!(query instanceof Query)) {
+            return fallback.apply(context);
+        }
+        List<Expression> expressions = ((Query) query).getExpressions();
+        if (!isSupported(expressions)) {
+            return fallback.apply(context);
+        }
+        StringBuilder sql = new StringBuilder(expressions.size() * 32);
+        for (int i = 0; i < expressions.size(); i++) {
+            Expression expression = expressions.get(i);
+            switch (ExpressionType.of(expression.getType())) {
+                case VALUE:
+                    this.appendValue(sql, context, query, i, (ExpressionValueFeature) expression);
+                    break;
+                case IN:
+                    this.appendList(sql, context, query, i, (ExpressionListFeature) expression);
+                    break;
+                case BETWEEN:
+                    this.appendBetween(sql, context, query, i, (ExpressionBetweenFeature) expression);
+                    break;
+                case SQL:
+                    ExpressionWhereFeature where = (ExpressionWhereFeature) expression;
+                    append(sql, where.getJoint());
+                    sql.append(" (");
+                    if (where.getSql() != null) {
+                        sql.append(where.getSql());
+                    }
+                    sql.append(')');
+                    break;
+                case SQL_ARGS:
+                    this.appendWhereArgs(sql, context, query, i, (ExpressionWhereArgsFeature) expression);
+                    break;
+                default:
+                    break;
+            }
+        }
+        context.appendSql(sql.toString());
+        return true;
+    }
+
+    /**
+     * 与OGNL取值规则一致，先取绑定变量，再从Map类型参数中取
+     */
+    private static Object getQuery(DynamicContext context) {
+        Map<String, Object> bindings = context.getBindings();
+        Object query = bindings.get(QUERY);
+        if (query != null || bindings.containsKey(QUERY)) {
+            return query;
+        }
+        Object parameterObject = bindings.get(DynamicContext.PARAMETER_OBJECT_KEY);
+        if (parameterObject instanceof Map) {
+            return ((Map<?, ?>) parameterObject).get(QUERY);
+        }
+        return null;
+    }
+
+    private void appendValue(StringBuilder sql, DynamicContext context, Object query, int index, ExpressionValueFeature expression) {
+        String name = bind(context, expression, query, index, -1);
+        append(sql, expression.getJoint());
+        append(sql, expression.getColumn());
+        append(sql, expression.getEqual());
+        sql.append(" #{").append(name).append(".value}");
+    }
+
+    private void appendList(StringBuilder sql, DynamicContext context, Object query, int index, ExpressionListFeature expression) {
+        String dialect = SeedLanguageDriver.getDialect(configuration);
+        if (getArrayType(expression, dialect) != null) {
+            this.appendArray(sql, context, query, index, expression, dialect);
+            return;
+        }
+        append(sql, expression.getJoint());
+        append(sql, expression.getColumn());
+        append(sql, expression.getEqual());
+        Collection<?> values = expression.getValue();
+        // 与foreach一致，空集合不输出括号
+        if (values.isEmpty()) {
+            return;
+        }
+        sql.append(" (");
+        int valueIndex = 0;
+        Object last = null;
+        for (Object value : values) {
+            if (valueIndex > 0) {
+                sql.append(',');
+            }
+            sql.append("#{").append(bind(context, value, query, index, valueIndex++)).append('}');
+            last = value;
+        }
+        // 补齐部分重复最后一个值，不影响IN、NOT IN结果
+        int paddedSize = SeedLanguageDriver.paddedSize(values.size(), SeedLanguageDriver.getInListPaddingLimit(configuration));
+        while (valueIndex < paddedSize) {
+            sql.append(",#{").append(bind(context, last, query, index, valueIndex++)).append('}');
+        }
+        sql.append(')');
+    }
+
+    /**
+     * 值整体作为一个数组参数绑定
+     */
+    private void appendArray(StringBuilder sql, DynamicContext context, Object query, int index, ExpressionListFeature expression, String dialect) {
+        String name = bind(context, expression, query, index, -1);
+        boolean notIn = SqlConsts.NOT_IN.equalsIgnoreCase(expression.getEqual().trim());
+        append(sql, expression.getJoint());
+        append(sql, expression.getColumn());
+        if (ArrayInTypeHandler.isOracle(dialect)) {
+            append(sql, expression.getEqual());
+            sql.append(" (SELECT COLUMN_VALUE FROM TABLE(#{").append(name).append(".value").append(ARRAY_TYPE_HANDLER).append("))");
+        } else {
+            // x NOT IN (a, b)等价于x <> ALL(ARRAY[a, b])，NULL的处理也相同
+            sql.append(notIn ? " <> ALL(#{" : " = ANY(#{").append(name).append(".value").append(ARRAY_TYPE_HANDLER).append(')');
+        }
+    }
+
+    /**
+     * 返回IN条件数组绑定时的数组类型
+     *
+     * @param expression IN条件
+     * @param dialect    数据库方言
+     * @return 返回数组类型，不使用数组绑定时返回null
+     */
+    static String getArrayType(ExpressionListFeature expression, String dialect) {
+        if (!expression.isArrayBind() || dialect == null || expression.getEqual() == null) {
+            return null;
+        }
+        String equal = expression.getEqual().trim();
+        if (!SqlConsts.IN.equalsIgnoreCase(equal) && !SqlConsts.NOT_IN.equalsIgnoreCase(equal)) {
+            return null;
+        }
+        return ArrayInTypeHandler.getArrayType(dialect, expression.getValue());
+    }
+
+    private void appendBetween(StringBuilder sql, DynamicContext context, Object query, int index, ExpressionBetweenFeature expression) {
+        String name = bind(context, expression, query, index, -1);
+        append(sql, expression.getJoint());
+        append(sql, expression.getColumn());
+        sql.append(" BETWEEN #{").append(name).append(".startValue} AND #{").append(name).append(".endValue}");
+    }
+
+    private void appendWhereArgs(StringBuilder sql, DynamicContext context, Object query, int index, ExpressionWhereArgsFeature expression) {
+        append(sql, expression.getJoint());
+        sql.append(" (");
+        List<String> segments = expression.getSegments();
+        List<Object> args = expression.getArgs();
+        for (int i = 0; i < args.size(); i++) {
+            sql.append(segments.get(i));
+            sql.append("#{").append(bind(context, args.get(i), query, index, i)).append('}');
+        }
+        sql.append(expression.getLastSegment());
+        sql.append(')');
+    }
+
+    private static String bind(DynamicContext context, Object value, Object query, int expressionIndex, int valueIndex) {
+        String name = ITEM_PREFIX + context.getUniqueNumber();
+        context.bind(name, value);
+        QueryShapeContext.record(context, query, name, expressionIndex, valueIndex);
+        return name;
+    }
+
+    private static void append(StringBuilder sql, String text) {
+        // 与${}一致，null输出空字符串
+        sql.append(' ');
+        if (text != null) {
+            sql.append(text);
+        }
+    }
+
+    private static boolean isSupported(List<Expression> expressions) {
+        for (Expression expression : expressions) {
+            int type = expression.getType();
+            if (ExpressionType.of(type) == null) {
+                return false;
+            }
+            if (type == ExpressionType.VALUE.getType() && !(expression instanceof ExpressionValueFeature)) {
+                return false;
+            }
+            if (type == ExpressionType.IN.getType()
+                    && (!(expression instanceof ExpressionListFeature) || ((ExpressionListFeature) expression).getValue() == null)) {
+                return false;
+            }
+            if (type == ExpressionType.BETWEEN.getType() && !(expression instanceof ExpressionBetweenFeature)) {
+                return false;
+            }
+            if (type == ExpressionType.SQL.getType() && !(expression instanceof ExpressionWhereFeature)) {
+                return false;
+            }
+            if (type == ExpressionType.SQL_ARGS.getType()
+                    && (!(expression instanceof ExpressionWhereArgsFeature) || !isValidArgs((ExpressionWhereArgsFeature) expression))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isValidArgs(ExpressionWhereArgsFeature expression) {
+        List<String> segments = expression.getSegments();
+        List<Object> args = expression.getArgs();
+        return segments != null && args != null && segments.size() == args.size() + 1;
+    }
+
+}
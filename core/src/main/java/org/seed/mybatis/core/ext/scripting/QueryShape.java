@@ -0,0 +1,145 @@
+package org.seed.mybatis.core.ext.scripting;
+
+import org.seed.mybatis.core.query.Query;
+import org.seed.mybatis.core.query.expression.Expression;
+import org.seed.mybatis.core.query.expression.ExpressionBetweenFeature;
+import org.seed.mybatis.core.query.expression.ExpressionJoinFeature;
+import org.seed.mybatis.core.query.expression.ExpressionListFeature;
+import org.seed.mybatis.core.query.expression.ExpressionValueFeature;
+import org.seed.mybatis.core.query.expression.ExpressionWhereArgsFeature;
+import org.seed.mybatis.core.query.expression.ExpressionWhereFeature;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Query形状，作为SQL缓存的key<br>
+ * 由语句、条件（类型、连接符、字段、操作符、补齐后的IN值个数或数组类型、SQL参数个数、值类型、SQL片段）、连接语句、排序、distinct、forceQuery、forceUpdate、是否分页组成，
+ * 形状相同的Query渲染出的SQL和参数映射相同，只有参数值不同。
+ */
+final class QueryShape {
+
+    private final List<Object> parts;
+
+    private final int hash;
+
+    private QueryShape(List<Object> parts) {
+        this.parts = parts;
+        this.hash = parts.hashCode();
+    }
+
+    /**
+     * 计算Query形状
+     *
+     * @param statement    语句标识，不同语句形状不同
+     * @param query        查询条件
+     * @param mapParam     参数是否为Map
+     * @param dialect      数据库方言，决定IN条件是否数组绑定
+     * @param paddingLimit IN值补齐上限
+     * @return 返回Query形状
+     */
+    static QueryShape of(Object statement, Query query, boolean mapParam, String dialect, int paddingLimit) {
+        List<Expression> expressions = query.getExpressions();
+        List<Object> parts = new ArrayList<>(12 + expressions.size() * 6);
+        parts.add(statement);
+        parts.add(query.getClass());
+        parts.add(mapParam);
+        parts.add(query.getDistinct());
+        parts.add(query.getForceQuery());
+        parts.add(query.getForceUpdate());
+        parts.add(query.getIsQueryAll());
+        parts.add(query.getSortable() ? query.getOrder() : null);
+        List<ExpressionJoinFeature> joinExpressions = query.getJoinExpressions();
+        if (joinExpressions != null) {
+            for (ExpressionJoinFeature joinExpression : joinExpressions) {
+                parts.add(joinExpression.getJoinSql());
+            }
+        }
+        parts.add(expressions.size());
+        for (Expression expression : expressions) {
+            parts.add(expression.getClass());
+            parts.add(expression.getType());
+            if (expression instanceof ExpressionValueFeature) {
+                ExpressionValueFeature valueExpression = (ExpressionValueFeature) expression;
+                parts.add(valueExpression.getJoint());
+                parts.add(valueExpression.getColumn());
+                parts.add(valueExpression.getEqual());
+                parts.add(typeOf(valueExpression.getValue()));
+            } else if (expression instanceof ExpressionListFeature) {
+                ExpressionListFeature listExpression = (ExpressionListFeature) expression;
+                parts.add(listExpression.getJoint());
+                parts.add(listExpression.getColumn());
+                parts.add(listExpression.getEqual());
+                Collection<?> values = listExpression.getValue();
+                String arrayType = values == null ? null : QueryConditionSqlNode.getArrayType(listExpression, dialect);
+                if (arrayType != null) {
+                    // 数组绑定时SQL与值个数无关
+                    parts.add(arrayType);
+                } else if (values == null) {
+                    parts.add(null);
+                } else {
+                    int paddedSize = SeedLanguageDriver.paddedSize(values.size(), paddingLimit);
+                    parts.add(paddedSize);
+                    Class<?> lastType = null;
+                    for (Object value : values) {
+                        lastType = typeOf(value);
+                        parts.add(lastType);
+                    }
+                    // 补齐部分重复最后一个值
+                    for (int i = values.size(); i < paddedSize; i++) {
+                        parts.add(lastType);
+                    }
+                }
+            } else if (expression instanceof ExpressionBetweenFeature) {
+                ExpressionBetweenFeature betweenExpression = (ExpressionBetweenFeature) expression;
+                parts.add(betweenExpression.getJoint());
+                parts.add(betweenExpression.getColumn());
+                parts.add(typeOf(betweenExpression.getStartValue()));
+                parts.add(typeOf(betweenExpression.getEndValue()));
+            } else if (expression instanceof ExpressionWhereArgsFeature) {
+                ExpressionWhereArgsFeature whereArgsExpression = (ExpressionWhereArgsFeature) expression;
+                parts.add(whereArgsExpression.getJoint());
+                parts.add(whereArgsExpression.getSegments());
+                List<Object> args = whereArgsExpression.getArgs();
+                if (args == null) {
+                    parts.add(null);
+                } else {
+                    parts.add(args.size());
+                    for (Object arg : args) {
+                        parts.add(typeOf(arg));
+                    }
+                }
+            } else if (expression instanceof ExpressionWhereFeature) {
+                ExpressionWhereFeature whereExpression = (ExpressionWhereFeature) expression;
+                parts.add(whereExpression.getJoint());
+                parts.add(whereExpression.getSql());
+            }
+        }
+        return new QueryShape(parts);
+    }
+
+    /**
+     * 参数类型决定TypeHandler，作为形状的一部分
+     */
+    private static Class<?> typeOf(Object value) {
+        return value == null ? null : value.getClass();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryShape)) {
+            return false;
+        }
+        QueryShape that = (QueryShape) o;
+        return hash == that.hash && parts.equals(that.parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,78 @@
+package org.seed.mybatis.core.ext.scripting;
+
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.session.Configuration;
+import org.seed.mybatis.core.query.Query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 记录Query条件绑定变量来源的DynamicContext<br>
+ * {@link QueryConditionSqlNode}绑定变量时记录变量对应第几个条件、IN条件或SQL参数的第几个值，
+ * 命中形状缓存时按记录从新的Query中取值，不再渲染SQL。
+ */
+class QueryShapeContext extends DynamicContext {
+
+    /**
+     * where、trim、foreach会包装DynamicContext，通过绑定变量找到当前对象
+     */
+    private static final String CONTEXT_KEY = "__seed_shape_context";
+
+    private final Query query;
+
+    /**
+     * key：绑定变量名，value：{条件下标, 值下标}，IN值、SQL参数以外的条件值下标为-1，按绑定顺序排列
+     */
+    private final Map<String, int[]> bindingPaths = new LinkedHashMap<>(16);
+
+    /**
+     * 出现了无法记录来源的绑定
+     */
+    private boolean untraceable;
+
+    QueryShapeContext(Configuration configuration, Object parameterObject, Query query) {
+        super(configuration, parameterObject);
+        this.query = query;
+        bind(CONTEXT_KEY, this);
+    }
+
+    /**
+     * 记录绑定变量来源，context不是由QueryShapeContext包装而来时忽略
+     *
+     * @param context         当前DynamicContext
+     * @param query           绑定变量所属Query
+     * @param name            绑定变量名
+     * @param expressionIndex 条件下标
+     * @param valueIndex      IN值、SQL参数下标，其它条件传-1
+     */
+    static void record(DynamicContext context, Object query, String name, int expressionIndex, int valueIndex) {
+        Object shapeContext = context.getBindings().get(CONTEXT_KEY);
+        if (shapeContext instanceof QueryShapeContext) {
+            ((QueryShapeContext) shapeContext).record(query, name, expressionIndex, valueIndex);
+        }
+    }
+
+    private void record(Object query, String name, int expressionIndex, int valueIndex) {
+        if (query != this.query) {
+            untraceable = true;
+            return;
+        }
+        bindingPaths.put(name, new int[]{expressionIndex, valueIndex});
+    }
+
+    /**
+     * 渲染完成后移除自身的绑定，避免作为附加参数传给BoundSql
+     */
+    void detach() {
+        getBindings().remove(CONTEXT_KEY);
+    }
+
+    Map<String, int[]> getBindingPaths() {
+        return bindingPaths;
+    }
+
+    boolean isUntraceable() {
+        return untraceable;
+    }
+}
@@ -0,0 +1,188 @@
+package org.seed.mybatis.core.ext.scripting;
+
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.session.Configuration;
+import org.seed.mybatis.core.query.Query;
+import org.seed.mybatis.core.query.expression.Expression;
+import org.seed.mybatis.core.query.expression.ExpressionListFeature;
+import org.seed.mybatis.core.query.expression.ExpressionWhereArgsFeature;
+import org.seed.mybatis.core.util.BoundedCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按Query形状缓存SQL的SqlSource<br>
+ * 参数只有Query时，根据{@link QueryShape}缓存渲染好的SQL和参数映射，形状相同的Query直接绑定参数值，跳过动态SQL渲染。
+ * 其它情况与{@link DynamicSqlSource}一致。
+ */
+class QueryShapeSqlSource implements SqlSource {
+
+    /**
+     * 无法缓存的形状，命中后按原方式渲染
+     */
+    private static final CachedSql NOT_CACHEABLE = new CachedSql(null, null, null);
+
+    private final Configuration configuration;
+
+    private final SqlNode rootSqlNode;
+
+    QueryShapeSqlSource(Configuration configuration, SqlNode rootSqlNode) {
+        this.configuration = configuration;
+        this.rootSqlNode = rootSqlNode;
+    }
+
+    @Override
+    public BoundSql getBoundSql(Object parameterObject) {
+        BoundedCache<QueryShape, CachedSql> shapeCache = SeedLanguageDriver.getShapeCache();
+        Query query = getQuery(parameterObject);
+        if (shapeCache == null || query == null) {
+            return this.render(new DynamicContext(configuration, parameterObject), parameterObject);
+        }
+        QueryShape shape = QueryShape.of(this, query, parameterObject instanceof Map,
+                SeedLanguageDriver.getDialect(configuration), SeedLanguageDriver.getInListPaddingLimit(configuration));
+        CachedSql cachedSql = shapeCache.get(shape);
+        if (cachedSql == NOT_CACHEABLE) {
+            return this.render(new DynamicContext(configuration, parameterObject), parameterObject);
+        }
+        if (cachedSql != null) {
+            return cachedSql.bind(configuration, parameterObject, query);
+        }
+        QueryShapeContext context = new QueryShapeContext(configuration, parameterObject, query);
+        BoundSql boundSql = this.render(context, parameterObject);
+        shapeCache.put(shape, isCacheable(context, boundSql) ? new CachedSql(boundSql, context.getBindingPaths()) : NOT_CACHEABLE);
+        return boundSql;
+    }
+
+    private BoundSql render(DynamicContext context, Object parameterObject) {
+        rootSqlNode.apply(context);
+        if (context instanceof QueryShapeContext) {
+            ((QueryShapeContext) context).detach();
+        }
+        SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+        Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+        SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
+        BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+        context.getBindings().forEach(boundSql::setAdditionalParameter);
+        return boundSql;
+    }
+
+    /**
+     * 参数只有Query时返回Query，如：list(@Param("query") Query query)，否则返回null
+     */
+    private static Query getQuery(Object parameterObject) {
+        if (parameterObject instanceof Query) {
+            return (Query) parameterObject;
+        }
+        if (!(parameterObject instanceof Map) || ((Map<?, ?>) parameterObject).isEmpty()) {
+            return null;
+        }
+        Object query = null;
+        for (Object value : ((Map<?, ?>) parameterObject).values()) {
+            if (!(value instanceof Query) || (query != null && query != value)) {
+                return null;
+            }
+            query = value;
+        }
+        return (Query) query;
+    }
+
+    /**
+     * 参数映射只能引用Query条件绑定变量或参数本身，引用了其它绑定变量（如bind标签、foreach变量）不缓存
+     */
+    private static boolean isCacheable(QueryShapeContext context, BoundSql boundSql) {
+        if (context.isUntraceable()) {
+            return false;
+        }
+        Map<String, Object> bindings = context.getBindings();
+        Map<String, int[]> bindingPaths = context.getBindingPaths();
+        for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+            String name = getRootName(parameterMapping.getProperty());
+            if (!bindingPaths.containsKey(name)
+                    && bindings.containsKey(name)
+                    && !DynamicContext.PARAMETER_OBJECT_KEY.equals(name)
+                    && !DynamicContext.DATABASE_ID_KEY.equals(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getRootName(String property) {
+        for (int i = 0; i < property.length(); i++) {
+            char c = property.charAt(i);
+            if (c == '.' || c == '[') {
+                return property.substring(0, i);
+            }
+        }
+        return property;
+    }
+
+    /**
+     * 缓存的SQL和参数映射
+     */
+    static final class CachedSql {
+
+        private final String sql;
+
+        private final List<ParameterMapping> parameterMappings;
+
+        /**
+         * 绑定变量名及对应的{条件下标, 值下标}
+         */
+        private final Map<String, int[]> bindingPaths;
+
+        CachedSql(BoundSql boundSql, Map<String, int[]> bindingPaths) {
+            this(boundSql.getSql(), Collections.unmodifiableList(new ArrayList<>(boundSql.getParameterMappings())), bindingPaths);
+        }
+
+        private CachedSql(String sql, List<ParameterMapping> parameterMappings, Map<String, int[]> bindingPaths) {
+            this.sql = sql;
+            this.parameterMappings = parameterMappings;
+            this.bindingPaths = bindingPaths;
+        }
+
+        BoundSql bind(Configuration configuration, Object parameterObject, Query query) {
+            // 拦截器可能修改参数映射，每次复制一份
+            BoundSql boundSql = new BoundSql(configuration, sql, new ArrayList<>(parameterMappings), parameterObject);
+            boundSql.setAdditionalParameter(DynamicContext.PARAMETER_OBJECT_KEY, parameterObject);
+            boundSql.setAdditionalParameter(DynamicContext.DATABASE_ID_KEY, configuration.getDatabaseId());
+            List<Expression> expressions = query.getExpressions();
+            // 同一个条件的绑定变量连续排列，值只转换一次
+            int lastIndex = -1;
+            Object[] listValues = null;
+            for (Map.Entry<String, int[]> entry : bindingPaths.entrySet()) {
+                int[] path = entry.getValue();
+                Expression expression = expressions.get(path[0]);
+                Object value;
+                if (path[1] < 0) {
+                    value = expression;
+                } else {
+                    if (path[0] != lastIndex) {
+                        lastIndex = path[0];
+                        listValues = getValues(expression);
+                    }
+                    // IN值补齐部分取最后一个值
+                    value = listValues[Math.min(path[1], listValues.length - 1)];
+                }
+                boundSql.setAdditionalParameter(entry.getKey(), value);
+            }
+            return boundSql;
+        }
+
+        private static Object[] getValues(Expression expression) {
+            if (expression instanceof ExpressionWhereArgsFeature) {
+                return ((ExpressionWhereArgsFeature) expression).getArgs().toArray();
+            }
+            return ((ExpressionListFeature) expression).getValue().toArray();
+        }
+    }
+}
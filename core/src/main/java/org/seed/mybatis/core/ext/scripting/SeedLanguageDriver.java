@@ -0,0 +1,129 @@
+package org.seed.mybatis.core.ext.scripting;
+
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.seed.mybatis.core.util.BoundedCache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 默认脚本语言驱动<br>
+ * 与XMLLanguageDriver一致，只是将commonSql.xml中condition片段的foreach替换为{@link QueryConditionSqlNode}，
+ * 直接在Java中遍历Query条件生成WHERE语句，避免每个条件多次OGNL解析。<br>
+ * 参数只有Query的语句按Query形状缓存渲染好的SQL和参数映射，形状相同只绑定参数值。<br>
+ * IN值个数补齐到2的幂，减少SQL语句种类。<br>
+ * PostgreSQL、Oracle下{@link org.seed.mybatis.core.query.Query#inArray(String, java.util.Collection)}的值整体作为一个数组参数绑定。
+ */
+public class SeedLanguageDriver extends XMLLanguageDriver {
+
+    public static final int DEFAULT_SHAPE_CACHE_SIZE = 1024;
+
+    /**
+     * 驱动由MyBatis反射创建，缓存全局共享，key中包含语句
+     */
+    private static volatile BoundedCache<QueryShape, QueryShapeSqlSource.CachedSql> shapeCache =
+            new BoundedCache<>(DEFAULT_SHAPE_CACHE_SIZE);
+
+    /**
+     * key：Configuration，value：数据库方言，渲染时决定是否使用数组绑定
+     */
+    private static final Map<Configuration, String> DIALECT_MAP = new ConcurrentHashMap<>(8);
+
+    /**
+     * key：Configuration，value：IN值补齐的上限，没有表示不补齐
+     */
+    private static final Map<Configuration, Integer> PADDING_LIMIT_MAP = new ConcurrentHashMap<>(8);
+
+    @Override
+    public SqlSource createSqlSource(Configuration configuration, XNode script, Class<?> parameterType) {
+        SeedXMLScriptBuilder builder = new SeedXMLScriptBuilder(configuration, script, parameterType);
+        return builder.parseScriptNode();
+    }
+
+    /**
+     * 设置Query形状缓存大小，小于等于0关闭缓存
+     *
+     * @param shapeCacheSize 最大缓存条目数
+     */
+    public static void setShapeCacheSize(int shapeCacheSize) {
+        BoundedCache<QueryShape, QueryShapeSqlSource.CachedSql> current = shapeCache;
+        if (shapeCacheSize <= 0) {
+            shapeCache = null;
+        } else if (current == null || current.getMaxSize() != shapeCacheSize) {
+            shapeCache = new BoundedCache<>(shapeCacheSize);
+        }
+    }
+
+    /**
+     * Query形状缓存，可用于查看命中率
+     *
+     * @return 返回Query形状缓存，关闭时返回null
+     */
+    public static BoundedCache<?, ?> getShapeCacheStats() {
+        return shapeCache;
+    }
+
+    /**
+     * 设置Configuration的IN值补齐上限，多个SqlSessionFactory互不影响
+     *
+     * @param configuration Configuration
+     * @param limit         补齐上限，一般为IN查询每批最大值个数，小于等于0不补齐
+     */
+    public static void setInListPaddingLimit(Configuration configuration, int limit) {
+        if (configuration == null) {
+            return;
+        }
+        if (limit <= 0) {
+            PADDING_LIMIT_MAP.remove(configuration);
+        } else {
+            PADDING_LIMIT_MAP.put(configuration, limit);
+        }
+    }
+
+    static int getInListPaddingLimit(Configuration configuration) {
+        if (configuration == null) {
+            return 0;
+        }
+        Integer limit = PADDING_LIMIT_MAP.get(configuration);
+        return limit == null ? 0 : limit;
+    }
+
+    /**
+     * 返回补齐后的IN值个数，补齐到2的幂，不超过补齐上限，超过上限的不补齐
+     *
+     * @param size  IN值个数
+     * @param limit 补齐上限，小于等于0不补齐
+     * @return 返回补齐后的个数
+     */
+    static int paddedSize(int size, int limit) {
+        if (limit <= 0 || size <= 1 || size >= limit) {
+            return size;
+        }
+        int bucket = Integer.highestOneBit(size - 1) << 1;
+        return Math.min(bucket, limit);
+    }
+
+    /**
+     * 设置Configuration对应的数据库方言
+     *
+     * @param configuration Configuration
+     * @param dialect       数据库方言，如：PostgreSQL，Oracle
+     */
+    public static void setDialect(Configuration configuration, String dialect) {
+        if (configuration != null && dialect != null) {
+            DIALECT_MAP.put(configuration, dialect);
+        }
+    }
+
+    static String getDialect(Configuration configuration) {
+        return configuration == null ? null : DIALECT_MAP.get(configuration);
+    }
+
+    static BoundedCache<QueryShape, QueryShapeSqlSource.CachedSql> getShapeCache() {
+        return shapeCache;
+    }
+
+}
@@ -0,0 +1,177 @@
+package org.seed.mybatis.core.ext.scripting;
+
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
+import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.scripting.xmltags.XMLScriptBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 解析动态SQL，识别commonSql.xml中condition片段的foreach：
+ * <pre>
+ * &lt;foreach collection="query.expressions" item="expressionItem"&gt;
+ * </pre>
+ * 替换为{@link QueryConditionSqlNode}，其它节点按MyBatis默认方式解析。<br>
+ * 包含condition片段，并且动态部分只依赖Query形状的语句，使用{@link QueryShapeSqlSource}按形状缓存SQL。
+ */
+public class SeedXMLScriptBuilder extends XMLScriptBuilder {
+
+    private static final String NODE_FOREACH = "foreach";
+    private static final String ATTR_COLLECTION = "collection";
+    private static final String ATTR_ITEM = "item";
+    private static final String CONDITION_COLLECTION = "query.expressions";
+    private static final String CONDITION_ITEM = "expressionItem";
+
+    /**
+     * 渲染结果只由这些Query属性决定，#{}中引用的属性只影响参数值
+     */
+    private static final Set<String> SHAPE_PROPERTIES = new HashSet<>(Arrays.asList(
+            "expressions", "joinExpressions", "sortable", "order", "isQueryAll", "distinct", "forceQuery", "forceUpdate"
+    ));
+
+    /**
+     * 需要检查的表达式属性：if/when的test，foreach的collection，bind的value
+     */
+    private static final Set<String> EXPRESSION_ATTRIBUTES = new HashSet<>(Arrays.asList("test", "collection", "value"));
+
+    private static final Pattern PARAMETER_TOKEN = Pattern.compile("#\\{[^}]*}");
+    private static final Pattern TEXT_TOKEN = Pattern.compile("\\$\\{([^}]*)}");
+    private static final Pattern QUERY_PROPERTY = Pattern.compile("(?<![\\w.$])query\\s*\\.\\s*(\\w+)");
+    private static final Pattern UNTRACEABLE = Pattern.compile("@|(?<![\\w.$])(_parameter|param\\d+)(?!\\w)");
+
+    private final XNode script;
+
+    public SeedXMLScriptBuilder(Configuration configuration, XNode context, Class<?> parameterType) {
+        super(configuration, context, parameterType);
+        this.script = context;
+    }
+
+    @Override
+    public SqlSource parseScriptNode() {
+        Node node = script.getNode();
+        if (!containsConditionDeep(node) || !isShapeStable(node)) {
+            return super.parseScriptNode();
+        }
+        return new QueryShapeSqlSource(configuration, parseDynamicTags(script));
+    }
+
+    @Override
+    protected MixedSqlNode parseDynamicTags(XNode node) {
+        NodeList children = node.getNode().getChildNodes();
+        if (!containsCondition(children)) {
+            return super.parseDynamicTags(node);
+        }
+        // 按condition节点拆分，其余节点仍交给MyBatis解析
+        List<SqlNode> contents = new ArrayList<>();
+        Node segment = node.getNode().cloneNode(false);
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (isCondition(child)) {
+                if (segment.hasChildNodes()) {
+                    contents.add(super.parseDynamicTags(node.newXNode(segment)));
+                    segment = node.getNode().cloneNode(false);
+                }
+                // 原始foreach作为兜底，Query类型不匹配时使用
+                Node single = node.getNode().cloneNode(false);
+                single.appendChild(child.cloneNode(true));
+                contents.add(new QueryConditionSqlNode(configuration, super.parseDynamicTags(node.newXNode(single))));
+            } else {
+                segment.appendChild(child.cloneNode(true));
+            }
+        }
+        if (segment.hasChildNodes()) {
+            contents.add(super.parseDynamicTags(node.newXNode(segment)));
+        }
+        return new MixedSqlNode(contents);
+    }
+
+    private static boolean containsConditionDeep(Node node) {
+        if (isCondition(node)) {
+            return true;
+        }
+        NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (containsConditionDeep(children.item(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 动态部分只依赖Query形状，不引用参数对象本身和静态方法
+     */
+    private static boolean isShapeStable(Node node) {
+        short nodeType = node.getNodeType();
+        if (nodeType == Node.TEXT_NODE || nodeType == Node.CDATA_SECTION_NODE) {
+            String text = PARAMETER_TOKEN.matcher(node.getNodeValue()).replaceAll("");
+            Matcher matcher = TEXT_TOKEN.matcher(text);
+            while (matcher.find()) {
+                if (!isShapeExpression(matcher.group(1))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (nodeType != Node.ELEMENT_NODE) {
+            return true;
+        }
+        Element element = (Element) node;
+        for (String attribute : EXPRESSION_ATTRIBUTES) {
+            if (element.hasAttribute(attribute) && !isShapeExpression(element.getAttribute(attribute))) {
+                return false;
+            }
+        }
+        NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (!isShapeStable(children.item(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isShapeExpression(String expression) {
+        if (UNTRACEABLE.matcher(expression).find()) {
+            return false;
+        }
+        Matcher matcher = QUERY_PROPERTY.matcher(expression);
+        while (matcher.find()) {
+            if (!SHAPE_PROPERTIES.contains(matcher.group(1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsCondition(NodeList children) {
+        for (int i = 0; i < children.getLength(); i++) {
+            if (isCondition(children.item(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCondition(Node node) {
+        if (node.getNodeType() != Node.ELEMENT_NODE || !NODE_FOREACH.equals(node.getNodeName())) {
+            return false;
+        }
+        Element element = (Element) node;
+        return CONDITION_COLLECTION.equals(element.getAttribute(ATTR_COLLECTION))
+                && CONDITION_ITEM.equals(element.getAttribute(ATTR_ITEM));
+    }
+
+}
@@ -0,0 +1,187 @@
+package org.seed.mybatis.core.handler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * IN条件整体作为一个数组参数绑定的TypeHandler<br>
+ * PostgreSQL：{@code column = ANY(?)}，参数为{@link Connection#createArrayOf(String, Object[])}创建的数组；<br>
+ * Oracle：{@code column IN (SELECT COLUMN_VALUE FROM TABLE(?))}，参数为SYS.ODCINUMBERLIST、SYS.ODCIVARCHAR2LIST集合。<br>
+ * 根据连接的数据库名称创建对应类型的数组，不需要依赖数据库驱动。
+ */
+public class ArrayInTypeHandler extends BaseTypeHandler<Collection<?>> {
+
+    public static final String POSTGRESQL = "postgresql";
+
+    public static final String ORACLE = "oracle";
+
+    /**
+     * ODCIVARCHAR2LIST元素为VARCHAR2(4000)，ODCINUMBERLIST最多32767个元素
+     */
+    private static final int ORACLE_MAX_SIZE = 32767;
+
+    private static final int ORACLE_MAX_STRING_LENGTH = 4000;
+
+    private static final String ORACLE_NUMBER_LIST = "SYS.ODCINUMBERLIST";
+
+    private static final String ORACLE_VARCHAR2_LIST = "SYS.ODCIVARCHAR2LIST";
+
+    private static final String ORACLE_CONNECTION_CLASS = "oracle.jdbc.OracleConnection";
+
+    private static final Map<Class<?>, String> POSTGRESQL_TYPES = new HashMap<>(16);
+
+    static {
+        POSTGRESQL_TYPES.put(Integer.class, "int4");
+        POSTGRESQL_TYPES.put(Long.class, "int8");
+        POSTGRESQL_TYPES.put(Short.class, "int2");
+        POSTGRESQL_TYPES.put(BigDecimal.class, "numeric");
+        POSTGRESQL_TYPES.put(Double.class, "float8");
+        POSTGRESQL_TYPES.put(Float.class, "float4");
+        POSTGRESQL_TYPES.put(String.class, "varchar");
+        POSTGRESQL_TYPES.put(Boolean.class, "bool");
+        POSTGRESQL_TYPES.put(UUID.class, "uuid");
+    }
+
+    private static volatile Method createOracleArrayMethod;
+
+    /**
+     * 返回值对应的数组类型
+     *
+     * @param dialect 数据库方言，如：PostgreSQL，Oracle
+     * @param values  IN条件的值
+     * @return 返回数组类型，数据库不支持、值为空、包含null或类型不一致时返回null
+     */
+    public static String getArrayType(String dialect, Collection<?> values) {
+        if (dialect == null || values == null || values.isEmpty()) {
+            return null;
+        }
+        String normalizedDialect = normalizeDialect(dialect);
+        Class<?> elementType = getElementType(values);
+        if (elementType == null) {
+            return null;
+        }
+        if (POSTGRESQL.equals(normalizedDialect)) {
+            return POSTGRESQL_TYPES.get(elementType);
+        }
+        if (ORACLE.equals(normalizedDialect) && values.size() <= ORACLE_MAX_SIZE) {
+            if (elementType == String.class) {
+                for (Object value : values) {
+                    if (((String) value).length() > ORACLE_MAX_STRING_LENGTH) {
+                        return null;
+                    }
+                }
+                return ORACLE_VARCHAR2_LIST;
+            }
+            if (elementType != Boolean.class && elementType != UUID.class && POSTGRESQL_TYPES.containsKey(elementType)) {
+                return ORACLE_NUMBER_LIST;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 是否是Oracle方言
+     *
+     * @param dialect 数据库方言
+     * @return true：Oracle
+     */
+    public static boolean isOracle(String dialect) {
+        return dialect != null && ORACLE.equals(normalizeDialect(dialect));
+    }
+
+    private static String normalizeDialect(String dialect) {
+        return dialect.replaceAll("\\s", "").toLowerCase();
+    }
+
+    private static Class<?> getElementType(Collection<?> values) {
+        Class<?> elementType = null;
+        for (Object value : values) {
+            if (value == null) {
+                return null;
+            }
+            if (elementType == null) {
+                elementType = value.getClass();
+            } else if (elementType != value.getClass()) {
+                return null;
+            }
+        }
+        return elementType;
+    }
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Collection<?> parameter, JdbcType jdbcType) throws SQLException {
+        Connection connection = ps.getConnection();
+        String dialect = connection.getMetaData().getDatabaseProductName();
+        String arrayType = getArrayType(dialect, parameter);
+        if (arrayType == null) {
+            throw new SQLException("数据库[" + dialect + "]不支持该IN数组参数，值类型：" + parameter.iterator().next().getClass().getName());
+        }
+        Object[] elements = parameter.toArray();
+        Array array = isOracle(dialect)
+                ? createOracleArray(connection, arrayType, elements)
+                : connection.createArrayOf(arrayType, elements);
+        ps.setArray(i, array);
+    }
+
+    private static Array createOracleArray(Connection connection, String arrayType, Object[] elements) throws SQLException {
+        try {
+            Class<?> oracleConnectionClass = Class.forName(ORACLE_CONNECTION_CLASS, true, connection.getClass().getClassLoader());
+            Method method = createOracleArrayMethod;
+            if (method == null) {
+                method = oracleConnectionClass.getMethod("createOracleArray", String.class, Object.class);
+                createOracleArrayMethod = method;
+            }
+            return (Array) method.invoke(connection.unwrap(oracleConnectionClass), arrayType, elements);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException("创建Oracle数组失败", cause);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("创建Oracle数组失败，请确认使用Oracle官方驱动", e);
+        }
+    }
+
+    @Override
+    public Collection<?> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return toList(rs.getArray(columnName));
+    }
+
+    @Override
+    public Collection<?> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return toList(rs.getArray(columnIndex));
+    }
+
+    @Override
+    public Collection<?> getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return toList(cs.getArray(columnIndex));
+    }
+
+    private static List<Object> toList(Array array) throws SQLException {
+        if (array == null) {
+            return null;
+        }
+        try {
+            return Arrays.asList((Object[]) array.getArray());
+        } finally {
+            array.free();
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package org.seed.mybatis.core.mapper;
 
 
+import org.apache.ibatis.annotations.Param;
 import org.seed.mybatis.core.SeedMybatisContext;
 import org.seed.mybatis.core.query.Query;
+import org.seed.mybatis.core.util.MapperUtil;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -15,43 +22,136 @@ import java.util.Objects;
 public interface CrudMapper<E, I> extends QueryMapper<E, I>, EditMapper<E, I> {
 
     /**
-     * 保存或修改，当数据库存在记录执行UPDATE，否则执行INSERT
+     * 保存或修改，保存全部字段，主键已存在时更新<br>
+     * MySQL使用ON DUPLICATE KEY UPDATE，PostgreSQL、SQLite使用ON CONFLICT，SQL Server、Oracle使用MERGE<br>
+     * 注意：MySQL任意唯一索引冲突都会执行更新，表上除主键外还有唯一索引时，可能更新到主键不同的另一条记录<br>
+     * 有逻辑删除字段时，已被逻辑删除的记录更新后恢复为未删除
+     *
+     * @param entity 实体类，主键不能为null
+     * @return 受影响行数，MySQL更新时返回2
+     */
+    int upsert(E entity);
+
+    /**
+     * 保存或修改，保存不为NULL的字段，主键已存在时更新不为NULL的字段
+     *
+     * @param entity 实体类，主键不能为null
+     * @return 受影响行数，MySQL更新时返回2
+     * @see #upsert(Object)
+     */
+    int upsertIgnoreNull(E entity);
+
+    /**
+     * 批量保存或修改，保存全部字段，主键已存在时更新
+     *
+     * @param entities 实体类集合，主键不能为null，主键不能重复
+     * @return 受影响行数，MySQL每条更新的记录计2行
+     * @see #upsert(Object)
+     */
+    int upsertBatch(@Param("entities") Collection<E> entities);
+
+    /**
+     * 保存或修改，当数据库存在记录执行UPDATE，否则执行INSERT<br>
+     * 主键有值时一条upsert语句完成，已被逻辑删除的记录更新后恢复为未删除；
+     * 实体类没有upsert语句（如有乐观锁字段）时先查询再保存或修改，查不到已被逻辑删除的记录，执行INSERT
      *
      * @param entity 实体类
-     * @return 受影响行数
+     * @return 受影响行数，保存或修改成功返回1
+     * @see #upsert(Object)
      */
     default int saveOrUpdateWithNull(E entity) {
         Objects.requireNonNull(entity, "entity can not null");
         Object pkValue = SeedMybatisContext.getPkValue(entity);
+        if (pkValue == null) {
+            return this.save(entity);
+        }
+        Class<?> entityClass = entity.getClass();
+        if (MapperUtil.hasStatement(entityClass, "upsert")) {
+            // MySQL更新时返回2，统一为1
+            return Math.min(this.upsert(entity), 1);
+        }
         // 如果存在数据，执行更新操作
-        if (pkValue != null) {
-            String pkColumnName = SeedMybatisContext.getPkColumnName(entity.getClass());
-            Object columnValue = getColumnValue(pkColumnName, new Query().eq(pkColumnName, pkValue), Object.class);
-            if (columnValue != null) {
-                return this.update(entity);
-            }
+        String pkColumnName = SeedMybatisContext.getPkColumnName(entityClass);
+        Object columnValue = getColumnValue(pkColumnName, new Query().eq(pkColumnName, pkValue), Object.class);
+        if (columnValue != null) {
+            return this.update(entity);
         }
         return this.save(entity);
     }
 
     /**
-     * 保存或修改，忽略null字段，当数据库存在记录执行UPDATE，否则执行INSERT
+     * 保存或修改，忽略null字段，当数据库存在记录执行UPDATE，否则执行INSERT<br>
+     * 主键有值时一条upsert语句完成，已被逻辑删除的记录更新后恢复为未删除；
+     * 实体类没有upsert语句（如有乐观锁字段）时先查询再保存或修改，查不到已被逻辑删除的记录，执行INSERT
      *
      * @param entity 实体类
-     * @return 受影响行数
+     * @return 受影响行数，保存或修改成功返回1
+     * @see #upsert(Object)
      */
     default int saveOrUpdate(E entity) {
         Objects.requireNonNull(entity, "entity can not null");
         Object pkValue = SeedMybatisContext.getPkValue(entity);
+        if (pkValue == null) {
+            return this.saveIgnoreNull(entity);
+        }
+        Class<?> entityClass = entity.getClass();
+        if (MapperUtil.hasStatement(entityClass, "upsertIgnoreNull")) {
+            return Math.min(this.upsertIgnoreNull(entity), 1);
+        }
         // 如果存在数据，执行更新操作
-        if (pkValue != null) {
-            String pkColumnName = SeedMybatisContext.getPkColumnName(entity.getClass());
-            Object columnValue = getColumnValue(pkColumnName, new Query().eq(pkColumnName, pkValue), Object.class);
-            if (columnValue != null) {
-                return this.updateIgnoreNull(entity);
-            }
+        String pkColumnName = SeedMybatisContext.getPkColumnName(entityClass);
+        Object columnValue = getColumnValue(pkColumnName, new Query().eq(pkColumnName, pkValue), Object.class);
+        if (columnValue != null) {
+            return this.updateIgnoreNull(entity);
         }
         return this.saveIgnoreNull(entity);
     }
 
+    /**
+     * 批量保存或修改，保存全部字段，当数据库存在记录执行UPDATE，否则执行INSERT<br>
+     * 主键为null的记录分批执行saveBatch，其余记录分批执行upsertBatch，同一主键出现多次时保留最后一条；
+     * 每批条数由所属数据库每条SQL参数个数上限和实体类字段数决定，见{@link MapperUtil#getRowChunkSize(Class)}
+     *
+     * @param entities 实体类集合
+     * @return 受影响行数，每条保存或修改的记录计1行
+     * @see #upsert(Object)
+     */
+    default int saveOrUpdateBatch(Collection<E> entities) {
+        if (entities == null || entities.isEmpty()) {
+            throw new IllegalArgumentException("parameter 'entities' can not empty");
+        }
+        Class<?> entityClass = entities.iterator().next().getClass();
+        List<E> newEntities = new ArrayList<>();
+        Map<Object, E> pkEntities = new LinkedHashMap<>(entities.size() * 2);
+        for (E entity : entities) {
+            Object pkValue = SeedMybatisContext.getPkValue(entity);
+            if (pkValue == null) {
+                newEntities.add(entity);
+            } else {
+                pkEntities.put(pkValue, entity);
+            }
+        }
+        int chunkSize = MapperUtil.getRowChunkSize(entityClass);
+        int count = 0;
+        if (!newEntities.isEmpty()) {
+            for (List<E> chunk : MapperUtil.<E>splitChunks(newEntities, chunkSize)) {
+                count += this.saveBatch(chunk);
+            }
+        }
+        if (pkEntities.isEmpty()) {
+            return count;
+        }
+        if (MapperUtil.hasStatement(entityClass, "upsertBatch")) {
+            for (List<E> chunk : MapperUtil.<E>splitChunks(pkEntities.values(), chunkSize)) {
+                // MySQL每条更新的记录计2行，统一为每条1行
+                count += Math.min(this.upsertBatch(chunk), chunk.size());
+            }
+            return count;
+        }
+        for (E entity : pkEntities.values()) {
+            count += this.saveOrUpdateWithNull(entity);
+        }
+        return count;
+    }
+
 }
@@ -5,6 +5,7 @@ import org.apache.ibatis.annotations.Param;
 import org.seed.mybatis.core.SeedMybatisContext;
 import org.seed.mybatis.core.query.Query;
 import org.seed.mybatis.core.util.ClassUtil;
+import org.seed.mybatis.core.util.MapperUtil;
 
 import java.util.Collection;
 import java.util.Objects;
@@ -43,13 +44,14 @@ public interface DeleteMapper<E, I> extends Mapper<E> {
         if (ids == null || ids.isEmpty()) {
             throw new IllegalArgumentException("parameter 'ids' can not empty");
         }
-        Class<E> entityClass = (Class<E>) ClassUtil.getSuperInterfaceGenericType(getClass(), 0);
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
         String pkColumnName = SeedMybatisContext.getPkColumnName(entityClass);
         return this.deleteByColumn(pkColumnName, ids);
     }
 
     /**
      * 根据指定字段值删除，在有逻辑删除字段的情况下，做UPDATE操作<br>
+     * 值为集合且个数超过inChunkSize时拆分成多条语句，在同一个事务中按顺序执行，任何一条失败全部回滚<br>
      * <pre>
      * 根据数组删除
      * {@literal mapper.deleteByColumn("username", Arrays.asList("jim", "tom")); }
@@ -69,13 +71,13 @@ public interface DeleteMapper<E, I> extends Mapper<E> {
             throw new IllegalArgumentException("parameter 'columns' can not blank");
         }
         Objects.requireNonNull(value, "value can not null");
-        Query query;
         if (value instanceof Collection) {
-            query = new Query().in(column, (Collection<?>) value);
-        } else {
-            query = new Query().eq(column, value);
+            // 值较多时按所属数据库的每批最大个数分批删除
+            Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+            return MapperUtil.<DeleteMapper<E, I>>executeInChunks(this, entityClass, (Collection<?>) value,
+                    (mapper, chunk) -> mapper.deleteByQuery(new Query().in(column, chunk)));
         }
-        return deleteByQuery(query);
+        return deleteByQuery(new Query().eq(column, value));
     }
 
     /**
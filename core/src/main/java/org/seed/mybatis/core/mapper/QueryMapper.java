@@ -2,8 +2,11 @@ package org.seed.mybatis.core.mapper;
 
 
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.seed.mybatis.core.CursorPage;
 import org.seed.mybatis.core.SeedMybatisContext;
 import org.seed.mybatis.core.PageInfo;
+import org.seed.mybatis.core.RowWithTotal;
 import org.seed.mybatis.core.ext.spi.BeanExecutor;
 import org.seed.mybatis.core.ext.spi.SpiContext;
 import org.seed.mybatis.core.query.Query;
@@ -200,6 +203,24 @@ public interface QueryMapper<E, I> extends Mapper<E> {
      */
     long getCount(@Param("query") Query query);
 
+    /**
+     * 查询总记录数，最多统计到countLimit+1条<br>
+     * <pre>
+     * {@literal
+     * Query query = new Query();
+     * query.eq("state", 0).countLimit(10000);
+     * long count = mapper.getCountLimit(query);
+     *
+     * 对应SQL:
+     * SELECT COUNT(*) FROM (SELECT 1 FROM t_user t WHERE `state` = 0 LIMIT 10001) seed_count
+     * }
+     * </pre>
+     *
+     * @param query 查询条件，需要设置countLimit
+     * @return 返回记录数，大于countLimit表示超出上限
+     */
+    long getCountLimit(@Param("query") Query query);
+
     /**
      * 根据字段查询结果集<br>
      *
@@ -239,6 +260,51 @@ public interface QueryMapper<E, I> extends Mapper<E> {
      */
     List<E> list(@Param("query") Query query);
 
+    /**
+     * 游标查询结果集，逐条读取，内存占用与记录数无关，适用于大批量导出<br>
+     * 使用完毕需要关闭游标。spring环境下需要在事务中使用，否则session已关闭，
+     * 也可以使用{@link org.seed.mybatis.core.support.CommonService#cursor(Query)}，由游标持有session。
+     * <pre>
+     * {@literal
+     * Query query = new Query().eq("state", 0);
+     * try (Cursor<TUser> cursor = mapper.cursor(query)) {
+     *     for (TUser user : cursor) {
+     *         ...
+     *     }
+     * }
+     * }
+     * </pre>
+     *
+     * @param query 查询条件
+     * @return 返回游标
+     */
+    Cursor<E> cursor(@Param("query") Query query);
+
+    /**
+     * 游标查询结果集，逐条交给consumer处理，处理完毕关闭游标<br>
+     * <pre>
+     * {@literal
+     * mapper.stream(new Query().eq("state", 0), user -> writer.write(user));
+     * }
+     * </pre>
+     *
+     * @param query    查询条件
+     * @param consumer 处理每一条记录
+     * @see #cursor(Query)
+     */
+    default void stream(Query query, Consumer<E> consumer) {
+        MapperUtil.stream(cursor(query), consumer);
+    }
+
+    /**
+     * 分页查询结果集，每一行带上窗口函数COUNT(*) OVER()返回的总记录数，一次查询完成分页<br>
+     * MySQL 8.0+、PostgreSQL、SQL Server、Oracle支持，开启pageWithWindowTotal后由分页查询调用
+     *
+     * @param query 查询条件，需要设置分页
+     * @return 返回结果集及总记录数，没有返回空集合
+     */
+    List<RowWithTotal<E>> listWithTotal(@Param("query") Query query);
+
     /**
      * 根据多个主键查询<br>
      *
@@ -253,7 +319,7 @@ public interface QueryMapper<E, I> extends Mapper<E> {
         if (ids == null || ids.isEmpty()) {
             throw new IllegalArgumentException("parameter 'ids' can not empty");
         }
-        Class<E> entityClass = (Class<E>) ClassUtil.getSuperInterfaceGenericType(getClass(), 0);
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
         String pkColumnName = SeedMybatisContext.getPkColumnName(entityClass);
         return listByCollection(pkColumnName, ids);
     }
@@ -281,6 +347,7 @@ public interface QueryMapper<E, I> extends Mapper<E> {
 
     /**
      * 根据字段多个值查询结果集<br>
+     * 值的个数超过inChunkSize时拆分成多条语句查询，结果按顺序合并
      *
      * <code>
      * SELECT col1, col2, ... FROM table WHERE {column} in (val1, val2, ...)
@@ -297,9 +364,9 @@ public interface QueryMapper<E, I> extends Mapper<E> {
         if (values == null || values.isEmpty()) {
             throw new IllegalArgumentException("parameter 'values' can not empty");
         }
-        Query query = new Query()
-                .in(column, values);
-        return list(query);
+        // 值较多时按所属数据库的每批最大个数分批查询
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+        return MapperUtil.listInChunks(entityClass, values, chunk -> list(new Query().in(column, chunk)));
     }
 
     /**
@@ -439,6 +506,28 @@ public interface QueryMapper<E, I> extends Mapper<E> {
         return MapperUtil.query(this, query);
     }
 
+    /**
+     * 游标分页查询，不使用OFFSET，不查询总记录数，适合大表深度翻页<br>
+     * 根据排序字段和主键生成定位条件，排序字段后面自动追加主键排序
+     * <pre>
+     * {@literal
+     * Query query = new Query().eq("state", 1).orderBy("create_time", Sort.DESC).limit(0, 20);
+     * CursorPage<TUser> page = mapper.pageAfter(query, null);
+     * // 下一页，query需要重新创建
+     * Query nextQuery = new Query().eq("state", 1).orderBy("create_time", Sort.DESC).limit(0, 20);
+     * CursorPage<TUser> nextPage = mapper.pageAfter(nextQuery, page.getNextCursor());
+     * }
+     * </pre>
+     *
+     * @param query  查询条件，需要设置每页条数，排序字段必须是实体类字段且值不能为null
+     * @param cursor 上一页返回的游标，查询第一页传null
+     * @return 返回游标分页结果
+     */
+    default CursorPage<E> pageAfter(Query query, String cursor) {
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+        return MapperUtil.pageAfter(entityClass, query, cursor, this::list);
+    }
+
     /**
      * 查询结果集，并转换结果集中的记录
      *
@@ -1,6 +1,7 @@
 package org.seed.mybatis.core.mapper;
 
 import org.apache.ibatis.annotations.Param;
+import org.seed.mybatis.core.util.MapperUtil;
 
 import java.util.*;
 
@@ -34,6 +35,29 @@ public interface SaveMapper<E> extends Mapper<E> {
      */
     int saveBatch(@Param("entities") Collection<E> entities);
 
+    /**
+     * 分批保存，每chunkSize条执行一次批量保存<br>
+     * 避免一次生成过长的SQL超出max_allowed_packet、参数个数限制，条数相同的批次SQL相同，可复用预编译语句
+     *
+     * @param entities  实体类集合
+     * @param chunkSize 每批条数
+     * @return 受影响行数
+     * @see #saveBatch(Collection)
+     */
+    default int saveBatch(Collection<E> entities, int chunkSize) {
+        if (entities == null || entities.isEmpty()) {
+            throw new IllegalArgumentException("parameter 'entities' can not empty");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize必须大于0");
+        }
+        int count = 0;
+        for (List<E> chunk : MapperUtil.splitChunks(entities, chunkSize)) {
+            count += saveBatch(chunk);
+        }
+        return count;
+    }
+
     /**
      * 批量保存,兼容更多的数据库版本,忽略重复行.<br>
      * 此方式采用union的方式批量insert.
@@ -2,9 +2,17 @@ package org.seed.mybatis.core.mapper;
 
 
 import org.apache.ibatis.annotations.Param;
+import org.seed.mybatis.core.SeedMybatisContext;
+import org.seed.mybatis.core.ext.info.EntityInfo;
 import org.seed.mybatis.core.query.Query;
+import org.seed.mybatis.core.util.DirtyTracker;
+import org.seed.mybatis.core.util.MapperUtil;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * 具备更新功能的Mapper
@@ -28,6 +36,106 @@ public interface UpdateMapper<E> extends Mapper<E> {
      */
     int updateIgnoreNull(E entity);
 
+    /**
+     * 只更新修改过的字段，需要开启dirtyTracking<br>
+     * 与查询时记录的字段快照比较，SET部分只包含值发生变化的字段（以及更新时填充的字段、乐观锁字段）；
+     * 没有修改或修改的都是不可更新字段（主键、忽略更新的字段）时返回0，不执行SQL；
+     * 没有快照（如new出来的对象、未开启dirtyTracking）时更新所有字段
+     *
+     * @param entity 实体类
+     * @return 受影响行数
+     * @see org.seed.mybatis.core.SeedMybatisConfig#setDirtyTracking(boolean)
+     */
+    default int updateChanged(E entity) {
+        Objects.requireNonNull(entity, "entity can not null");
+        Set<String> changedFields = DirtyTracker.getChangedFields(entity);
+        if (changedFields == null) {
+            return update(entity);
+        }
+        EntityInfo entityInfo = SeedMybatisContext.getEntityInfo(entity.getClass());
+        if (entityInfo != null && entityInfo.getUpdateJavaFields() != null) {
+            changedFields.retainAll(entityInfo.getUpdateJavaFields());
+        }
+        if (changedFields.isEmpty()) {
+            return 0;
+        }
+        int count = updateChanged(entity, changedFields);
+        DirtyTracker.snapshot(entity);
+        return count;
+    }
+
+    /**
+     * 更新指定字段
+     *
+     * @param entity        实体类
+     * @param changedFields 需要更新的JAVA字段名
+     * @return 受影响行数
+     */
+    int updateChanged(@Param("entity") E entity, @Param("changed") Collection<String> changedFields);
+
+    /**
+     * 根据主键批量更新，更新所有字段<br>
+     * 生成一条UPDATE ... SET 字段 = CASE 主键 WHEN ... END WHERE 主键 IN (...)，有逻辑删除字段时只更新未删除的记录。
+     * 只在MySQL、PostgreSQL、SQLite生成，有乐观锁字段的表不生成
+     *
+     * @param entities 实体类集合
+     * @return 受影响行数
+     */
+    int updateBatch(@Param("entities") Collection<E> entities);
+
+    /**
+     * 根据主键批量更新，忽略null字段
+     *
+     * @param entities 实体类集合
+     * @return 受影响行数
+     * @see #updateBatch(Collection)
+     */
+    int updateBatchIgnoreNull(@Param("entities") Collection<E> entities);
+
+    /**
+     * 分批更新，每chunkSize条执行一次批量更新，更新所有字段
+     *
+     * @param entities  实体类集合
+     * @param chunkSize 每批条数
+     * @return 受影响行数
+     * @see #updateBatch(Collection)
+     */
+    default int updateBatch(Collection<E> entities, int chunkSize) {
+        if (entities == null || entities.isEmpty()) {
+            throw new IllegalArgumentException("parameter 'entities' can not empty");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize必须大于0");
+        }
+        int count = 0;
+        for (List<E> chunk : MapperUtil.splitChunks(entities, chunkSize)) {
+            count += updateBatch(chunk);
+        }
+        return count;
+    }
+
+    /**
+     * 分批更新，每chunkSize条执行一次批量更新，忽略null字段
+     *
+     * @param entities  实体类集合
+     * @param chunkSize 每批条数
+     * @return 受影响行数
+     * @see #updateBatchIgnoreNull(Collection)
+     */
+    default int updateBatchIgnoreNull(Collection<E> entities, int chunkSize) {
+        if (entities == null || entities.isEmpty()) {
+            throw new IllegalArgumentException("parameter 'entities' can not empty");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize必须大于0");
+        }
+        int count = 0;
+        for (List<E> chunk : MapperUtil.splitChunks(entities, chunkSize)) {
+            count += updateBatchIgnoreNull(chunk);
+        }
+        return count;
+    }
+
     /**
      * 根据条件更新<br>
      * <pre>
@@ -0,0 +1,207 @@
+package org.seed.mybatis.core.query;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 游标分页的游标，记录上一页最后一条记录的排序字段值<br>
+ * 编码成不透明的字符串返回给调用方，下一页原样传回，只支持常用的基本类型、字符串、数字、日期，
+ * 不使用Java序列化，解析外部传入的游标是安全的。
+ */
+public final class PageCursor {
+
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_SHORT = 4;
+    private static final byte TYPE_BYTE = 5;
+    private static final byte TYPE_BIG_DECIMAL = 6;
+    private static final byte TYPE_BIG_INTEGER = 7;
+    private static final byte TYPE_DOUBLE = 8;
+    private static final byte TYPE_FLOAT = 9;
+    private static final byte TYPE_BOOLEAN = 10;
+    private static final byte TYPE_DATE = 11;
+    private static final byte TYPE_LOCAL_DATE = 12;
+    private static final byte TYPE_LOCAL_DATE_TIME = 13;
+    private static final byte TYPE_LOCAL_TIME = 14;
+    private static final byte TYPE_TIMESTAMP = 15;
+
+    /**
+     * 排序信息的签名，防止游标用在排序不同的查询上
+     */
+    private final int signature;
+
+    private final List<Object> values;
+
+    public PageCursor(int signature, List<Object> values) {
+        this.signature = signature;
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param token 游标字符串
+     * @return 返回游标
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static PageCursor parse(String token) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token);
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (input.readByte() != VERSION) {
+                throw new IOException("unsupported version");
+            }
+            int signature = input.readInt();
+            int size = input.readUnsignedByte();
+            List<Object> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readValue(input));
+            }
+            if (input.available() > 0) {
+                throw new IOException("unexpected trailing bytes");
+            }
+            return new PageCursor(signature, values);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("无效的游标：" + token, e);
+        }
+    }
+
+    /**
+     * 编码成游标字符串
+     *
+     * @return 返回游标字符串
+     * @throws IllegalArgumentException 值类型不支持
+     */
+    public String toToken() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(VERSION);
+            output.writeInt(signature);
+            output.writeByte(values.size());
+            for (Object value : values) {
+                writeValue(output, value);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private static void writeValue(DataOutputStream output, Object value) throws IOException {
+        if (value instanceof String) {
+            output.writeByte(TYPE_STRING);
+            output.writeUTF((String) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(TYPE_INTEGER);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(TYPE_LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            output.writeByte(TYPE_SHORT);
+            output.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            output.writeByte(TYPE_BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof BigDecimal) {
+            output.writeByte(TYPE_BIG_DECIMAL);
+            output.writeUTF(value.toString());
+        } else if (value instanceof BigInteger) {
+            output.writeByte(TYPE_BIG_INTEGER);
+            output.writeUTF(value.toString());
+        } else if (value instanceof Double) {
+            output.writeByte(TYPE_DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            output.writeByte(TYPE_FLOAT);
+            output.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte(TYPE_BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Timestamp) {
+            // 保留纳秒，避免精度丢失导致翻页重复或遗漏
+            output.writeByte(TYPE_TIMESTAMP);
+            output.writeLong(((Timestamp) value).getTime());
+            output.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof Date) {
+            output.writeByte(TYPE_DATE);
+            output.writeLong(((Date) value).getTime());
+        } else if (value instanceof LocalDate) {
+            output.writeByte(TYPE_LOCAL_DATE);
+            output.writeUTF(value.toString());
+        } else if (value instanceof LocalDateTime) {
+            output.writeByte(TYPE_LOCAL_DATE_TIME);
+            output.writeUTF(value.toString());
+        } else if (value instanceof LocalTime) {
+            output.writeByte(TYPE_LOCAL_TIME);
+            output.writeUTF(value.toString());
+        } else {
+            throw new IllegalArgumentException("游标分页不支持该排序字段类型：" + (value == null ? "null" : value.getClass().getName()));
+        }
+    }
+
+    private static Object readValue(DataInputStream input) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case TYPE_STRING:
+                return input.readUTF();
+            case TYPE_INTEGER:
+                return input.readInt();
+            case TYPE_LONG:
+                return input.readLong();
+            case TYPE_SHORT:
+                return input.readShort();
+            case TYPE_BYTE:
+                return input.readByte();
+            case TYPE_BIG_DECIMAL:
+                return new BigDecimal(input.readUTF());
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(input.readUTF());
+            case TYPE_DOUBLE:
+                return input.readDouble();
+            case TYPE_FLOAT:
+                return input.readFloat();
+            case TYPE_BOOLEAN:
+                return input.readBoolean();
+            case TYPE_DATE:
+                return new Date(input.readLong());
+            case TYPE_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(input.readLong());
+                timestamp.setNanos(input.readInt());
+                return timestamp;
+            case TYPE_LOCAL_DATE:
+                return LocalDate.parse(input.readUTF());
+            case TYPE_LOCAL_DATE_TIME:
+                return LocalDateTime.parse(input.readUTF());
+            case TYPE_LOCAL_TIME:
+                return LocalTime.parse(input.readUTF());
+            default:
+                throw new IOException("unknown type " + type);
+        }
+    }
+
+    public int getSignature() {
+        return signature;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+}
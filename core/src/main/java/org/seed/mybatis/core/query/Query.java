@@ -8,6 +8,7 @@ import org.seed.mybatis.core.query.param.IParam;
 import org.seed.mybatis.core.query.param.SchSortableParam;
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * 查询类
@@ -39,10 +40,12 @@ import java.util.*;
  * long total = mapper.getCount(query); // 该条件下总记录数
  * </pre>
  */
-public class Query implements Queryable {
+public class Query implements Queryable, Cloneable {
 
     private static final String DEFAULT_SQL_INJECT_REGEX = "([';])+|(--)+";
 
+    private static final Pattern DEFAULT_SQL_INJECT_PATTERN = Pattern.compile(DEFAULT_SQL_INJECT_REGEX);
+
     private static final String DEFAULT_ARG_PLACEHOLDER = "?";
 
     private String argPlaceholder = DEFAULT_ARG_PLACEHOLDER;
@@ -63,6 +66,10 @@ public class Query implements Queryable {
      * 总记录数，默认为-1，表示没有设置总记录数
      */
     private int total = -1;
+    /**
+     * 总记录数统计上限，大于0时最多统计到countLimit+1条
+     */
+    private int countLimit;
 
     /**
      * 排序信息
@@ -91,7 +98,7 @@ public class Query implements Queryable {
     /**
      * 条件表达式
      */
-    protected final List<Expression> expressions = new ArrayList<>(4);
+    protected List<Expression> expressions = new ArrayList<>(4);
 
     // ------------ 基本条件 ------------
 
@@ -515,6 +522,65 @@ public class Query implements Queryable {
         return this;
     }
 
+    /**
+     * 添加IN条件，值整体作为一个数组参数绑定<br>
+     * PostgreSQL生成{@code column = ANY(?)}，Oracle生成{@code column IN (SELECT COLUMN_VALUE FROM TABLE(?))}，
+     * 值再多也只有一个参数、一条SQL。其它数据库、值包含null或类型不一致时与{@link #in(String, Collection)}相同。
+     *
+     * @param columnName 数据库字段名
+     * @param value      值
+     * @return 返回Query对象
+     */
+    public Query inArray(String columnName, Collection<?> value) {
+        this.addExpression(Expressions.inArray(columnName, value));
+        return this;
+    }
+
+    /**
+     * 根据表达式添加IN条件，值整体作为一个数组参数绑定
+     *
+     * @param expression 表达式，当为true时添加条件
+     * @param columnName 数据库字段名
+     * @param value      值
+     * @return 返回Query对象
+     * @see #inArray(String, Collection)
+     */
+    public Query inArray(boolean expression, String columnName, Collection<?> value) {
+        if (expression) {
+            inArray(columnName, value);
+        }
+        return this;
+    }
+
+    /**
+     * 添加not in条件，值整体作为一个数组参数绑定
+     *
+     * @param columnName 数据库字段名
+     * @param value      值
+     * @return 返回Query对象
+     * @see #inArray(String, Collection)
+     */
+    public Query notInArray(String columnName, Collection<?> value) {
+        this.addExpression(Expressions.notInArray(columnName, value));
+        return this;
+    }
+
+    /**
+     * 根据表达式添加not in条件，值整体作为一个数组参数绑定
+     *
+     * @param expression 表达式，当为true时添加条件
+     * @param columnName 数据库字段名
+     * @param value      值
+     * @return 返回Query对象
+     * @see #inArray(String, Collection)
+     */
+    public Query notInArray(boolean expression, String columnName, Collection<?> value) {
+        if (expression) {
+            notInArray(columnName, value);
+        }
+        return this;
+    }
+
     /**
      * 添加between条件
      *
@@ -664,26 +730,29 @@ public class Query implements Queryable {
     }
 
     /**
-     * 添加自定义sql条件
+     * 添加自定义sql条件，参数去除注入字符后直接拼接到SQL中<br>
+     * 需要预编译参数绑定使用{@link #whereBind(String, Object...)}
      *
      * @param sqlFormat SQL模板，参数值使用?代替，如：<code>username = ? and nickname like '%?%'</code>
      * @param args      参数
      * @return 返回Query对象
      */
     public Query where(String sqlFormat, Object... args) {
-        if (args != null && args.length > 0) {
-            for (int i = 0; i < args.length; i++) {
-                Object arg = args[i];
-                if (arg instanceof CharSequence) {
-                    args[i] = arg.toString().replaceAll(sqlInjectRegex, SqlConsts.EMPTY);
-                }
-            }
-            for (Object arg : args) {
-                sqlFormat = sqlFormat.replaceFirst(String.format("\\%s", this.argPlaceholder), String.valueOf(arg));
+        if (args == null || args.length == 0) {
+            return this.where(sqlFormat);
+        }
+        StringBuilder sql = new StringBuilder(sqlFormat.length());
+        int argIndex = 0;
+        int i = 0;
+        while (i < sqlFormat.length()) {
+            if (argIndex < args.length && sqlFormat.startsWith(this.argPlaceholder, i)) {
+                sql.append(this.stripSqlInject(args[argIndex++]));
+                i += this.argPlaceholder.length();
+                continue;
             }
+            sql.append(sqlFormat.charAt(i++));
         }
-        this.addExpression(Expressions.sql(sqlFormat));
-        return this;
+        return this.where(sql.toString());
     }
 
     /**
@@ -701,6 +770,85 @@ public class Query implements Queryable {
         return this;
     }
 
+    /**
+     * 添加自定义sql条件，参数使用预编译绑定<br>
+     * 引号外的占位符生成#{}参数，如：<code>username = ? and add_time &gt; ?</code>；
+     * 引号内的占位符（如：<code>nickname like '%?%'</code>）和null参数无法绑定，去除注入字符后直接拼接，推荐写成<code>nickname like ?</code>，参数传"%xx%"。
+     * 一个占位符只绑定一个值，不能传集合、数组，IN条件使用{@link #in(String, Collection)}
+     *
+     * @param sqlFormat SQL模板，参数值使用?代替，如：<code>username = ? and nickname like ?</code>
+     * @param args      参数
+     * @return 返回Query对象
+     */
+    public Query whereBind(String sqlFormat, Object... args) {
+        if (args == null || args.length == 0) {
+            return this.where(sqlFormat);
+        }
+        List<String> segments = new ArrayList<>(args.length + 1);
+        List<Object> bindArgs = new ArrayList<>(args.length);
+        StringBuilder segment = new StringBuilder(sqlFormat.length());
+        int argIndex = 0;
+        boolean quoted = false;
+        int i = 0;
+        while (i < sqlFormat.length()) {
+            char c = sqlFormat.charAt(i);
+            if (argIndex < args.length && sqlFormat.startsWith(this.argPlaceholder, i)) {
+                Object arg = args[argIndex++];
+                if (arg instanceof Collection || (arg != null && arg.getClass().isArray())) {
+                    throw new IllegalArgumentException("whereBind参数不能是集合或数组，IN条件请使用in()，sqlFormat：" + sqlFormat);
+                }
+                if (quoted || arg == null) {
+                    // 引号内无法绑定参数，null值保持拼接
+                    segment.append(this.stripSqlInject(arg));
+                } else {
+                    segments.add(segment.toString());
+                    segment.setLength(0);
+                    bindArgs.add(arg);
+                }
+                i += this.argPlaceholder.length();
+                continue;
+            }
+            if (c == '\'') {
+                // 转义的''连续切换两次，仍在引号内
+                quoted = !quoted;
+            }
+            segment.append(c);
+            i++;
+        }
+        segments.add(segment.toString());
+        if (bindArgs.isEmpty()) {
+            return this.where(segment.toString());
+        }
+        this.addExpression(Expressions.sql(segments, bindArgs));
+        return this;
+    }
+
+    /**
+     * 根据表达式添加自定义sql条件，参数使用预编译绑定
+     *
+     * @param expression 表达式，当为true时添加条件
+     * @param sqlFormat  SQL模板，参数值使用?代替，如：<code>username = ? and nickname like ?</code>
+     * @param args       参数
+     * @return 返回Query对象
+     * @see #whereBind(String, Object...)
+     */
+    public Query whereBind(boolean expression, String sqlFormat, Object... args) {
+        if (expression) {
+            whereBind(sqlFormat, args);
+        }
+        return this;
+    }
+
+    private String stripSqlInject(Object arg) {
+        if (!(arg instanceof CharSequence)) {
+            return String.valueOf(arg);
+        }
+        if (DEFAULT_SQL_INJECT_REGEX.equals(this.sqlInjectRegex)) {
+            return DEFAULT_SQL_INJECT_PATTERN.matcher((CharSequence) arg).replaceAll(SqlConsts.EMPTY);
+        }
+        return arg.toString().replaceAll(this.sqlInjectRegex, SqlConsts.EMPTY);
+    }
+
     /**
      * 添加字段不为null的条件
      *
@@ -927,6 +1075,34 @@ public class Query implements Queryable {
         return this.limit;
     }
 
+    /**
+     * 设置总记录数统计上限，分页查询最多统计到countLimit+1条，超出时总记录数为countLimit，
+     * 用于大表只需显示“10000+”的场景，避免统计全部记录
+     *
+     * @param countLimit 统计上限，0表示不限制
+     * @return 返回Query对象
+     */
+    public Query countLimit(int countLimit) {
+        if (countLimit < 0) {
+            throw new IllegalArgumentException("countLimit必须大于等于0");
+        }
+        this.countLimit = countLimit;
+        return this;
+    }
+
+    public int getCountLimit() {
+        return countLimit;
+    }
+
+    /**
+     * 统计上限对应的查询行数，供xml使用
+     *
+     * @return 返回countLimit+1
+     */
+    public int getCountLimitRows() {
+        return countLimit + 1;
+    }
+
     // ------------ 设置分页信息 end ------------
 
     // ------------ 设置排序 ------------
@@ -979,7 +1155,7 @@ public class Query implements Queryable {
                 orderInfo = new LinkedHashSet<String>();
             }
             // 简单防止SQL注入
-            column = column.replaceAll(sqlInjectRegex, SqlConsts.EMPTY);
+            column = this.stripSqlInject(column);
 
             if (!SqlConsts.DESC.equalsIgnoreCase(sortType)) {
                 sortType = SqlConsts.ASC;
@@ -1011,6 +1187,18 @@ public class Query implements Queryable {
             return "";
         }
     }
+
+    /**
+     * 返回排序信息，每一项为：数据库字段名 ASC|DESC
+     *
+     * @return 返回排序信息，没有排序返回空集合
+     */
+    public List<String> fetchOrderItems() {
+        if (orderInfo == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(orderInfo);
+    }
     // ------------ 设置排序 end ------------
 
     /**
@@ -1165,6 +1353,17 @@ public class Query implements Queryable {
         return this;
     }
 
+    /**
+     * 返回WHERE条件<br>
+     * 添加条件时按index排序（index相同按添加顺序），之后修改条件的index不会重新排序。
+     * 返回的是内部列表，不要直接修改，添加条件使用{@link #addExpression(Expression)}。
+     *
+     * @return 返回条件列表
+     */
+    public List<Expression> getExpressions() {
+        return expressions;
+    }
+
     @Override
     public List<ExpressionJoinFeature> getJoinExpressions() {
         return ExpressionSortUtil.sort(this.joinExpressions);
@@ -1263,5 +1462,31 @@ public class Query implements Queryable {
         return this;
     }
 
+    /**
+     * 复制查询对象，修改副本的条件、排序、分页不影响原对象<br>
+     * 条件列表、连表、排序、参数重新创建，其中的条件对象共用
+     *
+     * @return 返回与原对象类型相同的副本
+     */
+    public Query copy() {
+        Query copy;
+        try {
+            copy = (Query) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        copy.expressions = new ArrayList<>(this.expressions);
+        if (this.orderInfo != null) {
+            copy.orderInfo = new LinkedHashSet<>(this.orderInfo);
+        }
+        if (this.paramMap != null) {
+            copy.paramMap = new HashMap<>(this.paramMap);
+        }
+        if (this.joinExpressions != null) {
+            copy.joinExpressions = new ArrayList<>(this.joinExpressions);
+        }
+        return copy;
+    }
+
 
 }
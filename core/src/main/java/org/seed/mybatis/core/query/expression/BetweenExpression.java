@@ -80,6 +80,11 @@ public class BetweenExpression implements ExpressionBetweenFeature {
         this.endValue = Objects.requireNonNull(endValue);
     }
 
+    @Override
+    public String getJoint() {
+        return joint;
+    }
+
     @Override
     public String getColumn() {
         return column;
@@ -32,7 +32,7 @@ public interface Expression {
     ExpressionType expressionType();
 
     /**
-     * 类型，0：单值查询，1：in查询，2：between，3：自定义sql
+     * 类型，0：单值查询，1：in查询，2：between，3：自定义sql，4：带参数的自定义sql
      *
      * @return 返回查询类型
      */
@@ -1,10 +1,21 @@
 package org.seed.mybatis.core.query.expression;
 
+import org.seed.mybatis.core.SqlConsts;
+
 /**
  *
  */
 public interface ExpressionBetweenFeature extends Expression {
 
+    /**
+     * 返回连接符
+     *
+     * @return 返回连接符，默认AND
+     */
+    default String getJoint() {
+        return SqlConsts.AND;
+    }
+
     /**
      * 返回数据库字段名
      *
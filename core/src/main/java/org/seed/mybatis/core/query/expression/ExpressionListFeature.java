@@ -32,4 +32,13 @@ public interface ExpressionListFeature extends Expression {
      */
     Collection<?> getValue();
 
+    /**
+     * 是否将值整体作为一个数组参数绑定，数据库不支持时仍按每个值一个参数展开
+     *
+     * @return 返回true：数组绑定
+     */
+    default boolean isArrayBind() {
+        return false;
+    }
+
 }
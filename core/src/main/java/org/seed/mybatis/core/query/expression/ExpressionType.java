@@ -7,8 +7,11 @@ public enum ExpressionType {
     IN(1),
     BETWEEN(2),
     SQL(3),
+    SQL_ARGS(4),
     ;
 
+    private static final ExpressionType[] VALUES = values();
+
     private final int type;
 
     ExpressionType(int type) {
@@ -18,4 +21,19 @@ public enum ExpressionType {
     public int getType() {
         return type;
     }
+
+    /**
+     * 根据类型值返回枚举
+     *
+     * @param type 类型值
+     * @return 返回枚举，没有对应的返回null
+     */
+    public static ExpressionType of(int type) {
+        for (ExpressionType expressionType : VALUES) {
+            if (expressionType.type == type) {
+                return expressionType;
+            }
+        }
+        return null;
+    }
 }
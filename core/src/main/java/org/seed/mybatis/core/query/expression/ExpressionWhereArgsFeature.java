@@ -0,0 +1,40 @@
+package org.seed.mybatis.core.query.expression;
+
+
+import java.util.List;
+
+/**
+ * 带参数的自定义sql，参数使用预编译绑定
+ */
+public interface ExpressionWhereArgsFeature extends Expression {
+    /**
+     * 返回连接符
+     *
+     * @return 返回连接符
+     */
+    String getJoint();
+
+    /**
+     * 返回按占位符拆分后的sql片段，个数比参数多1个
+     *
+     * @return 返回sql片段
+     */
+    List<String> getSegments();
+
+    /**
+     * 返回参数
+     *
+     * @return 返回参数
+     */
+    List<Object> getArgs();
+
+    /**
+     * 返回最后一个sql片段
+     *
+     * @return 返回最后一个sql片段
+     */
+    default String getLastSegment() {
+        List<String> segments = getSegments();
+        return segments.get(segments.size() - 1);
+    }
+}
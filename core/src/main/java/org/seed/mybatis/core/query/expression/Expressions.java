@@ -6,6 +6,7 @@ import org.seed.mybatis.core.query.Operator;
 import org.seed.mybatis.core.query.expression.builder.factory.*;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * 表达式工厂类
@@ -84,6 +85,18 @@ public class Expressions {
         return LIST_EXPRESSION_FACTORY.buildExpression(JOINT, columnName, Operator.notIn, value);
     }
 
+    public static Expression inArray(String columnName, Collection<?> value) {
+        ListExpression expression = (ListExpression) LIST_EXPRESSION_FACTORY.buildExpression(JOINT, columnName, Operator.in, value);
+        expression.setArrayBind(true);
+        return expression;
+    }
+
+    public static Expression notInArray(String columnName, Collection<?> value) {
+        ListExpression expression = (ListExpression) LIST_EXPRESSION_FACTORY.buildExpression(JOINT, columnName, Operator.notIn, value);
+        expression.setArrayBind(true);
+        return expression;
+    }
+
     public static Expression between(String columnName, Object value) {
         return BETWEEN_EXPRESSION_FACTORY.buildExpression(null, columnName, null, value);
     }
@@ -95,4 +108,8 @@ public class Expressions {
     public static Expression sql(String sql) {
         return new WhereExpression(sql);
     }
+
+    public static Expression sql(List<String> segments, List<Object> args) {
+        return new WhereArgsExpression(segments, args);
+    }
 }
@@ -18,6 +18,7 @@ public class ListExpression implements ExpressionListFeature {
     private Collection<?> value = Collections.emptyList();
     private String joint = SqlConsts.AND;
     private int index = DEFAULT_INDEX;
+    private boolean arrayBind;
 
     public ListExpression(String joint, String column, String equal, Collection<?> value) {
         if (value == null || value.isEmpty()) {
@@ -92,6 +93,15 @@ public class ListExpression implements ExpressionListFeature {
         this.joint = joint;
     }
 
+    @Override
+    public boolean isArrayBind() {
+        return arrayBind;
+    }
+
+    public void setArrayBind(boolean arrayBind) {
+        this.arrayBind = arrayBind;
+    }
+
     @Override
     public void setIndex(int index) {
         this.index = index;
@@ -0,0 +1,75 @@
+package org.seed.mybatis.core.query.expression;
+
+
+import org.seed.mybatis.core.SqlConsts;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 带参数的自定义SQL语句，如：<code>username = ? and add_time &gt; ?</code><br>
+ * 占位符处的参数生成#{}预编译绑定，SQL文本不随参数值变化
+ */
+public class WhereArgsExpression implements ExpressionWhereArgsFeature {
+
+    private String joint = SqlConsts.AND;
+    private final List<String> segments;
+    private final List<Object> args;
+    private int index = DEFAULT_INDEX;
+
+    /**
+     * @param segments 按占位符拆分后的sql片段，个数比参数多1个
+     * @param args     参数
+     */
+    public WhereArgsExpression(List<String> segments, List<Object> args) {
+        if (segments == null || args == null || segments.size() != args.size() + 1) {
+            throw new IllegalArgumentException("WhereArgsExpression构造方法参数segments个数必须比args多1个");
+        }
+        this.segments = Collections.unmodifiableList(segments);
+        this.args = Collections.unmodifiableList(args);
+    }
+
+    public WhereArgsExpression(String joint, List<String> segments, List<Object> args) {
+        this(segments, args);
+        this.joint = joint;
+    }
+
+    @Override
+    public List<String> getSegments() {
+        return segments;
+    }
+
+    @Override
+    public List<Object> getArgs() {
+        return args;
+    }
+
+    @Override
+    public String getJoint() {
+        return joint;
+    }
+
+    public void setJoint(String joint) {
+        this.joint = joint;
+    }
+
+    @Override
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    @Override
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public ExpressionType expressionType() {
+        return ExpressionType.SQL_ARGS;
+    }
+
+    @Override
+    public String toString() {
+        return String.join("?", segments) + " " + args;
+    }
+}
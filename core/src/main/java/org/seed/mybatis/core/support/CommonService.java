@@ -2,12 +2,17 @@ package org.seed.mybatis.core.support;
 
 
 
+import org.apache.ibatis.cursor.Cursor;
+import org.seed.mybatis.core.ChunkOption;
+import org.seed.mybatis.core.CursorPage;
 import org.seed.mybatis.core.SeedMybatisContext;
 import org.seed.mybatis.core.PageInfo;
 import org.seed.mybatis.core.ext.MapperRunner;
 import org.seed.mybatis.core.mapper.CrudMapper;
 import org.seed.mybatis.core.query.Query;
 import org.seed.mybatis.core.util.ClassUtil;
+import org.seed.mybatis.core.util.EntityCache;
+import org.seed.mybatis.core.util.MapperUtil;
 
 import java.util.*;
 import java.util.function.Consumer;
@@ -40,7 +45,7 @@ public interface CommonService<E, I, Mapper extends CrudMapper<E, I>> {
     }
 
     default MapperRunner<Mapper> getMapperRunner() {
-        Class<E> entityClass = (Class<E>) ClassUtil.getSuperInterfaceGenericType(getClass(), 0);
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
         return SeedMybatisContext.getCrudMapperRunner(entityClass);
     }
 
@@ -65,6 +70,17 @@ public interface CommonService<E, I, Mapper extends CrudMapper<E, I>> {
         return getMapperRunner().run(mapper -> mapper.saveOrUpdate(entity));
     }
 
+    /**
+     * 批量保存或修改，保存全部字段，当数据库存在记录执行UPDATE，否则执行INSERT
+     *
+     * @param entities 实体类集合
+     * @return 受影响行数
+     * @see CrudMapper#saveOrUpdateBatch(Collection)
+     */
+    default int saveOrUpdateBatch(Collection<E> entities) {
+        return getMapperRunner().run(mapper -> mapper.saveOrUpdateBatch(entities));
+    }
+
     /**
      * 删除记录（底层根据id删除），在有逻辑删除字段的情况下，做UPDATE操作。
      *
@@ -168,6 +184,36 @@ public interface CommonService<E, I, Mapper extends CrudMapper<E, I>> {
         return getMapperRunner().run(mapper -> mapper.forceDeleteByQuery(query));
     }
 
+    /**
+     * 根据条件分批删除，在有逻辑删除字段的情况下，做UPDATE操作<br>
+     * 每批按主键IN条件执行一次deleteByQuery并提交，批次之间按option暂停或限速
+     *
+     * @param query  查询对象
+     * @param option 分批参数
+     * @return 受影响行数
+     * @see MapperUtil#executeByQueryInChunks(Class, Query, boolean, ChunkOption, java.util.function.ToIntBiFunction)
+     */
+    default int deleteByQueryInChunks(Query query, ChunkOption option) {
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+        return MapperUtil.executeByQueryInChunks(entityClass, query, false, option,
+                (mapper, chunkQuery) -> mapper.deleteByQuery(chunkQuery));
+    }
+
+    /**
+     * 根据条件分批强制删除，忽略逻辑删除字段，执行DELETE语句，如清理已逻辑删除的数据<br>
+     * 每批按主键IN条件执行一次forceDeleteByQuery并提交，批次之间按option暂停或限速
+     *
+     * @param query  查询对象
+     * @param option 分批参数
+     * @return 受影响行数
+     * @see MapperUtil#executeByQueryInChunks(Class, Query, boolean, ChunkOption, java.util.function.ToIntBiFunction)
+     */
+    default int forceDeleteByQueryInChunks(Query query, ChunkOption option) {
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+        return MapperUtil.executeByQueryInChunks(entityClass, query, true, option,
+                (mapper, chunkQuery) -> mapper.forceDeleteByQuery(chunkQuery));
+    }
+
     /**
      * 保存，保存所有字段
      *
@@ -203,6 +249,36 @@ public interface CommonService<E, I, Mapper extends CrudMapper<E, I>> {
         return getMapperRunner().run(mapper -> mapper.saveBatch(entities));
     }
 
+    /**
+     * 分批保存，每chunkSize条执行一次批量保存
+     *
+     * @param entities  实体类集合
+     * @param chunkSize 每批条数
+     * @return 受影响行数
+     * @see org.seed.mybatis.core.mapper.SaveMapper#saveBatch(Collection, int)
+     */
+    default int saveBatch(Collection<E> entities, int chunkSize) {
+        return getMapperRunner().run(mapper -> mapper.saveBatch(entities, chunkSize));
+    }
+
+    /**
+     * 使用JDBC批处理保存，逐条执行save，每flushSize条发送一次<br>
+     * 新开一个{@link org.apache.ibatis.session.ExecutorType#BATCH}的session执行，单条INSERT语句固定不变，
+     * 适合数据量很大、多行INSERT过长的场景
+     *
+     * @param entities  实体类集合
+     * @param flushSize 每批条数
+     * @return 受影响行数
+     * @see MapperUtil#executeBatch(Class, Collection, int, java.util.function.BiConsumer)
+     */
+    default int saveBatchByExecutor(Collection<E> entities, int flushSize) {
+        if (entities == null || entities.isEmpty()) {
+            throw new IllegalArgumentException("parameter 'entities' can not empty");
+        }
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+        return MapperUtil.executeBatch(entityClass, entities, flushSize, (mapper, entity) -> mapper.save(entity));
+    }
+
     /**
      * 批量保存,兼容更多的数据库版本,忽略重复行.<br>
      * 此方式采用union的方式批量insert.
@@ -251,12 +327,15 @@ public interface CommonService<E, I, Mapper extends CrudMapper<E, I>> {
      * WHERE id = 3
      * </pre>
      *
+     * 实体类有{@link org.seed.mybatis.core.annotation.Cached}注解时先查缓存
+     *
      * @param id 主键值
      * @return 返回实体对象，没有返回null
      */
     default E getById(I id) {
         Objects.requireNonNull(id);
-        return getMapperRunner().run(mapper -> mapper.getById(id));
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+        return EntityCache.getById(entityClass, id, key -> getMapperRunner().run(mapper -> mapper.getById(id)));
     }
 
     /**
@@ -449,18 +528,56 @@ public interface CommonService<E, I, Mapper extends CrudMapper<E, I>> {
         return getMapperRunner().run(mapper -> mapper.list(query));
     }
 
+    /**
+     * 游标查询结果集，逐条读取，内存占用与记录数无关，适用于大批量导出<br>
+     * 游标持有独立的session，关闭游标时关闭session，不需要在事务中调用
+     * <pre>
+     * {@literal
+     * try (Cursor<TUser> cursor = service.cursor(query)) {
+     *     for (TUser user : cursor) {
+     *         ...
+     *     }
+     * }
+     * }
+     * </pre>
+     *
+     * @param query 查询条件
+     * @return 返回游标，使用完毕需要关闭
+     */
+    default Cursor<E> cursor(Query query) {
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+        return MapperUtil.cursor(entityClass, query);
+    }
+
+    /**
+     * 游标查询结果集，逐条交给consumer处理，处理完毕关闭游标和session
+     *
+     * @param query    查询条件
+     * @param consumer 处理每一条记录
+     * @see #cursor(Query)
+     */
+    default void stream(Query query, Consumer<E> consumer) {
+        MapperUtil.stream(cursor(query), consumer);
+    }
+
     /**
      * 根据多个主键查询<br>
      *
      * <code>
      * SELECT col1, col2, ... FROM table WHERE id in (val1, val2, ...)
      * </code>
+     * 实体类有{@link org.seed.mybatis.core.annotation.Cached}注解时先查缓存，只查询缓存中没有的主键
      *
      * @param ids id集合
      * @return 返回结果集，没有返回空list
      */
     default List<E> listByIds(Collection<I> ids) {
-        return getMapperRunner().run(mapper -> mapper.listByIds(ids));
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("parameter 'ids' can not empty");
+        }
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+        return EntityCache.listByIds(entityClass, ids,
+                missingIds -> getMapperRunner().run(mapper -> mapper.listByIds(missingIds)));
     }
 
     /**
@@ -612,6 +729,18 @@ public interface CommonService<E, I, Mapper extends CrudMapper<E, I>> {
         return getMapperRunner().run(mapper -> mapper.page(query));
     }
 
+    /**
+     * 游标分页查询，不使用OFFSET，不查询总记录数，适合大表深度翻页
+     *
+     * @param query  查询条件，需要设置每页条数，排序字段必须是实体类字段且值不能为null
+     * @param cursor 上一页返回的游标，查询第一页传null
+     * @return 返回游标分页结果
+     * @see org.seed.mybatis.core.mapper.QueryMapper#pageAfter(Query, String)
+     */
+    default CursorPage<E> pageAfter(Query query, String cursor) {
+        return getMapperRunner().run(mapper -> mapper.pageAfter(query, cursor));
+    }
+
     /**
      * 查询结果集，并转换结果集中的记录<br>
      * <code>
@@ -750,6 +879,58 @@ public interface CommonService<E, I, Mapper extends CrudMapper<E, I>> {
         return getMapperRunner().run(mapper -> mapper.updateIgnoreNull(entity));
     }
 
+    /**
+     * 只更新修改过的字段，需要开启dirtyTracking
+     *
+     * @param entity 实体类
+     * @return 受影响行数
+     * @see CrudMapper#updateChanged(Object)
+     */
+    default int updateChanged(E entity) {
+        Objects.requireNonNull(entity);
+        return getMapperRunner().run(mapper -> mapper.updateChanged(entity));
+    }
+
+    /**
+     * 根据主键分批更新，更新所有字段<br>
+     * 有updateBatch语句（MySQL、PostgreSQL、SQLite）时每chunkSize条执行一条CASE WHEN批量更新，
+     * 否则使用JDBC批处理逐条执行update，每chunkSize条发送一次
+     *
+     * @param entities  实体类集合
+     * @param chunkSize 每批条数
+     * @return 受影响行数
+     * @see CrudMapper#updateBatch(Collection)
+     */
+    default int updateBatch(Collection<E> entities, int chunkSize) {
+        if (entities == null || entities.isEmpty()) {
+            throw new IllegalArgumentException("parameter 'entities' can not empty");
+        }
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+        if (MapperUtil.hasStatement(entityClass, "updateBatch")) {
+            return getMapperRunner().run(mapper -> mapper.updateBatch(entities, chunkSize));
+        }
+        return MapperUtil.executeBatch(entityClass, entities, chunkSize, (mapper, entity) -> mapper.update(entity));
+    }
+
+    /**
+     * 根据主键分批更新，忽略null字段
+     *
+     * @param entities  实体类集合
+     * @param chunkSize 每批条数
+     * @return 受影响行数
+     * @see #updateBatch(Collection, int)
+     */
+    default int updateBatchIgnoreNull(Collection<E> entities, int chunkSize) {
+        if (entities == null || entities.isEmpty()) {
+            throw new IllegalArgumentException("parameter 'entities' can not empty");
+        }
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+        if (MapperUtil.hasStatement(entityClass, "updateBatchIgnoreNull")) {
+            return getMapperRunner().run(mapper -> mapper.updateBatchIgnoreNull(entities, chunkSize));
+        }
+        return MapperUtil.executeBatch(entityClass, entities, chunkSize, (mapper, entity) -> mapper.updateIgnoreNull(entity));
+    }
+
     /**
      * 根据条件更新<br>
      * <pre>
@@ -771,6 +952,23 @@ public interface CommonService<E, I, Mapper extends CrudMapper<E, I>> {
         return getMapperRunner().run(mapper -> mapper.updateByQuery(entity, query));
     }
 
+    /**
+     * 根据条件分批更新<br>
+     * 每批按主键IN条件执行一次updateByQuery并提交，批次之间按option暂停或限速
+     *
+     * @param entity 待更新的数据
+     * @param query  更新条件
+     * @param option 分批参数
+     * @return 受影响行数
+     * @see MapperUtil#executeByQueryInChunks(Class, Query, boolean, ChunkOption, java.util.function.ToIntBiFunction)
+     */
+    default int updateByQueryInChunks(E entity, Query query, ChunkOption option) {
+        Objects.requireNonNull(entity);
+        Class<E> entityClass = ClassUtil.getSuperInterfaceGenericClass(getClass(), 0);
+        return MapperUtil.executeByQueryInChunks(entityClass, query, query.getForceQuery(), option,
+                (mapper, chunkQuery) -> mapper.updateByQuery(entity, chunkQuery));
+    }
+
     /**
      * 根据条件更新，map中的数据转化成update语句set部分，key为数据库字段名<br>
      * <pre>
@@ -0,0 +1,197 @@
+package org.seed.mybatis.core.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 有界并发缓存<br>
+ * 读操作无锁，写入新key时超过容量按写入顺序淘汰最早的条目，并记录命中、未命中、淘汰次数。
+ *
+ * @param <K> key类型
+ * @param <V> value类型
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+
+    private final Map<K, V> store;
+
+    private final Queue<K> order = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger orderSize = new AtomicInteger();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param maxSize 最大条目数，必须大于0
+     */
+    public BoundedCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize必须大于0");
+        }
+        this.maxSize = maxSize;
+        this.store = new ConcurrentHashMap<>(Math.min(maxSize, 256));
+    }
+
+    /**
+     * 获取缓存值，同时记录命中/未命中
+     *
+     * @param key key
+     * @return 返回缓存值，没有返回null
+     */
+    public V get(K key) {
+        V value = store.get(key);
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 获取缓存值，不存在则通过loader加载并放入缓存<br>
+     * loader在锁外执行，并发情况下同一个key可能被加载多次，以先放入的值为准
+     *
+     * @param key    key
+     * @param loader 加载器，返回null不缓存
+     * @return 返回缓存值
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = store.get(key);
+        if (value != null) {
+            hitCount.increment();
+            return value;
+        }
+        missCount.increment();
+        V loaded = loader.apply(key);
+        if (loaded == null) {
+            return null;
+        }
+        V prev = store.putIfAbsent(key, loaded);
+        if (prev != null) {
+            return prev;
+        }
+        afterInsert(key);
+        return loaded;
+    }
+
+    /**
+     * 放入缓存
+     *
+     * @param key   key
+     * @param value value，不能为null
+     */
+    public void put(K key, V value) {
+        if (store.put(key, value) == null) {
+            afterInsert(key);
+        }
+    }
+
+    /**
+     * 移除缓存
+     *
+     * @param key key
+     * @return 返回被移除的值
+     */
+    public V remove(K key) {
+        return store.remove(key);
+    }
+
+    /**
+     * 清空缓存，统计数据保留
+     */
+    public void clear() {
+        store.clear();
+        order.clear();
+        orderSize.set(0);
+    }
+
+    private void afterInsert(K key) {
+        order.offer(key);
+        if (orderSize.incrementAndGet() - maxSize > maxSize) {
+            this.compactOrder();
+        }
+        while (store.size() > maxSize) {
+            K eldest = order.poll();
+            if (eldest == null) {
+                break;
+            }
+            orderSize.decrementAndGet();
+            if (store.remove(eldest) != null) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * 被remove的key仍留在写入队列中，队列过长时清理，避免频繁remove、put时队列无限增长<br>
+     * 去掉已不在缓存中的key，同一个key出现多次时保留最后一次写入
+     */
+    private synchronized void compactOrder() {
+        if (orderSize.get() - maxSize <= maxSize) {
+            return;
+        }
+        Map<K, Integer> counts = new HashMap<>(16);
+        for (K key : order) {
+            counts.merge(key, 1, Integer::sum);
+        }
+        order.removeIf(key -> {
+            boolean remove = !store.containsKey(key) || counts.merge(key, -1, Integer::sum) > 0;
+            if (remove) {
+                orderSize.decrementAndGet();
+            }
+            return remove;
+        });
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 命中率
+     *
+     * @return 返回0~1之间的命中率，没有请求返回0
+     */
+    public double getHitRate() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total == 0 ? 0D : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedCache{" +
+                "size=" + size() +
+                ", maxSize=" + maxSize +
+                ", hitCount=" + getHitCount() +
+                ", missCount=" + getMissCount() +
+                ", evictionCount=" + getEvictionCount() +
+                '}';
+    }
+}
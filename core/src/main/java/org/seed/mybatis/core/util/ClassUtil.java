@@ -4,6 +4,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.Map;
@@ -56,6 +57,19 @@ public class ClassUtil {
         return (Class<?>) params[index];
     }
 
+    /**
+     * 同{@link #getSuperInterfaceGenericType(Class, int)}，返回指定泛型的Class，用于在接口默认方法中获取实体类
+     *
+     * @param clazz 类或mapper代理类
+     * @param index 泛型参数位置，从0开始
+     * @param <T>   泛型类型
+     * @return 返回泛型参数的Class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Class<T> getSuperInterfaceGenericClass(Class<?> clazz, int index) {
+        return (Class<T>) getSuperInterfaceGenericType(clazz, index);
+    }
+
     /**
      * 返回接口类的泛型参数的类型
      *
@@ -70,8 +84,8 @@ public class ClassUtil {
 
     private static Class<?> doGetSuperInterfaceGenericType(Class<?> clazz, int index) {
         String name = clazz.getName();
-        // 如果是mapper代理类
-        if (name.startsWith(PROXY_PREFIX)) {
+        // 如果是mapper代理类，JDK9+代理类包名为jdk.proxyN
+        if (name.startsWith(PROXY_PREFIX) || Proxy.isProxyClass(clazz)) {
             Type[] interfacesTypes = clazz.getGenericInterfaces();
             if (interfacesTypes.length == 0) {
                 return Object.class;
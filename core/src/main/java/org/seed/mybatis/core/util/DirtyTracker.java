@@ -0,0 +1,254 @@
+package org.seed.mybatis.core.util;
+
+import org.seed.mybatis.core.SeedMybatisContext;
+import org.seed.mybatis.core.ext.code.util.FieldUtil;
+import org.seed.mybatis.core.ext.code.util.ReflectUtil;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体类字段快照<br>
+ * 查询出来的实体类按对象记录每个字段值，更新时用equals与当前值比较得出修改过的字段。
+ * 不可变类型（字符串、数值、枚举、java.time等）直接记录原值，Date、byte[]记录副本，
+ * 其它类型可能被原地修改，无法判断，总是视为修改过。
+ * 快照弱引用实体类对象，实体类被回收后快照随之清除。
+ * 按实体类开启，多个SqlSessionFactory时各自按配置设置自己的实体类，互不影响。
+ */
+public final class DirtyTracker {
+
+    private static final Field[] NO_FIELDS = new Field[0];
+
+    /**
+     * 无法记录的字段值，总是视为修改过
+     */
+    private static final Object UNKNOWN = new Object();
+
+    /**
+     * key：实体类，value：参与快照的字段，不是实体类为空数组
+     */
+    private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>(16);
+
+    private static final Map<IdentityKey, Object[]> SNAPSHOTS = new ConcurrentHashMap<>(256);
+
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+
+    /**
+     * 开启了快照的实体类
+     */
+    private static final Set<Class<?>> ENABLED = ConcurrentHashMap.newKeySet();
+
+    private DirtyTracker() {
+    }
+
+    /**
+     * 设置实体类是否记录快照，关闭时清除该实体类的快照
+     *
+     * @param entityClass 实体类
+     * @param enabled     true：开启
+     */
+    public static void setEnabled(Class<?> entityClass, boolean enabled) {
+        if (enabled) {
+            ENABLED.add(entityClass);
+            return;
+        }
+        if (ENABLED.remove(entityClass)) {
+            SNAPSHOTS.keySet().removeIf(key -> {
+                Object entity = key.get();
+                return entity == null || entity.getClass() == entityClass;
+            });
+        }
+    }
+
+    /**
+     * 是否有实体类开启了快照
+     *
+     * @return true：有
+     */
+    public static boolean isEnabled() {
+        return !ENABLED.isEmpty();
+    }
+
+    /**
+     * 实体类是否开启了快照
+     *
+     * @param entityClass 实体类
+     * @return true：开启
+     */
+    public static boolean isEnabled(Class<?> entityClass) {
+        return ENABLED.contains(entityClass);
+    }
+
+    /**
+     * 记录实体类快照，不是实体类或未开启时忽略
+     *
+     * @param entity 实体类对象
+     */
+    public static void snapshot(Object entity) {
+        if (entity == null || !ENABLED.contains(entity.getClass())) {
+            return;
+        }
+        Field[] fields = getFields(entity.getClass());
+        if (fields.length == 0) {
+            return;
+        }
+        expunge();
+        SNAPSHOTS.put(new IdentityKey(entity, QUEUE), values(entity, fields));
+    }
+
+    /**
+     * 返回与快照相比修改过的字段
+     *
+     * @param entity 实体类对象
+     * @return 返回修改过的JAVA字段名，没有快照返回null
+     */
+    public static Set<String> getChangedFields(Object entity) {
+        if (entity == null) {
+            return null;
+        }
+        Object[] snapshot = SNAPSHOTS.get(new IdentityKey(entity, null));
+        if (snapshot == null) {
+            return null;
+        }
+        Field[] fields = getFields(entity.getClass());
+        Set<String> changed = new LinkedHashSet<>();
+        for (int i = 0; i < fields.length; i++) {
+            if (isChanged(snapshot[i], getValue(entity, fields[i]))) {
+                changed.add(fields[i].getName());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 删除快照
+     *
+     * @param entity 实体类对象
+     */
+    public static void remove(Object entity) {
+        if (entity != null) {
+            SNAPSHOTS.remove(new IdentityKey(entity, null));
+        }
+    }
+
+    private static Field[] getFields(Class<?> entityClass) {
+        return FIELDS.computeIfAbsent(entityClass, clazz -> {
+            if (SeedMybatisContext.getEntityInfo(clazz) == null) {
+                return NO_FIELDS;
+            }
+            List<Field> fields = new ArrayList<>();
+            for (Field field : ReflectUtil.getDeclaredFields(clazz)) {
+                if (!FieldUtil.isTransientField(field)) {
+                    ClassUtil.makeAccessible(field);
+                    fields.add(field);
+                }
+            }
+            return fields.toArray(NO_FIELDS);
+        });
+    }
+
+    private static Object[] values(Object entity, Field[] fields) {
+        Object[] values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = snapshotValue(getValue(entity, fields[i]));
+        }
+        return values;
+    }
+
+    private static Object getValue(Object entity, Field field) {
+        try {
+            return field.get(entity);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("获取字段值失败：" + field, e);
+        }
+    }
+
+    /**
+     * 快照值：不可变类型记录原值，可变的Date、byte[]记录副本，其它类型返回UNKNOWN
+     */
+    private static Object snapshotValue(Object value) {
+        if (value == null || isImmutable(value)) {
+            return value;
+        }
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean isImmutable(Object value) {
+        String className = value.getClass().getName();
+        if (value instanceof Number) {
+            // 包装类、BigDecimal、BigInteger不可变，Atomic*、*Adder可变
+            return className.startsWith("java.") && !className.startsWith("java.util.concurrent.");
+        }
+        return value instanceof String
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Enum
+                || value instanceof UUID
+                || className.startsWith("java.time.");
+    }
+
+    private static boolean isChanged(Object snapshot, Object value) {
+        if (snapshot == UNKNOWN) {
+            return true;
+        }
+        if (snapshot instanceof byte[] && value instanceof byte[]) {
+            return !Arrays.equals((byte[]) snapshot, (byte[]) value);
+        }
+        return !Objects.equals(snapshot, value);
+    }
+
+    private static void expunge() {
+        Reference<?> reference;
+        while ((reference = QUEUE.poll()) != null) {
+            SNAPSHOTS.remove(reference);
+        }
+    }
+
+    /**
+     * 按对象地址比较的弱引用key
+     */
+    private static final class IdentityKey extends WeakReference<Object> {
+
+        private final int hash;
+
+        IdentityKey(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof IdentityKey)) {
+                return false;
+            }
+            Object referent = this.get();
+            return referent != null && referent == ((IdentityKey) obj).get();
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package org.seed.mybatis.core.util;
+
+import org.seed.mybatis.core.SeedMybatisContext;
+import org.seed.mybatis.core.SqlConsts;
+import org.seed.mybatis.core.annotation.Cached;
+import org.seed.mybatis.core.annotation.Column;
+import org.seed.mybatis.core.annotation.LazyFetch;
+import org.seed.mybatis.core.ext.ExtContext;
+import org.seed.mybatis.core.ext.code.util.FieldUtil;
+import org.seed.mybatis.core.ext.code.util.ReflectUtil;
+import org.seed.mybatis.core.ext.info.EntityInfo;
+import org.seed.mybatis.core.query.Query;
+import org.seed.mybatis.core.query.expression.Expression;
+import org.seed.mybatis.core.query.expression.ExpressionBetweenFeature;
+import org.seed.mybatis.core.query.expression.ExpressionListFeature;
+import org.seed.mybatis.core.query.expression.ExpressionValueFeature;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * 实体类主键缓存<br>
+ * 实体类加了{@link Cached}注解时生效，每个实体类一个{@link LruCache}，超过容量淘汰最久未使用的条目。
+ * key为主键值，设置了路由标识获取方式（分库分表）时key为路由标识和主键值，不同库表的同一主键互不影响，
+ * 见{@link SeedMybatisContext#getRoutingKey()}。
+ * 缓存保存的是实体类的浅拷贝，读取时再拷贝一份返回，调用方修改返回的对象不影响缓存；懒加载字段不缓存。
+ * 写操作后按主键清除，清除时版本号加1，查询期间发生清除则查询结果不放入缓存。
+ */
+public final class EntityCache {
+
+    private static final Field[] NO_FIELDS = new Field[0];
+
+    /**
+     * 字段名两边的引号，如：`id`、"id"、[id]
+     */
+    private static final Pattern QUOTE_PATTERN = Pattern.compile("[`\"\\[\\]]");
+
+    /**
+     * key：实体类
+     */
+    private static final Map<Class<?>, Region> REGIONS = new ConcurrentHashMap<>(16);
+
+    /**
+     * key：mapper命名空间，即mapper接口全名
+     */
+    private static final Map<String, Region> NAMESPACE_REGIONS = new ConcurrentHashMap<>(16);
+
+    private EntityCache() {
+    }
+
+    /**
+     * mapper对应的实体类有{@link Cached}注解时创建缓存
+     *
+     * @param mapperClass mapper接口
+     */
+    public static void register(Class<?> mapperClass) {
+        Class<?> entityClass = ExtContext.getEntityClass(mapperClass);
+        Cached cached = entityClass == null ? null : entityClass.getAnnotation(Cached.class);
+        if (cached == null || cached.seconds() <= 0) {
+            return;
+        }
+        EntityInfo entityInfo = SeedMybatisContext.getEntityInfo(entityClass);
+        if (entityInfo == null || entityInfo.getKeyJavaField() == null) {
+            throw new IllegalStateException("找不到实体类主键信息，不能使用@Cached：" + entityClass.getName());
+        }
+        Region region = new Region(entityClass, entityInfo, cached);
+        REGIONS.put(entityClass, region);
+        NAMESPACE_REGIONS.put(mapperClass.getName(), region);
+    }
+
+    /**
+     * 是否有实体类开启了缓存
+     *
+     * @return true：有
+     */
+    public static boolean isEnabled() {
+        return !REGIONS.isEmpty();
+    }
+
+    /**
+     * 返回实体类的缓存，没有开启返回null
+     *
+     * @param entityClass 实体类
+     * @return 返回缓存，可查看命中、未命中、淘汰次数
+     */
+    public static LruCache<Object, ?> getCache(Class<?> entityClass) {
+        Region region = REGIONS.get(entityClass);
+        return region == null ? null : region.cache;
+    }
+
+    /**
+     * 根据主键查询，先查缓存，没有再通过loader查询并放入缓存
+     *
+     * @param entityClass 实体类
+     * @param id          主键值
+     * @param loader      查询数据库
+     * @param <E>         实体类
+     * @return 返回实体对象，没有返回null
+     */
+    public static <E> E getById(Class<E> entityClass, Object id, Function<Object, E> loader) {
+        Region region = REGIONS.get(entityClass);
+        if (region == null) {
+            return loader.apply(id);
+        }
+        Object key = cacheKey(SeedMybatisContext.getRoutingKey(), id);
+        E entity = region.get(key);
+        if (entity != null) {
+            return entity;
+        }
+        long version = region.version.get();
+        entity = loader.apply(id);
+        if (entity != null) {
+            region.put(key, entity, version);
+        }
+        return entity;
+    }
+
+    /**
+     * 根据多个主键查询，缓存中没有的主键通过loader一次查询并放入缓存
+     *
+     * @param entityClass 实体类
+     * @param ids         主键值
+     * @param loader      查询数据库，参数为缓存中没有的主键
+     * @param <E>         实体类
+     * @param <I>         主键类型
+     * @return 返回结果集，先缓存命中的，后数据库查询的
+     */
+    public static <E, I> List<E> listByIds(Class<E> entityClass, Collection<? extends I> ids, Function<List<I>, List<E>> loader) {
+        Region region = REGIONS.get(entityClass);
+        if (region == null) {
+            return loader.apply(new ArrayList<>(ids));
+        }
+        Object routingKey = SeedMybatisContext.getRoutingKey();
+        List<E> result = new ArrayList<>(ids.size());
+        List<I> missingIds = new ArrayList<>();
+        Set<Object> keys = new HashSet<>(ids.size() * 2);
+        for (I id : ids) {
+            Object key = cacheKey(routingKey, id);
+            if (!keys.add(key)) {
+                continue;
+            }
+            E entity = region.get(key);
+            if (entity == null) {
+                missingIds.add(id);
+            } else {
+                result.add(entity);
+            }
+        }
+        if (missingIds.isEmpty()) {
+            return result;
+        }
+        long version = region.version.get();
+        List<E> list = loader.apply(missingIds);
+        for (E entity : list) {
+            region.put(cacheKey(routingKey, region.getPkValue(entity)), entity, version);
+        }
+        result.addAll(list);
+        return result;
+    }
+
+    /**
+     * mapper执行写操作后调用，按参数中的主键清除缓存，无法确定主键时清除全部
+     *
+     * @param namespace     mapper命名空间
+     * @param statementName 语句id，不含命名空间
+     * @param parameter     语句参数
+     * @return 返回清除的缓存key，null表示清除了全部，没有开启缓存返回空集合
+     */
+    public static Collection<Object> invalidate(String namespace, String statementName, Object parameter) {
+        Region region = NAMESPACE_REGIONS.get(namespace);
+        if (region == null) {
+            return Collections.emptyList();
+        }
+        Collection<Object> ids = region.getKeys(statementName, parameter);
+        Collection<Object> keys = ids;
+        if (ids != null && !ids.isEmpty()) {
+            // 只清除当前库表的缓存
+            Object routingKey = SeedMybatisContext.getRoutingKey();
+            keys = new ArrayList<>(ids.size());
+            for (Object id : ids) {
+                keys.add(cacheKey(routingKey, id));
+            }
+        }
+        invalidate(namespace, keys);
+        return keys;
+    }
+
+    /**
+     * 按缓存key清除缓存
+     *
+     * @param namespace mapper命名空间
+     * @param keys      {@link #invalidate(String, String, Object)}返回的缓存key，null清除全部
+     */
+    public static void invalidate(String namespace, Collection<Object> keys) {
+        Region region = NAMESPACE_REGIONS.get(namespace);
+        if (region == null) {
+            return;
+        }
+        region.version.incrementAndGet();
+        if (keys == null) {
+            region.cache.clear();
+            return;
+        }
+        for (Object key : keys) {
+            region.cache.remove(key);
+        }
+    }
+
+    /**
+     * 缓存key，没有路由标识时为主键值，否则为路由标识和主键值
+     */
+    private static Object cacheKey(Object routingKey, Object id) {
+        Object key = normalizeKey(id);
+        return routingKey == null ? key : Arrays.asList(routingKey, key);
+    }
+
+    /**
+     * 整数类型主键统一为Long，保证getById(1)和主键为1L的实体类对应同一个key
+     */
+    private static Object normalizeKey(Object id) {
+        if (id instanceof Integer || id instanceof Short || id instanceof Byte) {
+            return ((Number) id).longValue();
+        }
+        return id;
+    }
+
+    /**
+     * 一个实体类的缓存
+     */
+    private static final class Region {
+
+        private final Class<?> entityClass;
+
+        private final String keyColumn;
+
+        private final Field keyField;
+
+        private final Field[] fields;
+
+        private final long ttlMillis;
+
+        private final LruCache<Object, Entry> cache;
+
+        private final AtomicLong version = new AtomicLong();
+
+        Region(Class<?> entityClass, EntityInfo entityInfo, Cached cached) {
+            this.entityClass = entityClass;
+            this.keyColumn = entityInfo.getKeyColumn();
+            this.keyField = ClassUtil.findField(entityClass, entityInfo.getKeyJavaField());
+            if (this.keyField == null) {
+                throw new IllegalStateException("找不到主键字段：" + entityClass.getName() + "." + entityInfo.getKeyJavaField());
+            }
+            ClassUtil.makeAccessible(this.keyField);
+            List<Field> fields = new ArrayList<>();
+            for (Field field : ReflectUtil.getDeclaredFields(entityClass)) {
+                if (!FieldUtil.isTransientField(field) && !isLazyFetch(field)) {
+                    ClassUtil.makeAccessible(field);
+                    fields.add(field);
+                }
+            }
+            this.fields = fields.toArray(NO_FIELDS);
+            this.ttlMillis = TimeUnit.SECONDS.toMillis(cached.seconds());
+            this.cache = new LruCache<>(cached.maxSize());
+        }
+
+        private static boolean isLazyFetch(Field field) {
+            Column column = field.getAnnotation(Column.class);
+            return field.getAnnotation(LazyFetch.class) != null || (column != null && column.lazyFetch());
+        }
+
+        @SuppressWarnings("unchecked")
+        <E> E get(Object key) {
+            Entry entry = cache.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expireAt < System.currentTimeMillis()) {
+                cache.remove(key);
+                return null;
+            }
+            E entity = (E) copy(entry.value);
+            DirtyTracker.snapshot(entity);
+            return entity;
+        }
+
+        /**
+         * 放入缓存，查询期间发生过清除则不放入
+         */
+        void put(Object key, Object entity, long loadVersion) {
+            if (key == null || version.get() != loadVersion) {
+                return;
+            }
+            cache.put(key, new Entry(copy(entity), System.currentTimeMillis() + ttlMillis));
+            // 放入期间发生清除，撤销放入
+            if (version.get() != loadVersion) {
+                cache.remove(key);
+            }
+        }
+
+        Object getPkValue(Object entity) {
+            return getValue(entity, keyField);
+        }
+
+        /**
+         * 从写操作的参数中取主键，无法确定时返回null
+         */
+        Collection<Object> getKeys(String statementName, Object parameter) {
+            if (parameter == null) {
+                return null;
+            }
+            if (entityClass.isInstance(parameter)) {
+                return keyOf(parameter);
+            }
+            if (parameter instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) parameter;
+                // 有条件时以条件为准，如updateByQuery的entity没有主键
+                if (map.containsKey("query")) {
+                    Object query = map.get("query");
+                    return query instanceof Query ? getKeys((Query) query) : null;
+                }
+                if (map.containsKey("entity") && entityClass.isInstance(map.get("entity"))) {
+                    return keyOf(map.get("entity"));
+                }
+                if (map.containsKey("entities") && map.get("entities") instanceof Collection) {
+                    List<Object> keys = new ArrayList<>();
+                    for (Object entity : (Collection<?>) map.get("entities")) {
+                        keys.addAll(keyOf(entity));
+                    }
+                    return keys;
+                }
+                return null;
+            }
+            // deleteById、forceDeleteById的参数为主键值
+            if (statementName.endsWith("ById")) {
+                return Collections.singletonList(normalizeKey(parameter));
+            }
+            return null;
+        }
+
+        /**
+         * 条件全部用AND连接且含有主键等于或IN条件时返回这些主键，否则返回null
+         */
+        private Collection<Object> getKeys(Query query) {
+            Collection<Object> keys = null;
+            for (Expression expression : query.getExpressions()) {
+                if (expression instanceof ExpressionValueFeature) {
+                    ExpressionValueFeature valueExpression = (ExpressionValueFeature) expression;
+                    if (!SqlConsts.AND.equalsIgnoreCase(valueExpression.getJoint())) {
+                        return null;
+                    }
+                    if (keys == null && SqlConsts.EQUAL.equals(valueExpression.getEqual())
+                            && isKeyColumn(valueExpression.getColumn())) {
+                        keys = Collections.singletonList(normalizeKey(valueExpression.getValue()));
+                    }
+                } else if (expression instanceof ExpressionListFeature) {
+                    ExpressionListFeature listExpression = (ExpressionListFeature) expression;
+                    if (!SqlConsts.AND.equalsIgnoreCase(listExpression.getJoint())) {
+                        return null;
+                    }
+                    if (keys == null && SqlConsts.IN.equalsIgnoreCase(listExpression.getEqual())
+                            && isKeyColumn(listExpression.getColumn()) && listExpression.getValue() != null) {
+                        keys = new ArrayList<>(listExpression.getValue().size());
+                        for (Object value : listExpression.getValue()) {
+                            keys.add(normalizeKey(value));
+                        }
+                    }
+                } else if (expression instanceof ExpressionBetweenFeature) {
+                    if (!SqlConsts.AND.equalsIgnoreCase(((ExpressionBetweenFeature) expression).getJoint())) {
+                        return null;
+                    }
+                } else {
+                    // 自定义SQL等条件无法判断范围
+                    return null;
+                }
+            }
+            return keys;
+        }
+
+        private boolean isKeyColumn(String column) {
+            if (column == null) {
+                return false;
+            }
+            String name = column.substring(column.lastIndexOf('.') + 1);
+            return keyColumn.equalsIgnoreCase(QUOTE_PATTERN.matcher(name).replaceAll(""));
+        }
+
+        private Collection<Object> keyOf(Object entity) {
+            Object pkValue = entityClass.isInstance(entity) ? getPkValue(entity) : null;
+            return pkValue == null ? Collections.emptyList() : Collections.singletonList(normalizeKey(pkValue));
+        }
+
+        private Object copy(Object entity) {
+            Object copy = ClassUtil.newInstance(entityClass);
+            for (Field field : fields) {
+                try {
+                    field.set(copy, field.get(entity));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("复制字段值失败：" + field, e);
+                }
+            }
+            return copy;
+        }
+
+        private static Object getValue(Object entity, Field field) {
+            try {
+                return field.get(entity);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("获取字段值失败：" + field, e);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+
+        private final long expireAt;
+
+        Entry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.seed.mybatis.core.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有界LRU缓存<br>
+ * 按访问顺序淘汰最久未使用的条目，读写都加锁，并记录命中、未命中、淘汰次数。
+ * 热点数据反复读取的场景使用，如实体类主键缓存；只需按写入顺序淘汰时使用{@link BoundedCache}，读操作无锁。
+ *
+ * @param <K> key类型
+ * @param <V> value类型
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+
+    private final LinkedHashMap<K, V> store;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param maxSize 最大条目数，必须大于0
+     */
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize必须大于0");
+        }
+        this.maxSize = maxSize;
+        this.store = new LinkedHashMap<K, V>(Math.min(maxSize, 256), 0.75F, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 获取缓存值，同时记录命中/未命中，命中的条目移到最近使用
+     *
+     * @param key key
+     * @return 返回缓存值，没有返回null
+     */
+    public V get(K key) {
+        V value;
+        synchronized (store) {
+            value = store.get(key);
+        }
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 放入缓存，超过容量淘汰最久未使用的条目
+     *
+     * @param key   key
+     * @param value value，不能为null
+     */
+    public void put(K key, V value) {
+        synchronized (store) {
+            store.put(key, value);
+        }
+    }
+
+    /**
+     * 移除缓存
+     *
+     * @param key key
+     * @return 返回被移除的值
+     */
+    public V remove(K key) {
+        synchronized (store) {
+            return store.remove(key);
+        }
+    }
+
+    /**
+     * 清空缓存，统计数据保留
+     */
+    public void clear() {
+        synchronized (store) {
+            store.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (store) {
+            return store.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 命中率
+     *
+     * @return 返回0~1之间的命中率，没有请求返回0
+     */
+    public double getHitRate() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total == 0 ? 0D : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return "LruCache{" +
+                "size=" + size() +
+                ", maxSize=" + maxSize +
+                ", hitCount=" + getHitCount() +
+                ", missCount=" + getMissCount() +
+                ", evictionCount=" + getEvictionCount() +
+                '}';
+    }
+}
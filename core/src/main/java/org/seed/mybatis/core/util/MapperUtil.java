@@ -1,24 +1,61 @@
 package org.seed.mybatis.core.util;
 
 
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.seed.mybatis.core.ChunkOption;
+import org.seed.mybatis.core.CursorPage;
 import org.seed.mybatis.core.PageInfo;
 import org.seed.mybatis.core.PageResult;
+import org.seed.mybatis.core.RowWithTotal;
+import org.seed.mybatis.core.SeedMybatisContext;
+import org.seed.mybatis.core.SqlConsts;
+import org.seed.mybatis.core.TaskDecorator;
 import org.seed.mybatis.core.exception.QueryException;
+import org.seed.mybatis.core.ext.ExtContext;
+import org.seed.mybatis.core.ext.SessionCursor;
+import org.seed.mybatis.core.ext.code.util.FieldUtil;
+import org.seed.mybatis.core.ext.code.util.ReflectUtil;
+import org.seed.mybatis.core.ext.info.EntityInfo;
 import org.seed.mybatis.core.ext.spi.BeanExecutor;
 import org.seed.mybatis.core.ext.spi.SpiContext;
+import org.seed.mybatis.core.mapper.CrudMapper;
 import org.seed.mybatis.core.mapper.QueryMapper;
+import org.seed.mybatis.core.query.PageCursor;
 import org.seed.mybatis.core.query.Query;
+import org.seed.mybatis.core.query.expression.Expression;
+import org.seed.mybatis.core.query.expression.ExpressionJoinFeature;
+import org.seed.mybatis.core.query.expression.Expressions;
 import org.seed.mybatis.core.query.param.IParam;
 import org.seed.mybatis.core.support.PageEasyui;
 
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToIntBiFunction;
 
 /**
  * 查询工具
@@ -224,16 +261,44 @@ public class MapperUtil {
                     pageCount = 1;
                 }
             } else {
+                // 是否已经查出结果集
+                boolean listed = false;
                 if (query.getIsSetTotal()) {
                     //如果设置了total总记录数，直接获取该total
                     total = query.getTotal();
                 } else {
-                    //如果没有设置total，先去count执行一下sql
-                    total = mapper.getCount(query);
+                    // 先生成缓存key，查询期间发生写入则不会命中
+                    List<Object> totalKey = TotalCache.getKey(mapper, query);
+                    Long cachedTotal = TotalCache.get(totalKey);
+                    if (cachedTotal != null) {
+                        total = cachedTotal;
+                    } else {
+                        List<RowWithTotal<Entity>> rows = query.getCountLimit() > 0 ? null : listWithTotal(mapper, query);
+                        if (rows == null) {
+                            //如果没有设置total，先去count执行一下sql
+                            total = getCount(mapper, query);
+                        } else {
+                            listed = true;
+                            list = new ArrayList<>(rows.size());
+                            for (RowWithTotal<Entity> row : rows) {
+                                list.add(row.getEntity());
+                            }
+                            if (!rows.isEmpty()) {
+                                total = rows.get(0).getTotal();
+                            } else if (query.getStart() > 0) {
+                                // 超出最后一页时没有行，单独查询总数
+                                total = mapper.getCount(query);
+                            }
+                        }
+                        TotalCache.put(totalKey, total);
+                    }
+                    total = capTotal(total, query, result);
                 }
                 // 如果有数据
                 if (total > 0) {
-                    list = mapper.list(query);
+                    if (!listed) {
+                        list = mapper.list(query);
+                    }
 
                     int start = query.getStart();
                     // 每页记录数
@@ -260,6 +325,71 @@ public class MapperUtil {
     }
 
 
+    /**
+     * 查询总记录数，设置了countLimit时最多统计到countLimit+1条
+     */
+    private static long getCount(QueryMapper<?, ?> mapper, Query query) {
+        if (query.getCountLimit() <= 0) {
+            return mapper.getCount(query);
+        }
+        try {
+            return mapper.getCountLimit(query);
+        } catch (BindingException e) {
+            // 自定义模板没有getCountLimit语句
+            return mapper.getCount(query);
+        }
+    }
+
+    /**
+     * 总记录数超出统计上限时返回countLimit，并标记结果
+     */
+    private static long capTotal(long total, Query query, PageResult<?> result) {
+        if (query.getCountLimit() > 0 && total > query.getCountLimit()) {
+            result.setTotalCapped(true);
+            return query.getCountLimit();
+        }
+        return total;
+    }
+
+    /**
+     * 用窗口函数查询结果集和总记录数
+     *
+     * @return 返回结果集，未开启、distinct查询或不支持时返回null
+     */
+    private static <Entity> List<RowWithTotal<Entity>> listWithTotal(QueryMapper<Entity, ?> mapper, Query query) {
+        Class<?> entityClass = ClassUtil.getSuperInterfaceGenericType(mapper.getClass(), 0);
+        // distinct时窗口函数统计的是去重前的行数
+        if (query.getDistinct() || !SeedMybatisContext.isPageWithWindowTotal(entityClass)) {
+            return null;
+        }
+        try {
+            return mapper.listWithTotal(query);
+        } catch (RuntimeException e) {
+            if (!isWindowTotalUnsupported(e)) {
+                throw e;
+            }
+            logger.warn("listWithTotal不可用，" + entityClass.getName() + "改为先查总数再查结果集，原因：" + e.getMessage());
+            SeedMybatisContext.setWindowTotalUnsupported(entityClass);
+            return null;
+        }
+    }
+
+    /**
+     * 没有listWithTotal语句，或数据库不支持窗口函数（SQLSTATE 42xxx：语法错误、函数不存在）
+     */
+    private static boolean isWindowTotalUnsupported(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BindingException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                String sqlState = ((SQLException) cause).getSQLState();
+                return sqlState != null && sqlState.startsWith("42");
+            }
+        }
+        return false;
+    }
+
     /**
      * 分页查询,指定列名
      *
@@ -297,7 +427,15 @@ public class MapperUtil {
                     total = query.getTotal();
                 } else {
                     //如果没有设置total，先去count执行一下sql
-                    total = mapper.getCount(query);
+                    List<Object> totalKey = TotalCache.getKey(mapper, query);
+                    Long cachedTotal = TotalCache.get(totalKey);
+                    if (cachedTotal != null) {
+                        total = cachedTotal;
+                    } else {
+                        total = getCount(mapper, query);
+                        TotalCache.put(totalKey, total);
+                    }
+                    total = capTotal(total, query, result);
                 }
                 // 如果有数据
                 if (total > 0) {
@@ -407,4 +545,564 @@ public class MapperUtil {
         return result;
     }
 
+    /**
+     * 按批次拆分值
+     *
+     * @param values    值
+     * @param chunkSize 每批最大个数
+     * @return 返回拆分后的批次，不超过chunkSize或chunkSize小于等于0时只有一批
+     */
+    public static <T> List<List<T>> splitChunks(Collection<? extends T> values, int chunkSize) {
+        if (chunkSize <= 0 || values.size() <= chunkSize) {
+            return Collections.singletonList(new ArrayList<>(values));
+        }
+        List<List<T>> chunks = new ArrayList<>((values.size() + chunkSize - 1) / chunkSize);
+        List<T> chunk = new ArrayList<>(chunkSize);
+        for (T value : values) {
+            chunk.add(value);
+            if (chunk.size() == chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * 分批查询，结果按批次顺序合并<br>
+     * inChunkParallelism大于1时并行查询，并行批次在其它线程执行，不在当前事务中；
+     * 当前线程的上下文（如数据源路由）由{@link SeedMybatisContext#getTaskDecorator()}传给执行线程
+     *
+     * @param entityClass 实体类，用于获取所属数据库的每批最大个数、并行数
+     * @param values      IN查询的值
+     * @param loader      每批的查询
+     * @param <T>         结果类型
+     * @return 返回合并后的结果
+     */
+    public static <T> List<T> listInChunks(Class<?> entityClass, Collection<?> values, Function<List<Object>, List<T>> loader) {
+        List<List<Object>> chunks = splitChunks(values, SeedMybatisContext.getInChunkSize(entityClass));
+        if (chunks.size() == 1) {
+            return loader.apply(chunks.get(0));
+        }
+        List<T> result = new ArrayList<>(values.size());
+        int parallelism = SeedMybatisContext.getInChunkParallelism(entityClass);
+        if (parallelism <= 1) {
+            for (List<Object> chunk : chunks) {
+                result.addAll(loader.apply(chunk));
+            }
+            return result;
+        }
+        ExecutorService executor = SeedMybatisContext.getInChunkExecutor(parallelism);
+        TaskDecorator taskDecorator = SeedMybatisContext.getTaskDecorator();
+        List<Future<List<T>>> futures = new ArrayList<>(chunks.size());
+        for (List<Object> chunk : chunks) {
+            FutureTask<List<T>> task = new FutureTask<>(() -> loader.apply(chunk));
+            futures.add(task);
+            executor.execute(taskDecorator == null ? task : taskDecorator.decorate(task));
+        }
+        try {
+            for (Future<List<T>> future : futures) {
+                result.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new QueryException(e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new QueryException(cause);
+        }
+        return result;
+    }
+
+    /**
+     * 分批执行更新、删除，按顺序执行，返回影响行数之和<br>
+     * 只有一批时直接使用传入的mapper执行；多批时新开一个session在同一个事务中依次执行（见{@link #executeInTransaction}），
+     * 全部成功才提交，任何一批失败全部回滚；spring环境下存在事务时加入当前事务。
+     *
+     * @param mapper      只有一批时使用的mapper
+     * @param entityClass 实体类，用于获取所属数据库的每批最大个数、mapper
+     * @param values      IN条件的值
+     * @param executor    每批的执行，参数为mapper和本批的值
+     * @param <M>         mapper类型
+     * @return 返回影响行数之和
+     */
+    @SuppressWarnings("unchecked")
+    public static <M> int executeInChunks(M mapper, Class<?> entityClass, Collection<?> values,
+                                          ToIntBiFunction<M, List<Object>> executor) {
+        List<List<Object>> chunks = splitChunks(values, SeedMybatisContext.getInChunkSize(entityClass));
+        if (chunks.size() == 1) {
+            return executor.applyAsInt(mapper, chunks.get(0));
+        }
+        Class<?> mapperClass = ExtContext.getMapperClass(entityClass);
+        return executeInTransaction(entityClass, ExecutorType.SIMPLE, session -> {
+            M sessionMapper = (M) session.getMapper(mapperClass);
+            int count = 0;
+            for (List<Object> chunk : chunks) {
+                count += executor.applyAsInt(sessionMapper, chunk);
+            }
+            return count;
+        });
+    }
+
+    /**
+     * 多行写入每批条数，所属数据库IN查询每批最大值个数作为每条SQL参数个数上限，除以实体类字段数
+     *
+     * @param entityClass 实体类
+     * @return 返回每批条数，小于等于0不拆分
+     */
+    public static int getRowChunkSize(Class<?> entityClass) {
+        int paramSize = SeedMybatisContext.getInChunkSize(entityClass);
+        if (paramSize <= 0) {
+            return 0;
+        }
+        int fieldCount = 0;
+        for (Field field : ReflectUtil.getDeclaredFields(entityClass)) {
+            if (!FieldUtil.isTransientField(field)) {
+                fieldCount++;
+            }
+        }
+        return Math.max(1, paramSize / Math.max(1, fieldCount));
+    }
+
+    /**
+     * 游标分页查询，根据排序字段和主键生成定位条件，不使用OFFSET，不查询总记录数<br>
+     * 排序字段后面自动追加主键排序，保证顺序唯一；排序字段必须是实体类字段，且值不能为null。<br>
+     * 会在query上追加主键排序、定位条件和LIMIT，query不要重复使用。
+     *
+     * @param entityClass 实体类
+     * @param query       查询条件，需要设置每页条数，如：query.limit(0, 20)
+     * @param cursor      上一页返回的游标，查询第一页传null
+     * @param listGetter  查询结果集
+     * @param <E>         实体类
+     * @return 返回游标分页结果
+     */
+    public static <E> CursorPage<E> pageAfter(Class<E> entityClass, Query query, String cursor, Function<Query, List<E>> listGetter) {
+        int pageSize = query.getLimit();
+        if (query.getIsQueryAll() || pageSize < 1) {
+            throw new IllegalArgumentException("游标分页需要设置每页条数，如：query.limit(0, 20)");
+        }
+        EntityInfo entityInfo = SeedMybatisContext.getEntityInfo(entityClass);
+        if (entityInfo == null || entityInfo.getKeyColumn() == null) {
+            throw new IllegalStateException("找不到实体类主键信息：" + entityClass.getName());
+        }
+        List<String> orderItems = query.fetchOrderItems();
+        boolean hasKeyOrder = false;
+        for (String orderItem : orderItems) {
+            String javaField = entityInfo.getJavaField(getOrderColumn(orderItem));
+            if (javaField == null) {
+                throw new IllegalArgumentException("排序字段[" + getOrderColumn(orderItem) + "]没有对应的实体类字段，不能用于游标分页");
+            }
+            hasKeyOrder = hasKeyOrder || javaField.equals(entityInfo.getKeyJavaField());
+        }
+        if (!hasKeyOrder) {
+            query.orderByAsc("t." + entityInfo.getKeyColumn());
+            orderItems = query.fetchOrderItems();
+        }
+        int signature = String.join(SqlConsts.COMMA, orderItems).hashCode();
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor pageCursor = PageCursor.parse(cursor);
+            if (pageCursor.getSignature() != signature || pageCursor.getValues().size() != orderItems.size()) {
+                throw new IllegalArgumentException("游标与当前查询的排序不一致");
+            }
+            query.addExpression(buildSeekExpression(orderItems, pageCursor.getValues()));
+        }
+        // 多查一条判断是否有下一页
+        query.limit(0, pageSize + 1);
+        List<E> list = listGetter.apply(query);
+        CursorPage<E> page = new CursorPage<>();
+        page.setPageSize(pageSize);
+        if (list.size() > pageSize) {
+            list = new ArrayList<>(list.subList(0, pageSize));
+            E last = list.get(pageSize - 1);
+            List<Object> values = new ArrayList<>(orderItems.size());
+            for (String orderItem : orderItems) {
+                String column = getOrderColumn(orderItem);
+                Object value = getFieldValue(last, entityInfo.getJavaField(column));
+                if (value == null) {
+                    throw new IllegalStateException("排序字段[" + column + "]的值为null，不能生成游标，游标分页的排序字段不能为null");
+                }
+                values.add(value);
+            }
+            page.setNextCursor(new PageCursor(signature, values).toToken());
+        }
+        page.setList(list);
+        return page;
+    }
+
+    /**
+     * 生成定位条件，如：ORDER BY a DESC, id ASC对应 (a &lt; ?) OR (a = ? AND id &gt; ?)
+     */
+    private static Expression buildSeekExpression(List<String> orderItems, List<Object> values) {
+        List<String> segments = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        StringBuilder segment = new StringBuilder();
+        for (int i = 0; i < orderItems.size(); i++) {
+            if (i > 0) {
+                segment.append(") OR (");
+            } else {
+                segment.append('(');
+            }
+            for (int j = 0; j <= i; j++) {
+                String orderItem = orderItems.get(j);
+                if (j > 0) {
+                    segment.append(" AND ");
+                }
+                segment.append(getOrderColumn(orderItem));
+                if (j < i) {
+                    segment.append(" = ");
+                } else {
+                    segment.append(isDesc(orderItem) ? " < " : " > ");
+                }
+                segments.add(segment.toString());
+                segment.setLength(0);
+                args.add(values.get(j));
+            }
+        }
+        segment.append(')');
+        segments.add(segment.toString());
+        return Expressions.sql(segments, args);
+    }
+
+    private static String getOrderColumn(String orderItem) {
+        return orderItem.substring(0, orderItem.lastIndexOf(' '));
+    }
+
+    private static boolean isDesc(String orderItem) {
+        return SqlConsts.DESC.equalsIgnoreCase(orderItem.substring(orderItem.lastIndexOf(' ') + 1));
+    }
+
+    private static Object getFieldValue(Object entity, String javaField) {
+        Field field = ClassUtil.findField(entity.getClass(), javaField);
+        if (field == null) {
+            throw new IllegalStateException("找不到字段：" + entity.getClass().getName() + "." + javaField);
+        }
+        ClassUtil.makeAccessible(field);
+        try {
+            return field.get(entity);
+        } catch (IllegalAccessException e) {
+            throw new QueryException(e);
+        }
+    }
+
+
+    /**
+     * 新开一个session游标查询，关闭游标时关闭session<br>
+     * spring环境下session使用spring管理的连接，存在事务时加入当前事务。
+     *
+     * @param entityClass 实体类
+     * @param query       查询条件
+     * @param <E>         实体类
+     * @return 返回游标，使用完毕需要关闭
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> Cursor<E> cursor(Class<E> entityClass, Query query) {
+        Class<?> mapperClass = ExtContext.getMapperClass(entityClass);
+        SqlSession session = openSession(entityClass, ExecutorType.SIMPLE);
+        try {
+            QueryMapper<E, ?> mapper = (QueryMapper<E, ?>) session.getMapper(mapperClass);
+            return new SessionCursor<>(mapper.cursor(query), session);
+        } catch (RuntimeException e) {
+            IOUtil.closeQuietly(session);
+            throw e;
+        }
+    }
+
+    /**
+     * 新开一个{@link ExecutorType#BATCH}的session批量执行，每flushSize条执行一次flushStatements，全部完成后提交<br>
+     * 同一个语句的多次执行通过JDBC addBatch一次发送，出错时全部回滚。
+     * spring环境下存在事务时加入当前事务，由事务提交或回滚；没有事务时在本方法内开启一个事务，见{@link #executeInTransaction}。
+     * <pre>
+     * {@literal
+     * int count = MapperUtil.executeBatch(TUser.class, users, 1000, (mapper, user) -> mapper.save(user));
+     * }
+     * </pre>
+     *
+     * @param entityClass 实体类
+     * @param items       执行的数据
+     * @param flushSize   每批条数
+     * @param executor    每条数据的执行，参数为mapper和数据
+     * @param <E>         实体类
+     * @param <T>         数据类型
+     * @return 返回影响行数之和，驱动不返回具体行数（SUCCESS_NO_INFO）时按1行计算
+     */
+    @SuppressWarnings("unchecked")
+    public static <E, T> int executeBatch(Class<E> entityClass, Collection<? extends T> items, int flushSize,
+                                          BiConsumer<CrudMapper<E, ?>, T> executor) {
+        if (flushSize < 1) {
+            throw new IllegalArgumentException("flushSize必须大于0");
+        }
+        Class<?> mapperClass = ExtContext.getMapperClass(entityClass);
+        return executeInTransaction(entityClass, ExecutorType.BATCH, session -> {
+            CrudMapper<E, ?> mapper = (CrudMapper<E, ?>) session.getMapper(mapperClass);
+            int count = 0;
+            int pending = 0;
+            for (T item : items) {
+                executor.accept(mapper, item);
+                if (++pending == flushSize) {
+                    count += sumUpdateCounts(session.flushStatements());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                count += sumUpdateCounts(session.flushStatements());
+            }
+            return count;
+        });
+    }
+
+    /**
+     * 按条件分批执行更新、删除，每批新开一个session执行并提交<br>
+     * 按主键升序查出chunkSize条主键，以原条件加上主键IN条件执行，下一批从上一批最后一个主键之后开始，直到没有数据。
+     * 每批是一个短事务（见{@link #executeInTransaction}），不会长时间锁表；
+     * spring环境下存在事务时加入当前事务，由事务提交，达不到分批提交的效果。
+     * <pre>
+     * {@literal
+     * Query query = new Query().eq("is_deleted", 1);
+     * int count = MapperUtil.executeByQueryInChunks(TUser.class, query, true, ChunkOption.of(1000).pauseMillis(100),
+     *         (mapper, chunkQuery) -> mapper.forceDeleteByQuery(chunkQuery));
+     * }
+     * </pre>
+     *
+     * @param entityClass 实体类
+     * @param query       条件，排序、分页不生效；连表只用于查询主键，有连表时每批只按主键IN条件执行
+     * @param forceQuery  查询主键时是否无视逻辑删除字段，与执行的语句保持一致
+     * @param option      分批参数
+     * @param executor    每批的执行，参数为mapper和本批条件
+     * @param <E>         实体类
+     * @return 返回影响行数之和
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> int executeByQueryInChunks(Class<E> entityClass, Query query, boolean forceQuery, ChunkOption option,
+                                                 ToIntBiFunction<CrudMapper<E, ?>, Query> executor) {
+        Objects.requireNonNull(query, "query can not null");
+        Objects.requireNonNull(option, "option can not null");
+        EntityInfo entityInfo = SeedMybatisContext.getEntityInfo(entityClass);
+        if (entityInfo == null || entityInfo.getKeyColumn() == null) {
+            throw new IllegalStateException("找不到实体类主键信息：" + entityClass.getName());
+        }
+        Class<?> mapperClass = ExtContext.getMapperClass(entityClass);
+        String keyColumn = entityInfo.getKeyColumn();
+        List<String> columns = Collections.singletonList("t." + keyColumn);
+        int chunkSize = option.getChunkSize();
+        long startMillis = System.currentTimeMillis();
+        int total = 0;
+        int chunkIndex = 0;
+        Object lastPk = null;
+        while (true) {
+            Query pkQuery = copyCondition(query, forceQuery, true)
+                    .gt(lastPk != null, "t." + keyColumn, lastPk)
+                    .orderByAsc("t." + keyColumn)
+                    .limit(0, chunkSize);
+            ChunkResult chunk = executeInTransaction(entityClass, ExecutorType.SIMPLE, session -> {
+                CrudMapper<E, ?> mapper = (CrudMapper<E, ?>) session.getMapper(mapperClass);
+                List<E> list = mapper.listBySpecifiedColumns(columns, pkQuery);
+                if (list.isEmpty()) {
+                    return ChunkResult.EMPTY;
+                }
+                List<Object> pks = new ArrayList<>(list.size());
+                for (E entity : list) {
+                    pks.add(SeedMybatisContext.getPkValue(entity));
+                }
+                int rows = executor.applyAsInt(mapper, copyCondition(query, query.getForceQuery(), false).in(keyColumn, pks));
+                return new ChunkResult(list.size(), rows, pks.get(pks.size() - 1));
+            });
+            int size = chunk.size;
+            if (size == 0) {
+                break;
+            }
+            int rows = chunk.rows;
+            lastPk = chunk.lastPk;
+            total += rows;
+            chunkIndex++;
+            if (option.getListener() != null) {
+                option.getListener().onChunk(chunkIndex, rows, total);
+            }
+            if (size < chunkSize) {
+                break;
+            }
+            pauseBetweenChunks(option, startMillis, total);
+        }
+        return total;
+    }
+
+    /**
+     * 复制条件、额外参数，不复制排序、分页<br>
+     * 更新、删除语句不支持连表，不复制连表；有连表时条件可能引用连表字段，也不复制条件，由查询主键时的条件保证
+     *
+     * @param withJoin true：复制连表，用于查询主键
+     */
+    private static Query copyCondition(Query query, boolean forceQuery, boolean withJoin) {
+        Query copy = new Query();
+        List<ExpressionJoinFeature> joinExpressions = query.getJoinExpressions();
+        boolean hasJoin = joinExpressions != null && !joinExpressions.isEmpty();
+        if (withJoin || !hasJoin) {
+            copy.addAll(query.getExpressions());
+        }
+        if (withJoin && hasJoin) {
+            joinExpressions.forEach(copy::addExpression);
+        }
+        Map<String, Object> param = query.getParam();
+        if (param != null) {
+            param.forEach(copy::addParam);
+        }
+        if (forceQuery) {
+            copy.enableForceQuery();
+        }
+        if (query.getForceUpdate()) {
+            copy.enableForceUpdate();
+        }
+        return copy;
+    }
+
+    /**
+     * 批次之间暂停，取固定暂停时间和限速需要等待时间的较大值
+     */
+    private static void pauseBetweenChunks(ChunkOption option, long startMillis, int totalRows) {
+        long sleepMillis = option.getPauseMillis();
+        if (option.getRowsPerSecond() > 0) {
+            long expectMillis = totalRows * 1000L / option.getRowsPerSecond();
+            sleepMillis = Math.max(sleepMillis, expectMillis - (System.currentTimeMillis() - startMillis));
+        }
+        if (sleepMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryException(e);
+        }
+    }
+
+    private static int sumUpdateCounts(List<BatchResult> batchResults) {
+        int count = 0;
+        for (BatchResult batchResult : batchResults) {
+            for (int updateCount : batchResult.getUpdateCounts()) {
+                if (updateCount > 0) {
+                    count += updateCount;
+                } else if (updateCount == Statement.SUCCESS_NO_INFO) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 新开一个session执行，成功提交，出错回滚<br>
+     * spring环境下没有事务时SpringManagedTransaction沿用连接池的自动提交，session的提交、回滚不起作用，
+     * 每条语句单独提交；这时临时关闭连接的自动提交，由这里提交或回滚，结束后恢复。
+     * 存在spring事务时连接已关闭自动提交，加入当前事务，由事务提交或回滚。
+     */
+    private static <R> R executeInTransaction(Class<?> entityClass, ExecutorType executorType, Function<SqlSession, R> action) {
+        SqlSession session = openSession(entityClass, executorType);
+        Connection connection = null;
+        try {
+            Connection conn = session.getConnection();
+            if (conn.getAutoCommit()) {
+                conn.setAutoCommit(false);
+                connection = conn;
+            }
+            R result = action.apply(session);
+            session.commit();
+            if (connection != null) {
+                connection.commit();
+            }
+            return result;
+        } catch (RuntimeException | SQLException e) {
+            session.rollback();
+            if (connection != null) {
+                rollbackQuietly(connection);
+            }
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new PersistenceException("执行失败", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    logger.error("恢复自动提交失败", e);
+                }
+            }
+            IOUtil.closeQuietly(session);
+        }
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.error("回滚失败", e);
+        }
+    }
+
+    /**
+     * 实体类对应的mapper是否有指定语句，如updateBatch只在部分数据库生成
+     *
+     * @param entityClass 实体类
+     * @param statementId 语句id，不含命名空间，如：updateBatch
+     * @return true：有该语句
+     */
+    public static boolean hasStatement(Class<?> entityClass, String statementId) {
+        Class<?> mapperClass = ExtContext.getMapperClass(entityClass);
+        SqlSessionFactory sqlSessionFactory = mapperClass == null ? null : ExtContext.getSqlSessionFactoryByMapperClass(mapperClass);
+        return sqlSessionFactory != null
+                && sqlSessionFactory.getConfiguration().hasStatement(mapperClass.getName() + "." + statementId, false);
+    }
+
+    /**
+     * 使用实体类对应的SqlSessionFactory新开一个session
+     */
+    private static SqlSession openSession(Class<?> entityClass, ExecutorType executorType) {
+        Class<?> mapperClass = ExtContext.getMapperClass(entityClass);
+        SqlSessionFactory sqlSessionFactory = mapperClass == null ? null : ExtContext.getSqlSessionFactoryByMapperClass(mapperClass);
+        if (sqlSessionFactory == null) {
+            throw new IllegalStateException("找不到实体类对应的SqlSessionFactory：" + entityClass.getName());
+        }
+        return sqlSessionFactory.openSession(executorType);
+    }
+
+    /**
+     * 遍历游标，逐条交给consumer处理，处理完毕关闭游标
+     *
+     * @param cursor   游标
+     * @param consumer 处理每一条记录
+     * @param <E>      实体类
+     */
+    public static <E> void stream(Cursor<E> cursor, Consumer<? super E> consumer) {
+        try (Cursor<E> closeable = cursor) {
+            for (E entity : closeable) {
+                consumer.accept(entity);
+            }
+        } catch (IOException e) {
+            throw new QueryException(e);
+        }
+    }
+
+    /**
+     * 一批的执行结果
+     */
+    private static final class ChunkResult {
+        private static final ChunkResult EMPTY = new ChunkResult(0, 0, null);
+
+        private final int size;
+        private final int rows;
+        private final Object lastPk;
+
+        ChunkResult(int size, int rows, Object lastPk) {
+            this.size = size;
+            this.rows = rows;
+            this.lastPk = lastPk;
+        }
+    }
 }
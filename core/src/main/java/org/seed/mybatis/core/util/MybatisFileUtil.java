@@ -11,6 +11,10 @@ import org.seed.mybatis.core.SeedMybatisConstants;
 import org.seed.mybatis.core.ext.exception.MapperFileBuildException;
 import org.xml.sax.SAXException;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -21,6 +25,8 @@ public class MybatisFileUtil {
 
     private static final Log LOG = LogFactory.getLog(MybatisFileUtil.class);
 
+    private static final XMLInputFactory XML_INPUT_FACTORY = buildXmlInputFactory();
+
     /**
      * 获取扩展文件内容
      *
@@ -60,6 +66,35 @@ public class MybatisFileUtil {
         return xml;
     }
 
+    /**
+     * 读取mapper文件根节点的namespace属性，读到根节点即停止，不解析整个文件
+     *
+     * @param in mapper文件
+     * @return 返回namespace，没有返回null
+     * @throws XMLStreamException xml格式错误
+     */
+    public static String readNamespace(InputStream in) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in, SeedMybatisConstants.ENCODE);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    return reader.getAttributeValue(null, SeedMybatisConstants.ATTR_NAMESPACE);
+                }
+            }
+            return null;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static XMLInputFactory buildXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // 不加载mybatis-3-mapper.dtd
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
     private static SAXReader buildSAXReader() {
         SAXReader reader = new SAXReader();
         reader.setEncoding(SeedMybatisConstants.ENCODE);
@@ -0,0 +1,251 @@
+package org.seed.mybatis.core.util;
+
+import org.seed.mybatis.core.SeedMybatisContext;
+import org.seed.mybatis.core.query.Query;
+import org.seed.mybatis.core.query.expression.Expression;
+import org.seed.mybatis.core.query.expression.ExpressionBetweenFeature;
+import org.seed.mybatis.core.query.expression.ExpressionJoinFeature;
+import org.seed.mybatis.core.query.expression.ExpressionListFeature;
+import org.seed.mybatis.core.query.expression.ExpressionValueFeature;
+import org.seed.mybatis.core.query.expression.ExpressionWhereArgsFeature;
+import org.seed.mybatis.core.query.expression.ExpressionWhereFeature;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分页查询总记录数缓存<br>
+ * key由mapper、mapper写入版本号、路由标识和查询条件（不含分页、排序）组成，同一条件翻页时不再重复COUNT。
+ * mapper执行insert、update、delete后版本号加1，旧的缓存不再命中，由过期时间和容量淘汰。<br>
+ * 分库、分表时路由标识区分不同的库、表，见{@link SeedMybatisContext#setRoutingKeySupplier(java.util.function.Supplier)}。<br>
+ * 缓存按SqlSessionFactory的配置创建，同一个SqlSessionFactory的mapper共用一个缓存，互不影响。
+ */
+public final class TotalCache {
+
+    /**
+     * mapper命名空间对应的写入版本号
+     */
+    private static final Map<String, AtomicLong> VERSIONS = new ConcurrentHashMap<>(16);
+
+    /**
+     * key：mapper命名空间，value：所属SqlSessionFactory的缓存
+     */
+    private static final Map<String, Region> REGIONS = new ConcurrentHashMap<>(16);
+
+    private TotalCache() {
+    }
+
+    /**
+     * 为一个SqlSessionFactory的mapper创建缓存，不影响其它SqlSessionFactory的mapper
+     *
+     * @param mapperClasses mapper接口
+     * @param seconds       缓存秒数，小于等于0关闭这些mapper的缓存
+     * @param maxSize       最大缓存条数，这些mapper共用
+     */
+    public static void register(Collection<Class<?>> mapperClasses, int seconds, int maxSize) {
+        Region region = seconds <= 0 ? null : new Region(TimeUnit.SECONDS.toMillis(seconds), new BoundedCache<>(maxSize));
+        for (Class<?> mapperClass : mapperClasses) {
+            if (region == null) {
+                REGIONS.remove(mapperClass.getName());
+            } else {
+                REGIONS.put(mapperClass.getName(), region);
+            }
+        }
+    }
+
+    /**
+     * 是否有mapper开启了缓存
+     *
+     * @return true：开启
+     */
+    public static boolean isEnabled() {
+        return !REGIONS.isEmpty();
+    }
+
+    /**
+     * 返回mapper的缓存，未开启返回null
+     *
+     * @param mapperClass mapper接口
+     * @return 返回缓存，可查看命中率
+     */
+    public static BoundedCache<List<Object>, Entry> getCache(Class<?> mapperClass) {
+        Region region = REGIONS.get(mapperClass.getName());
+        return region == null ? null : region.cache;
+    }
+
+    /**
+     * mapper执行写操作后调用，使该mapper的总记录数缓存失效
+     *
+     * @param namespace mapper命名空间，即mapper接口全名
+     */
+    public static void invalidate(String namespace) {
+        AtomicLong version = VERSIONS.get(namespace);
+        if (version != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * 生成缓存key，需要在查询总数之前生成，查询期间发生写入则结果不会被命中
+     *
+     * @param mapper mapper
+     * @param query  查询条件
+     * @return 返回缓存key，未开启缓存返回null
+     */
+    public static List<Object> getKey(Object mapper, Query query) {
+        String namespace = getNamespace(mapper);
+        if (!REGIONS.containsKey(namespace)) {
+            return null;
+        }
+        List<Expression> expressions = query.getExpressions();
+        List<Object> key = new ArrayList<>(8 + expressions.size() * 5);
+        key.add(namespace);
+        key.add(VERSIONS.computeIfAbsent(namespace, k -> new AtomicLong()).get());
+        key.add(SeedMybatisContext.getRoutingKey());
+        key.add(query.getClass());
+        key.add(query.getDistinct());
+        key.add(query.getForceQuery());
+        key.add(query.getCountLimit());
+        key.add(query.getParam());
+        List<ExpressionJoinFeature> joinExpressions = query.getJoinExpressions();
+        if (joinExpressions != null) {
+            for (ExpressionJoinFeature joinExpression : joinExpressions) {
+                key.add(joinExpression.getJoinSql());
+            }
+        }
+        for (Expression expression : expressions) {
+            key.add(expression.getClass());
+            key.add(expression.getType());
+            if (expression instanceof ExpressionValueFeature) {
+                ExpressionValueFeature valueExpression = (ExpressionValueFeature) expression;
+                key.add(valueExpression.getJoint());
+                key.add(valueExpression.getColumn());
+                key.add(valueExpression.getEqual());
+                key.add(valueExpression.getValue());
+            } else if (expression instanceof ExpressionListFeature) {
+                ExpressionListFeature listExpression = (ExpressionListFeature) expression;
+                key.add(listExpression.getJoint());
+                key.add(listExpression.getColumn());
+                key.add(listExpression.getEqual());
+                key.add(listExpression.getValue() == null ? null : new ArrayList<>(listExpression.getValue()));
+            } else if (expression instanceof ExpressionBetweenFeature) {
+                ExpressionBetweenFeature betweenExpression = (ExpressionBetweenFeature) expression;
+                key.add(betweenExpression.getJoint());
+                key.add(betweenExpression.getColumn());
+                key.add(betweenExpression.getStartValue());
+                key.add(betweenExpression.getEndValue());
+            } else if (expression instanceof ExpressionWhereArgsFeature) {
+                ExpressionWhereArgsFeature whereArgsExpression = (ExpressionWhereArgsFeature) expression;
+                key.add(whereArgsExpression.getJoint());
+                key.add(whereArgsExpression.getSegments());
+                key.add(whereArgsExpression.getArgs());
+            } else if (expression instanceof ExpressionWhereFeature) {
+                ExpressionWhereFeature whereExpression = (ExpressionWhereFeature) expression;
+                key.add(whereExpression.getJoint());
+                key.add(whereExpression.getSql());
+            } else {
+                // 未知的条件类型，按对象区分，不会命中
+                key.add(expression);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * 获取缓存的总记录数
+     *
+     * @param key 缓存key
+     * @return 返回总记录数，没有或已过期返回null
+     */
+    public static Long get(List<Object> key) {
+        Region region = getRegion(key);
+        if (region == null) {
+            return null;
+        }
+        Entry entry = region.cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt < System.currentTimeMillis()) {
+            region.cache.remove(key);
+            return null;
+        }
+        return entry.total;
+    }
+
+    /**
+     * 缓存总记录数
+     *
+     * @param key   缓存key
+     * @param total 总记录数
+     */
+    public static void put(List<Object> key, long total) {
+        Region region = getRegion(key);
+        if (region == null) {
+            return;
+        }
+        region.cache.put(key, new Entry(total, System.currentTimeMillis() + region.ttlMillis));
+    }
+
+    /**
+     * key的第一个元素为mapper命名空间
+     */
+    private static Region getRegion(List<Object> key) {
+        return key == null || key.isEmpty() ? null : REGIONS.get(String.valueOf(key.get(0)));
+    }
+
+    /**
+     * mapper代理类取mapper接口名，与statement的命名空间一致
+     */
+    private static String getNamespace(Object mapper) {
+        Class<?> clazz = mapper.getClass();
+        if (Proxy.isProxyClass(clazz) && clazz.getInterfaces().length > 0) {
+            return clazz.getInterfaces()[0].getName();
+        }
+        return clazz.getName();
+    }
+
+    /**
+     * 一个SqlSessionFactory的缓存
+     */
+    private static final class Region {
+
+        private final long ttlMillis;
+
+        private final BoundedCache<List<Object>, Entry> cache;
+
+        Region(long ttlMillis, BoundedCache<List<Object>, Entry> cache) {
+            this.ttlMillis = ttlMillis;
+            this.cache = cache;
+        }
+    }
+
+    /**
+     * 缓存的总记录数
+     */
+    public static final class Entry {
+
+        private final long total;
+
+        private final long expireAt;
+
+        Entry(long total, long expireAt) {
+            this.total = total;
+            this.expireAt = expireAt;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getExpireAt() {
+            return expireAt;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.seed.mybatis.core.ext.scripting;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+import org.seed.mybatis.core.SqlConsts;
+import org.seed.mybatis.core.query.Query;
+import org.seed.mybatis.core.query.Sort;
+import org.seed.mybatis.core.query.expression.ListExpression;
+import org.seed.mybatis.core.query.expression.ValueExpression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Java拼接的Query条件与commonSql.xml中OGNL解析的结果一致
+ */
+public class QueryConditionSqlNodeTest {
+
+    private static final String STATEMENT = "conditionTest.list";
+
+    private final Configuration ognlConfiguration = build(false);
+
+    private final Configuration seedConfiguration = build(true);
+
+    @Test
+    public void testValue() {
+        Query query = new Query().eq("t.id", 1).notEq("t.state", 2).like("t.name", "Tom");
+        query.addExpression(new ValueExpression(SqlConsts.OR, "t.name", "=", "Jim"));
+        assertSame(query);
+    }
+
+    @Test
+    public void testIn() {
+        assertSame(new Query().in("t.id", Arrays.asList(1, 2, 3)).notIn("t.state", new Object[]{4, 5}));
+        Query query = new Query().eq("t.id", 1);
+        query.addExpression(new ListExpression(SqlConsts.OR, "t.state", SqlConsts.IN, Collections.singletonList(6)));
+        assertSame(query);
+    }
+
+    @Test
+    public void testBetween() {
+        assertSame(new Query().between("t.add_time", "2020-01-01", "2020-12-31").eq("t.id", 1));
+    }
+
+    @Test
+    public void testSql() {
+        Query query = new Query().where("t.state in (1,2)").eq("t.id", 1);
+        query.addExpression(new ValueExpression(SqlConsts.OR, "t.id", "=", 2));
+        assertSame(query);
+    }
+
+    @Test
+    public void testSqlArgs() {
+        assertSame(new Query().whereBind("t.username = ? and t.add_time > ?", "Tom", "2020-01-01")
+                .whereBind("t.remark = '?' or t.id = ?", "a", 3));
+    }
+
+    @Test
+    public void testJoinOrderLimit() {
+        assertSame(new Query().joinSql("LEFT JOIN t_role r ON t.role_id = r.id")
+                .eq("r.name", "admin").in("t.id", Arrays.asList(1, 2))
+                .orderBy("t.id", Sort.DESC).page(2, 10));
+        assertSame(new Query().orderBy("t.id", Sort.ASC).setQueryAll(true));
+    }
+
+    @Test
+    public void testPadding() {
+        Configuration configuration = build(true);
+        SeedLanguageDriver.setInListPaddingLimit(configuration, 8);
+        try {
+            // 补齐后与OGNL解析重复最后一个值的IN条件一致
+            Query query = new Query().in("t.id", Arrays.asList(1, 2, 3)).notIn("t.state", new Object[]{4, 5, 6, 7, 8}).setQueryAll(true);
+            Query padded = new Query().in("t.id", Arrays.asList(1, 2, 3, 3)).notIn("t.state", new Object[]{4, 5, 6, 7, 8, 8, 8, 8}).setQueryAll(true);
+            BoundSql expected = getBoundSql(ognlConfiguration, padded);
+            BoundSql actual = getBoundSql(configuration, query);
+            Assert.assertEquals(normalize(expected.getSql()), normalize(actual.getSql()));
+            Assert.assertEquals(getValues(ognlConfiguration, expected, padded), getValues(configuration, actual, query));
+
+            // 达到上限不补齐
+            query = new Query().in("t.id", Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9)).setQueryAll(true);
+            Assert.assertEquals(9, getBoundSql(configuration, query).getParameterMappings().size());
+        } finally {
+            SeedLanguageDriver.setInListPaddingLimit(configuration, 0);
+        }
+    }
+
+    private void assertSame(Query query) {
+        BoundSql expected = getBoundSql(ognlConfiguration, query);
+        // 第二次命中Query形状缓存，只重新绑定参数值
+        for (int i = 0; i < 2; i++) {
+            long hitCount = SeedLanguageDriver.getShapeCacheStats().getHitCount();
+            BoundSql actual = getBoundSql(seedConfiguration, query);
+            if (i > 0) {
+                Assert.assertTrue(SeedLanguageDriver.getShapeCacheStats().getHitCount() > hitCount);
+            }
+            Assert.assertEquals(normalize(expected.getSql()), normalize(actual.getSql()));
+            Assert.assertEquals(getValues(ognlConfiguration, expected, query), getValues(seedConfiguration, actual, query));
+        }
+    }
+
+    private static BoundSql getBoundSql(Configuration configuration, Query query) {
+        return configuration.getMappedStatement(STATEMENT).getBoundSql(param(query));
+    }
+
+    /**
+     * 与DefaultParameterHandler取值方式一致
+     */
+    private static List<Object> getValues(Configuration configuration, BoundSql boundSql, Query query) {
+        MetaObject metaObject = configuration.newMetaObject(param(query));
+        List<Object> values = new ArrayList<>();
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            String property = mapping.getProperty();
+            values.add(boundSql.hasAdditionalParameter(property)
+                    ? boundSql.getAdditionalParameter(property) : metaObject.getValue(property));
+        }
+        return values;
+    }
+
+    private static Map<String, Object> param(Query query) {
+        Map<String, Object> param = new HashMap<>(4);
+        param.put("query", query);
+        return param;
+    }
+
+    /**
+     * 去除空白差异，OGNL按行输出，Java拼接为单个空格
+     */
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", " ").replaceAll(" ?([(),]) ?", "$1").trim();
+    }
+
+    private static Configuration build(boolean useJavaCondition) {
+        Configuration configuration = new Configuration();
+        if (useJavaCondition) {
+            configuration.setDefaultScriptingLanguage(SeedLanguageDriver.class);
+        }
+        parse(configuration, "seed-mybatis/commonSql.xml");
+        parse(configuration, "scripting/ConditionTestMapper.xml");
+        return configuration;
+    }
+
+    private static void parse(Configuration configuration, String resource) {
+        try (InputStream in = Resources.getResourceAsStream(resource)) {
+            new XMLMapperBuilder(in, configuration, resource, configuration.getSqlFragments()).parse();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
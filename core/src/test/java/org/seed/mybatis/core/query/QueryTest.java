@@ -0,0 +1,98 @@
+package org.seed.mybatis.core.query;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.seed.mybatis.core.query.expression.Expression;
+import org.seed.mybatis.core.query.expression.WhereArgsExpression;
+import org.seed.mybatis.core.query.expression.WhereExpression;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * 查询条件
+ */
+public class QueryTest {
+
+    @Test
+    public void testCopy() {
+        Query query = new Query().eq("state", 1).orderBy("id", Sort.DESC).page(3, 10);
+        query.addParam("name", "Tom");
+        Query copy = query.copy().limit(0, 30);
+        copy.eq("type", 2).orderBy("add_time", Sort.ASC);
+        copy.addParam("age", 18);
+
+        Assert.assertEquals(20, query.getStart());
+        Assert.assertEquals(10, query.getLimit());
+        Assert.assertEquals(1, query.getExpressions().size());
+        Assert.assertEquals("id DESC", query.getOrder());
+        Assert.assertEquals(1, query.getParam().size());
+
+        Assert.assertEquals(0, copy.getStart());
+        Assert.assertEquals(30, copy.getLimit());
+        Assert.assertEquals(2, copy.getExpressions().size());
+        Assert.assertEquals(2, copy.getParam().size());
+    }
+
+    @Test
+    public void testWhereInline() {
+        Query query = new Query().where("id in (?) and name = '?'", "1,2,3", "Tom';--");
+        Assert.assertEquals("id in (1,2,3) and name = 'Tom'", sql(query));
+    }
+
+    @Test
+    public void testWhereBind() {
+        WhereArgsExpression expression = (WhereArgsExpression) single(
+                new Query().whereBind("username = ? and add_time > ?", "Tom", 1));
+        Assert.assertEquals(Arrays.asList("username = ", " and add_time > ", ""), expression.getSegments());
+        Assert.assertEquals(Arrays.<Object>asList("Tom", 1), expression.getArgs());
+    }
+
+    @Test
+    public void testWhereBindQuoted() {
+        // 引号内的占位符拼接，引号外的绑定
+        WhereArgsExpression expression = (WhereArgsExpression) single(
+                new Query().whereBind("nickname like '%?%' and id = ?", "o'k", 1));
+        Assert.assertEquals(Arrays.asList("nickname like '%ok%' and id = ", ""), expression.getSegments());
+        Assert.assertEquals(Collections.<Object>singletonList(1), expression.getArgs());
+
+        // 转义的''不结束引号
+        expression = (WhereArgsExpression) single(
+                new Query().whereBind("remark = 'it''s ?' and id = ?", "a", 2));
+        Assert.assertEquals(Arrays.asList("remark = 'it''s a' and id = ", ""), expression.getSegments());
+        Assert.assertEquals(Collections.<Object>singletonList(2), expression.getArgs());
+
+        // 全部在引号内，退化为普通sql条件
+        Assert.assertEquals("name = 'Tom'", sql(new Query().whereBind("name = '?'", "Tom")));
+    }
+
+    @Test
+    public void testWhereBindNull() {
+        WhereArgsExpression expression = (WhereArgsExpression) single(
+                new Query().whereBind("a = ? and b = ?", null, 1));
+        Assert.assertEquals(Arrays.asList("a = null and b = ", ""), expression.getSegments());
+        Assert.assertEquals(Collections.<Object>singletonList(1), expression.getArgs());
+    }
+
+    @Test
+    public void testWhereBindPlaceholder() {
+        WhereArgsExpression expression = (WhereArgsExpression) single(
+                new Query().argPlaceholder("{}").whereBind("a = {} and b = '?'", 1));
+        Assert.assertEquals(Arrays.asList("a = ", " and b = '?'"), expression.getSegments());
+        Assert.assertEquals(Collections.<Object>singletonList(1), expression.getArgs());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWhereBindCollection() {
+        new Query().whereBind("id in (?)", Arrays.asList(1, 2, 3));
+    }
+
+    private static Expression single(Query query) {
+        Assert.assertEquals(1, query.getExpressions().size());
+        return query.getExpressions().get(0);
+    }
+
+    private static String sql(Query query) {
+        return ((WhereExpression) single(query)).getSql();
+    }
+}
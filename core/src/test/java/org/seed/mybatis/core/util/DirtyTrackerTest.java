@@ -0,0 +1,110 @@
+package org.seed.mybatis.core.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.seed.mybatis.core.SeedMybatisContext;
+import org.seed.mybatis.core.ext.info.EntityInfo;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 实体类字段快照：修改过的字段不能漏掉
+ */
+public class DirtyTrackerTest {
+
+    @Before
+    public void before() {
+        SeedMybatisContext.setEntityInfo(TUser.class, new EntityInfo());
+        DirtyTracker.setEnabled(TUser.class, true);
+    }
+
+    @After
+    public void after() {
+        DirtyTracker.setEnabled(TUser.class, false);
+    }
+
+    @Test
+    public void testUnchanged() {
+        TUser user = new TUser();
+        user.name = "Tom";
+        user.money = new BigDecimal("1.50");
+        user.addTime = LocalDateTime.of(2020, 1, 1, 0, 0);
+        user.birthday = new Date(0);
+        user.avatar = new byte[]{1, 2};
+        DirtyTracker.snapshot(user);
+
+        user.name = new String("Tom");
+        user.money = new BigDecimal("1.50");
+        user.birthday = new Date(0);
+        user.avatar = new byte[]{1, 2};
+        Assert.assertEquals(Collections.emptySet(), DirtyTracker.getChangedFields(user));
+    }
+
+    @Test
+    public void testBigDecimal() {
+        TUser user = new TUser();
+        user.money = new BigDecimal("1.50");
+        DirtyTracker.snapshot(user);
+        // 数值相同但精度不同也视为修改
+        user.money = new BigDecimal("1.5");
+        Assert.assertTrue(DirtyTracker.getChangedFields(user).contains("money"));
+
+        // hashCode、precision都相同的两个值
+        user.money = new BigDecimal("1E-31");
+        DirtyTracker.snapshot(user);
+        user.money = new BigDecimal("2");
+        Assert.assertEquals(new BigDecimal("1E-31").hashCode(), user.money.hashCode());
+        Assert.assertTrue(DirtyTracker.getChangedFields(user).contains("money"));
+    }
+
+    @Test
+    public void testTime() {
+        TUser user = new TUser();
+        user.addTime = LocalDateTime.of(2020, 1, 1, 0, 0);
+        user.birthday = new Timestamp(0);
+        DirtyTracker.snapshot(user);
+        user.addTime = user.addTime.withNano(1);
+        // 原地修改Date
+        ((Timestamp) user.birthday).setNanos(1);
+        Assert.assertTrue(DirtyTracker.getChangedFields(user).containsAll(Arrays.asList("addTime", "birthday")));
+    }
+
+    @Test
+    public void testMutable() {
+        TUser user = new TUser();
+        user.avatar = new byte[]{1, 2};
+        user.tags = new ArrayList<>();
+        DirtyTracker.snapshot(user);
+        user.avatar[0] = 3;
+        Assert.assertTrue(DirtyTracker.getChangedFields(user).contains("avatar"));
+        // 其它类型可能被原地修改，总是视为修改过
+        Assert.assertTrue(DirtyTracker.getChangedFields(user).contains("tags"));
+    }
+
+    @Test
+    public void testNull() {
+        TUser user = new TUser();
+        user.name = "Tom";
+        DirtyTracker.snapshot(user);
+        user.name = null;
+        Assert.assertTrue(DirtyTracker.getChangedFields(user).contains("name"));
+    }
+
+    static class TUser {
+        String name;
+        BigDecimal money;
+        LocalDateTime addTime;
+        Date birthday;
+        byte[] avatar;
+        List<String> tags;
+    }
+}
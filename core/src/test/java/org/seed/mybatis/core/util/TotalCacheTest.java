@@ -0,0 +1,80 @@
+package org.seed.mybatis.core.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.seed.mybatis.core.SeedMybatisContext;
+import org.seed.mybatis.core.query.Query;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 总记录数缓存：缓存key包含路由标识，各SqlSessionFactory的缓存互相独立
+ */
+public class TotalCacheTest {
+
+    private static final ThreadLocal<Object> ROUTING_KEY = new ThreadLocal<>();
+
+    private final Object mapper = new Object();
+
+    private final Object otherMapper = "";
+
+    @Before
+    public void before() {
+        SeedMybatisContext.setRoutingKeySupplier(ROUTING_KEY::get);
+        TotalCache.register(Collections.<Class<?>>singletonList(mapper.getClass()), 60, 16);
+    }
+
+    @After
+    public void after() {
+        TotalCache.register(Collections.<Class<?>>singletonList(mapper.getClass()), 0, 0);
+        TotalCache.register(Collections.<Class<?>>singletonList(otherMapper.getClass()), 0, 0);
+        SeedMybatisContext.setRoutingKeySupplier(null);
+        ROUTING_KEY.remove();
+    }
+
+    @Test
+    public void testRoutingKey() {
+        Query query = new Query().eq("state", 1);
+        TotalCache.put(TotalCache.getKey(mapper, query), 100);
+        Assert.assertEquals(Long.valueOf(100), TotalCache.get(TotalCache.getKey(mapper, query)));
+
+        ROUTING_KEY.set("_0");
+        List<Object> key0 = TotalCache.getKey(mapper, query);
+        Assert.assertNull(TotalCache.get(key0));
+        TotalCache.put(key0, 10);
+
+        ROUTING_KEY.set("_1");
+        Assert.assertNull(TotalCache.get(TotalCache.getKey(mapper, query)));
+        TotalCache.put(TotalCache.getKey(mapper, query), 20);
+
+        ROUTING_KEY.set("_0");
+        Assert.assertEquals(Long.valueOf(10), TotalCache.get(TotalCache.getKey(mapper, query)));
+    }
+
+    @Test
+    public void testInvalidate() {
+        Query query = new Query().eq("state", 1);
+        TotalCache.put(TotalCache.getKey(mapper, query), 100);
+        TotalCache.invalidate(mapper.getClass().getName());
+        Assert.assertNull(TotalCache.get(TotalCache.getKey(mapper, query)));
+    }
+
+    @Test
+    public void testRegisterPerFactory() {
+        Query query = new Query().eq("state", 1);
+        TotalCache.put(TotalCache.getKey(mapper, query), 100);
+
+        // 另一个SqlSessionFactory关闭了缓存，不影响已有的缓存
+        TotalCache.register(Collections.<Class<?>>singletonList(otherMapper.getClass()), 0, 0);
+        Assert.assertNull(TotalCache.getKey(otherMapper, query));
+        Assert.assertEquals(Long.valueOf(100), TotalCache.get(TotalCache.getKey(mapper, query)));
+
+        // 另一个SqlSessionFactory开启缓存，不替换已有的缓存
+        TotalCache.register(Collections.<Class<?>>singletonList(otherMapper.getClass()), 60, 16);
+        Assert.assertNotSame(TotalCache.getCache(mapper.getClass()), TotalCache.getCache(otherMapper.getClass()));
+        Assert.assertEquals(Long.valueOf(100), TotalCache.get(TotalCache.getKey(mapper, query)));
+    }
+}
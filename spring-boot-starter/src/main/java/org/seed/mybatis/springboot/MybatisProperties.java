@@ -90,6 +90,58 @@ public class MybatisProperties {
      * mapper文件保存文件夹地址，如：C:/mapper
      */
     private String mapperSaveDir;
+    /**
+     * 生成的mapper缓存文件夹，不为空时开启磁盘缓存，启动时指纹不变直接读取缓存，如：/data/mapper-cache
+     */
+    private String mapperCacheDir;
+    /**
+     * 存在构建期预生成的mapper索引时直接加载
+     */
+    private boolean usePregeneratedMapper = true;
+    /**
+     * 使用Java拼接Query条件，代替OGNL解析
+     */
+    private boolean useJavaCondition = true;
+    /**
+     * Query形状缓存大小，小于等于0关闭
+     */
+    private int queryShapeCacheSize = 1024;
+    /**
+     * IN查询每批最大值个数
+     */
+    private int inChunkSize = 1000;
+    /**
+     * 各数据库IN查询每批最大值个数，key：方言，如：oracle
+     */
+    private Map<String, Integer> dialectInChunkSize;
+    /**
+     * 分批查询的并行数
+     */
+    private int inChunkParallelism = 1;
+    /**
+     * IN值个数补齐到2的幂
+     */
+    private boolean inListPadding = true;
+    /**
+     * 分页查询用窗口函数一次查出结果集和总记录数
+     */
+    private boolean pageWithWindowTotal;
+    /**
+     * 分页查询总记录数缓存秒数，0不缓存
+     */
+    private int totalCacheSeconds;
+    /**
+     * 总记录数缓存最大条数
+     */
+    private int totalCacheSize = 1024;
+    /**
+     * 游标查询每次读取的记录数，0：MySQL逐行流式读取，其它数据库1000
+     */
+    private int cursorFetchSize;
+    /**
+     * 记录查询出来的实体类字段快照，updateChanged只更新修改过的字段
+     */
+    private boolean dirtyTracking;
     /**
      * Dao路径
      */
@@ -181,6 +233,110 @@ public class MybatisProperties {
         this.mapperSaveDir = mapperSaveDir;
     }
 
+    public String getMapperCacheDir() {
+        return mapperCacheDir;
+    }
+
+    public void setMapperCacheDir(String mapperCacheDir) {
+        this.mapperCacheDir = mapperCacheDir;
+    }
+
+    public boolean isUsePregeneratedMapper() {
+        return usePregeneratedMapper;
+    }
+
+    public void setUsePregeneratedMapper(boolean usePregeneratedMapper) {
+        this.usePregeneratedMapper = usePregeneratedMapper;
+    }
+
+    public boolean isUseJavaCondition() {
+        return useJavaCondition;
+    }
+
+    public void setUseJavaCondition(boolean useJavaCondition) {
+        this.useJavaCondition = useJavaCondition;
+    }
+
+    public int getQueryShapeCacheSize() {
+        return queryShapeCacheSize;
+    }
+
+    public void setQueryShapeCacheSize(int queryShapeCacheSize) {
+        this.queryShapeCacheSize = queryShapeCacheSize;
+    }
+
+    public int getInChunkSize() {
+        return inChunkSize;
+    }
+
+    public void setInChunkSize(int inChunkSize) {
+        this.inChunkSize = inChunkSize;
+    }
+
+    public Map<String, Integer> getDialectInChunkSize() {
+        return dialectInChunkSize;
+    }
+
+    public void setDialectInChunkSize(Map<String, Integer> dialectInChunkSize) {
+        this.dialectInChunkSize = dialectInChunkSize;
+    }
+
+    public int getInChunkParallelism() {
+        return inChunkParallelism;
+    }
+
+    public void setInChunkParallelism(int inChunkParallelism) {
+        this.inChunkParallelism = inChunkParallelism;
+    }
+
+    public boolean isInListPadding() {
+        return inListPadding;
+    }
+
+    public void setInListPadding(boolean inListPadding) {
+        this.inListPadding = inListPadding;
+    }
+
+    public boolean isPageWithWindowTotal() {
+        return pageWithWindowTotal;
+    }
+
+    public void setPageWithWindowTotal(boolean pageWithWindowTotal) {
+        this.pageWithWindowTotal = pageWithWindowTotal;
+    }
+
+    public int getTotalCacheSeconds() {
+        return totalCacheSeconds;
+    }
+
+    public void setTotalCacheSeconds(int totalCacheSeconds) {
+        this.totalCacheSeconds = totalCacheSeconds;
+    }
+
+    public int getTotalCacheSize() {
+        return totalCacheSize;
+    }
+
+    public void setTotalCacheSize(int totalCacheSize) {
+        this.totalCacheSize = totalCacheSize;
+    }
+
+    public int getCursorFetchSize() {
+        return cursorFetchSize;
+    }
+
+    public void setCursorFetchSize(int cursorFetchSize) {
+        this.cursorFetchSize = cursorFetchSize;
+    }
+
+    public boolean isDirtyTracking() {
+        return dirtyTracking;
+    }
+
+    public void setDirtyTracking(boolean dirtyTracking) {
+        this.dirtyTracking = dirtyTracking;
+    }
+
     public String getBasePackage() {
         return basePackage;
     }
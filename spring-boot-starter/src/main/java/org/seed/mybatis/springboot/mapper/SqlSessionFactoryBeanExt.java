@@ -1,14 +1,25 @@
 package org.seed.mybatis.springboot.mapper;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionFactoryBean;
 import org.seed.mybatis.core.SeedMybatisConfig;
 import org.seed.mybatis.core.SeedMybatisContext;
+import org.seed.mybatis.core.ext.DirtyTrackingInterceptor;
+import org.seed.mybatis.core.ext.EntityCacheInterceptor;
+import org.seed.mybatis.core.ext.ExtContext;
 import org.seed.mybatis.core.ext.MapperLocationsBuilder;
 import org.seed.mybatis.core.ext.MyBatisResource;
+import org.seed.mybatis.core.ext.RowKeyGenerator;
+import org.seed.mybatis.core.ext.TotalCacheInterceptor;
+import org.seed.mybatis.core.ext.scripting.SeedLanguageDriver;
 import org.seed.mybatis.core.util.DbUtil;
 import org.seed.mybatis.core.util.IOUtil;
+import org.seed.mybatis.springboot.scatter.RoutingContextTaskDecorator;
+import org.seed.mybatis.springboot.scatter.RoutingDataSourceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.ByteArrayResource;
@@ -37,10 +48,23 @@ public class SqlSessionFactoryBeanExt extends SqlSessionFactoryBean {
 
     private String dialect;
 
+    /**
+     * 是否自定义了默认脚本语言驱动
+     */
+    private boolean customScriptingLanguage;
+
 
     @Autowired
     public void setApplicationContext(ApplicationContext applicationContext) {
         SeedMybatisContext.setApplicationContext(applicationContext);
+        // 分批并行查询时传递数据源路由，未自定义时设置
+        if (SeedMybatisContext.getTaskDecorator() == null) {
+            SeedMybatisContext.setTaskDecorator(new RoutingContextTaskDecorator());
+        }
+        // 缓存key区分数据源、分表
+        if (SeedMybatisContext.getRoutingKeySupplier() == null) {
+            SeedMybatisContext.setRoutingKeySupplier(RoutingDataSourceContext::getRoutingKey);
+        }
     }
 
     @Override
@@ -54,9 +78,28 @@ public class SqlSessionFactoryBeanExt extends SqlSessionFactoryBean {
         this.mapperLocations = mapperLocations;
     }
 
+    @Override
+    public void setConfiguration(Configuration configuration) {
+        super.setConfiguration(configuration);
+        if (configuration != null
+                && configuration.getLanguageRegistry().getDefaultDriverClass() != XMLLanguageDriver.class) {
+            this.customScriptingLanguage = true;
+        }
+    }
+
+    @Override
+    public void setDefaultScriptingLanguageDriver(Class<? extends LanguageDriver> defaultScriptingLanguageDriver) {
+        super.setDefaultScriptingLanguageDriver(defaultScriptingLanguageDriver);
+        this.customScriptingLanguage = defaultScriptingLanguageDriver != null;
+    }
+
     @Override
     protected SqlSessionFactory buildSqlSessionFactory() throws Exception {
         Assert.notNull(this.basePackage, "属性 'basePackage' 必填");
+        if (!this.customScriptingLanguage && getConfig().isUseJavaCondition()) {
+            super.setDefaultScriptingLanguageDriver(SeedLanguageDriver.class);
+        }
+        SeedLanguageDriver.setShapeCacheSize(getConfig().getQueryShapeCacheSize());
         List<MyBatisResource> myBatisResources;
         if (this.mapperLocations != null) {
             myBatisResources = new ArrayList<>(this.mapperLocations.length);
@@ -75,6 +118,16 @@ public class SqlSessionFactoryBeanExt extends SqlSessionFactoryBean {
         // 重新设置mapperLocation属性
         super.setMapperLocations(finalMapperLocations);
         this.sqlSessionFactory = super.buildSqlSessionFactory();
+        SeedLanguageDriver.setDialect(this.sqlSessionFactory.getConfiguration(), this.dialect);
+        SeedLanguageDriver.setInListPaddingLimit(this.sqlSessionFactory.getConfiguration(), mapperLocationsBuilder.getInListPaddingLimit());
+        TotalCacheInterceptor.register(this.sqlSessionFactory.getConfiguration());
+        DirtyTrackingInterceptor.register(this.sqlSessionFactory.getConfiguration());
+        EntityCacheInterceptor.register(this.sqlSessionFactory.getConfiguration());
+        RowKeyGenerator.register(this.sqlSessionFactory.getConfiguration());
+        // 游标查询等需要自己开启session的场景使用
+        for (Class<?> mapperClass : mapperLocationsBuilder.getMapperClasses()) {
+            ExtContext.addSqlSessionFactory(mapperClass, this.sqlSessionFactory);
+        }
         log.debug("SeedMyBatis SqlSessionFactory 构建完成");
         return this.sqlSessionFactory;
     }
@@ -6,6 +6,8 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.seed.mybatis.core.query.Query;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -16,9 +18,18 @@ import org.springframework.util.StringUtils;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.HashMap;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -30,10 +41,24 @@ import java.util.Map;
 // 指定优先级高于@Transactional的默认优先级
 // 从而保证先切换数据源再进行事务操作
 @Order(Ordered.LOWEST_PRECEDENCE - 1)
-public class DataSourceRoutingAdvisor {
+public class DataSourceRoutingAdvisor implements DisposableBean {
 
 
-    private Map<String, ShardingStrategy> strategyMap = new HashMap<>();
+    /**
+     * 分片并行执行线程池的队列大小，队列满时由调用线程执行
+     */
+    private static final int GATHER_QUEUE_SIZE = 1024;
+
+    /**
+     * 当前线程是否正在执行分片任务，嵌套gather时在当前线程依次执行，避免分片任务等待排在其后的内层任务
+     */
+    private static final ThreadLocal<Boolean> IN_GATHER = new ThreadLocal<>();
+
+    private final Map<Class<? extends ShardingStrategy>, ShardingStrategy> strategyMap = new ConcurrentHashMap<>();
+
+    private volatile ExecutorService gatherExecutor;
+
+    private boolean ownGatherExecutor;
 
 
     @Around("@annotation(scatter)")
@@ -42,42 +67,193 @@ public class DataSourceRoutingAdvisor {
         // ---- 存在声明式分库分表
         // 1. 获取 @Scatter 注解中的分库分表策略
         Class<? extends ShardingStrategy> strategyClass = scatter.strategy();
-        // 2. 设置数据源上下文
-        ShardingStrategy strategy = strategyMap.get(strategyClass.getSimpleName());
-        if (strategy == null) {
-            strategy = strategyClass.newInstance();
-            strategyMap.put(strategyClass.getSimpleName(), strategy);
-        }
+        ShardingStrategy strategy = strategyMap.computeIfAbsent(strategyClass, this::newStrategy);
         log.debug("==> Using Scatter Strategy: {}",strategy.getClass().getName());
-        // 3. 获取分库分表字段名称
+        if (scatter.gather()) {
+            return gather(pjp, strategy);
+        }
+        // 2. 获取分库分表字段名称
         String byField = scatter.by();
-        if (!StringUtils.hasText(byField)) {
+        Object[] parameters = pjp.getArgs();
+        boolean hasBasis = StringUtils.hasText(byField) && parameters != null && parameters.length > 0;
+        Object scatterBasis = null;
+        if (hasBasis) {
+            // 3. 获取第一个符合名称的分库分表参数值
+            scatterBasis = breadthFirstParameterValue(pjp, byField);
+            log.debug("==> Match Scatter Key: {}, with Value: {}",byField,scatterBasis);
+        }
+        // 4. 设置数据源上下文，结束后恢复为调用前的上下文（支持嵌套调用）
+        RoutingDataSourceContext.Snapshot previous = RoutingDataSourceContext.snapshot();
+        // 策略实例共享，设置依据和读取路由需要原子完成，避免并发请求互相覆盖
+        synchronized (strategy) {
+            if (hasBasis) {
+                strategy.setBasis(scatterBasis);
+            }
             setRoutingDataSourceContext(strategy);
-            try {
-                return pjp.proceed();
-            } finally {
-                clearRoutingDataSourceContext();
+        }
+        try {
+            return pjp.proceed();
+        } finally {
+            RoutingDataSourceContext.restore(previous);
+        }
+    }
+
+    /**
+     * 在全部分片上并行执行并合并结果<br>
+     * 分片任务在线程池中执行，不加入调用方的事务，也看不到调用方事务中未提交的数据；
+     * 分页查询时每个分片使用Query的副本，调用方的Query不会被修改
+     */
+    private Object gather(ProceedingJoinPoint pjp, ShardingStrategy strategy) throws Throwable {
+        List<ShardTarget> targets;
+        synchronized (strategy) {
+            targets = new ArrayList<>(strategy.getAllTargets());
+        }
+        if (targets.isEmpty()) {
+            throw new IllegalStateException("分库分表策略未返回任何分片：" + strategy.getClass().getName());
+        }
+        log.debug("==> Gather from Shards: {}", targets);
+        Object[] args = pjp.getArgs();
+        if (targets.size() == 1) {
+            return proceedOn(pjp, args, targets.get(0));
+        }
+        // 分页查询：每个分片查询前start+limit条，合并排序后再截取
+        int queryIndex = indexOfQuery(args);
+        Query query = queryIndex < 0 ? null : (Query) args[queryIndex];
+        boolean paging = query != null && !query.getIsQueryAll();
+        int start = paging ? query.getStart() : -1;
+        int limit = paging ? query.getLimit() : 0;
+        Class<?> returnType = ((MethodSignature) pjp.getSignature()).getReturnType();
+        if (Boolean.TRUE.equals(IN_GATHER.get())) {
+            List<Object> results = new ArrayList<>(targets.size());
+            for (ShardTarget target : targets) {
+                results.add(proceedOn(pjp, shardArgs(args, queryIndex, paging), target));
             }
+            return new ShardResultMerger(query, start, limit).merge(returnType, results);
         }
-        Object[] parameters = pjp.getArgs();
-        // 4. 无参数
-        if (parameters == null || parameters.length == 0) {
-            setRoutingDataSourceContext(strategy);
-            try {
-                return pjp.proceed();
-            } finally {
-                clearRoutingDataSourceContext();
+        List<Future<Object>> futures = new ArrayList<>(targets.size());
+        for (ShardTarget target : targets) {
+            Object[] shardArgs = shardArgs(args, queryIndex, paging);
+            futures.add(getGatherExecutor().submit(() -> proceedOnShard(pjp, shardArgs, target)));
+        }
+        List<Object> results = new ArrayList<>(targets.size());
+        try {
+            for (Future<Object> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } finally {
+            for (Future<Object> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return new ShardResultMerger(query, start, limit).merge(returnType, results);
+    }
+
+    /**
+     * 分页查询时复制参数，Query替换为查询前start+limit条的副本，分片之间互不影响
+     */
+    private static Object[] shardArgs(Object[] args, int queryIndex, boolean paging) {
+        if (!paging) {
+            return args;
+        }
+        Object[] shardArgs = args.clone();
+        Query query = (Query) args[queryIndex];
+        shardArgs[queryIndex] = query.copy().limit(0, query.getStart() + query.getLimit());
+        return shardArgs;
+    }
+
+    private Object proceedOnShard(ProceedingJoinPoint pjp, Object[] args, ShardTarget target) throws Exception {
+        Boolean previous = IN_GATHER.get();
+        IN_GATHER.set(Boolean.TRUE);
+        try {
+            return proceedOn(pjp, args, target);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        } finally {
+            if (previous == null) {
+                IN_GATHER.remove();
             }
         }
-        // 5. 获取第一个符合名称的分库分表参数值
-        Object scatterBasis = breadthFirstParameterValue(pjp, byField);
-        log.debug("==> Match Scatter Key: {}, with Value: {}",byField,scatterBasis);
-        strategy.setBasis(scatterBasis);
-        setRoutingDataSourceContext(strategy);
+    }
+
+    private Object proceedOn(ProceedingJoinPoint pjp, Object[] args, ShardTarget target) throws Throwable {
+        RoutingDataSourceContext.Snapshot previous = RoutingDataSourceContext.snapshot();
+        RoutingDataSourceContext.setDataSourceKey(target.getDataSourceId());
+        RoutingDataSourceContext.setTablePrefix(target.getTablePrefix());
+        RoutingDataSourceContext.setTableSuffix(target.getTableSuffix());
+        RoutingDataSourceContext.setTableSharding(true);
         try {
-            return pjp.proceed();
+            // 每次proceed都会克隆调用链，可在多个线程中同时执行
+            return pjp.proceed(args);
         } finally {
-            clearRoutingDataSourceContext();
+            RoutingDataSourceContext.restore(previous);
+        }
+    }
+
+    private static int indexOfQuery(Object[] args) {
+        if (args == null) {
+            return -1;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Query) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private ExecutorService getGatherExecutor() {
+        ExecutorService executor = gatherExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = gatherExecutor;
+                if (executor == null) {
+                    int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+                    AtomicInteger index = new AtomicInteger();
+                    ThreadPoolExecutor threadPool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(GATHER_QUEUE_SIZE), runnable -> {
+                        Thread thread = new Thread(runnable, "seed-scatter-gather-" + index.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+                    threadPool.allowCoreThreadTimeOut(true);
+                    executor = threadPool;
+                    gatherExecutor = executor;
+                    ownGatherExecutor = true;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 设置分片并行执行的线程池，不设置则使用默认的有界线程池（CPU核数*2）
+     *
+     * @param gatherExecutor 线程池，由调用方负责关闭
+     */
+    public synchronized void setGatherExecutor(ExecutorService gatherExecutor) {
+        if (ownGatherExecutor && this.gatherExecutor != null) {
+            this.gatherExecutor.shutdown();
+        }
+        this.gatherExecutor = gatherExecutor;
+        this.ownGatherExecutor = false;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (ownGatherExecutor && gatherExecutor != null) {
+            gatherExecutor.shutdown();
+        }
+    }
+
+    private ShardingStrategy newStrategy(Class<? extends ShardingStrategy> strategyClass) {
+        try {
+            return strategyClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("创建分库分表策略失败：" + strategyClass.getName(), e);
         }
     }
 
@@ -85,14 +261,7 @@ public class DataSourceRoutingAdvisor {
         RoutingDataSourceContext.setDataSourceKey(strategy.getDataSourceId());
         RoutingDataSourceContext.setTablePrefix(strategy.getTablePrefix());
         RoutingDataSourceContext.setTableSuffix(strategy.getTableSuffix());
-        RedirectToTableInterceptor.setEnableTableSharding(true);
-    }
-
-    private void clearRoutingDataSourceContext() {
-        RoutingDataSourceContext.clearDataSourceKey();
-        RoutingDataSourceContext.clearTablePrefix();
-        RoutingDataSourceContext.clearTableSuffix();
-        RedirectToTableInterceptor.setEnableTableSharding(false);
+        RoutingDataSourceContext.setTableSharding(true);
     }
 
 
@@ -149,7 +318,7 @@ public class DataSourceRoutingAdvisor {
     }
 
 
-    private Map<String, Integer> fieldExistMap = new HashMap<>();
+    private final Map<String, Integer> fieldExistMap = new ConcurrentHashMap<>();
 
     private boolean hasFieldMatch(Object object, String targetFieldName) {
         Class<?> clazz = object.getClass();
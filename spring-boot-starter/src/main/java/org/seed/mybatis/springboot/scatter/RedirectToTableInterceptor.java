@@ -1,9 +1,7 @@
 package org.seed.mybatis.springboot.scatter;
 
 import lombok.extern.slf4j.Slf4j;
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
-import net.sf.jsqlparser.statement.Statement;
-import net.sf.jsqlparser.util.TablesNamesFinder;
+import net.sf.jsqlparser.JSQLParserException;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -13,15 +11,19 @@ import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.Intercepts;
 import org.apache.ibatis.plugin.Invocation;
 import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.seed.mybatis.core.util.BoundedCache;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.util.Objects;
 
 
 /**
  * 分库、分表；重定向表名
+ *
+ * <p>解析出的表名和重定向后的MappedStatement会被缓存，相同SQL只解析一次</p>
  */
 @Component
 @Slf4j
@@ -29,12 +31,41 @@ import java.util.List;
         @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})})
 public class RedirectToTableInterceptor implements Interceptor {
 
+    /**
+     * 默认缓存条目数
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
 
-    private static boolean enableTableSharding = false;
+    /**
+     * 本次调用渲染出的原始BoundSql，交给缓存的MappedStatement复用，避免重复渲染
+     */
+    private static final ThreadLocal<BoundSql> currentBoundSql = new ThreadLocal<>();
+
+    /**
+     * SQL中的表名及其位置，key：(statementId, sql)
+     */
+    private final BoundedCache<SqlKey, TableNameRewriter> tableCache;
+
+    /**
+     * 重定向后的MappedStatement，key：(statementId, sql, prefix, suffix)
+     */
+    private final BoundedCache<SqlKey, MappedStatement> statementCache;
+
+    public RedirectToTableInterceptor() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize 表名缓存、MappedStatement缓存的最大条目数
+     */
+    public RedirectToTableInterceptor(int cacheSize) {
+        this.tableCache = new BoundedCache<>(cacheSize);
+        this.statementCache = new BoundedCache<>(cacheSize);
+    }
 
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
-        if (!enableTableSharding) {
+        if (!RoutingDataSourceContext.isTableSharding()) {
             // 未开启分表，直接执行
             return invocation.proceed();
         }
@@ -44,33 +75,51 @@ public class RedirectToTableInterceptor implements Interceptor {
         Object parameterObject = args[1];
         BoundSql boundSql = ms.getBoundSql(parameterObject);
         String sql = boundSql.getSql();
-        Statement statement = CCJSqlParserUtil.parse(sql);
-        TablesNamesFinder tablesNamesFinder = new TablesNamesFinder();
-        List<String> tableList = tablesNamesFinder.getTableList(statement);
-        String newSql = null;
-        for (String tableName : tableList) {
-            if (tableName.startsWith("`") && tableName.endsWith("`")) {
-                tableName = tableName.substring(1, tableName.length() - 1);
-            }
-            if (tableName.startsWith("\"") && tableName.endsWith("\"")) {
-                tableName = tableName.substring(1, tableName.length() - 1);
-            }
-            String newTableName = RoutingDataSourceContext.getTablePrefix() + tableName + RoutingDataSourceContext.getTableSuffix();
-            newSql = sql.replace(tableName, newTableName);
-            log.debug("Replaced Table Name [{}] with [{}]", tableName, newTableName);
-            log.debug("Original-SQL: {}", sql);
-            log.debug("New-SQL: {}", newSql);
+        String prefix = RoutingDataSourceContext.getTablePrefix();
+        String suffix = RoutingDataSourceContext.getTableSuffix();
+        SqlKey key = new SqlKey(ms.getId(), sql, prefix, suffix);
+        MappedStatement newMs = statementCache.computeIfAbsent(key, k -> buildRedirectStatement(ms, sql, prefix, suffix));
+        if (newMs.getSqlSource() instanceof RedirectSqlSource
+                && ((RedirectSqlSource) newMs.getSqlSource()).origin != ms) {
+            // 原MappedStatement已被替换（如热部署），重新构建
+            newMs = buildRedirectStatement(ms, sql, prefix, suffix);
+            statementCache.put(key, newMs);
         }
-        BoundSql bs = new BoundSql(ms.getConfiguration(), newSql, boundSql.getParameterMappings(), parameterObject);
-        MappedStatement newMs = copyFromMappedStatement(ms, new BoundSqlSqlSource(bs));
-        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
-            String prop = mapping.getProperty();
-            if (boundSql.hasAdditionalParameter(prop)) {
-                bs.setAdditionalParameter(prop, boundSql.getAdditionalParameter(prop));
+        if (newMs == ms) {
+            return invocation.proceed();
+        }
+        BoundSql previous = currentBoundSql.get();
+        currentBoundSql.set(boundSql);
+        try {
+            args[0] = newMs;
+            return invocation.proceed();
+        } finally {
+            if (previous == null) {
+                currentBoundSql.remove();
+            } else {
+                currentBoundSql.set(previous);
             }
         }
-        args[0] = newMs;
-        return invocation.proceed();
+    }
+
+    private MappedStatement buildRedirectStatement(MappedStatement ms, String sql, String prefix, String suffix) {
+        TableNameRewriter rewriter = tableCache.computeIfAbsent(new SqlKey(ms.getId(), sql, null, null), k -> parseTables(sql));
+        if (rewriter.isEmpty()) {
+            return ms;
+        }
+        String newSql = rewriter.rewrite(prefix, suffix);
+        log.debug("Redirect Tables {} with prefix [{}], suffix [{}]", rewriter.getTableNames(), prefix, suffix);
+        log.debug("Original-SQL: {}", sql);
+        log.debug("New-SQL: {}", newSql);
+        return copyFromMappedStatement(ms, new RedirectSqlSource(ms, newSql));
+    }
+
+    private static TableNameRewriter parseTables(String sql) {
+        try {
+            return TableNameRewriter.parse(sql);
+        } catch (JSQLParserException e) {
+            throw new IllegalStateException("解析SQL失败：" + sql, e);
+        }
     }
 
 
@@ -81,8 +130,14 @@ public class RedirectToTableInterceptor implements Interceptor {
         builder.statementType(ms.getStatementType());
         builder.keyGenerator(ms.getKeyGenerator());
         if (ms.getKeyProperties() != null && ms.getKeyProperties().length > 0) {
-            builder.keyProperty(ms.getKeyProperties()[0]);
+            builder.keyProperty(String.join(",", ms.getKeyProperties()));
         }
+        if (ms.getKeyColumns() != null && ms.getKeyColumns().length > 0) {
+            builder.keyColumn(String.join(",", ms.getKeyColumns()));
+        }
+        builder.databaseId(ms.getDatabaseId());
+        builder.lang(ms.getLang());
+        builder.resultOrdered(ms.isResultOrdered());
         builder.timeout(ms.getTimeout());
         builder.parameterMap(ms.getParameterMap());
         builder.resultMaps(ms.getResultMaps());
@@ -94,20 +149,103 @@ public class RedirectToTableInterceptor implements Interceptor {
     }
 
 
+    /**
+     * 设置当前线程是否开启分表
+     *
+     * @param enableTableSharding true：开启
+     * @deprecated 分表开关已改为线程级别，使用 {@link RoutingDataSourceContext#setTableSharding(boolean)}
+     */
+    @Deprecated
     public static void setEnableTableSharding(boolean enableTableSharding) {
-        RedirectToTableInterceptor.enableTableSharding = enableTableSharding;
+        RoutingDataSourceContext.setTableSharding(enableTableSharding);
+    }
+
+    /**
+     * 表名解析缓存，可用于查看命中率
+     *
+     * @return 返回表名缓存
+     */
+    public BoundedCache<SqlKey, TableNameRewriter> getTableCache() {
+        return tableCache;
+    }
+
+    /**
+     * 重定向MappedStatement缓存，可用于查看命中率
+     *
+     * @return 返回MappedStatement缓存
+     */
+    public BoundedCache<SqlKey, MappedStatement> getStatementCache() {
+        return statementCache;
     }
 
 
-    private static class BoundSqlSqlSource implements SqlSource {
-        private BoundSql boundSql;
+    /**
+     * 使用重定向后的SQL，参数映射沿用本次调用渲染出的原始BoundSql
+     */
+    private static class RedirectSqlSource implements SqlSource {
+        private final MappedStatement origin;
+        private final String sql;
 
-        public BoundSqlSqlSource(BoundSql boundSql) {
-            this.boundSql = boundSql;
+        public RedirectSqlSource(MappedStatement origin, String sql) {
+            this.origin = origin;
+            this.sql = sql;
         }
 
+        @Override
         public BoundSql getBoundSql(Object parameterObject) {
-            return boundSql;
+            BoundSql boundSql = currentBoundSql.get();
+            if (boundSql == null || boundSql.getParameterObject() != parameterObject) {
+                boundSql = origin.getBoundSql(parameterObject);
+            }
+            Configuration configuration = origin.getConfiguration();
+            BoundSql bs = new BoundSql(configuration, sql, boundSql.getParameterMappings(), parameterObject);
+            for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+                String prop = mapping.getProperty();
+                if (boundSql.hasAdditionalParameter(prop)) {
+                    bs.setAdditionalParameter(prop, boundSql.getAdditionalParameter(prop));
+                }
+            }
+            return bs;
+        }
+    }
+
+    /**
+     * 缓存key
+     */
+    public static final class SqlKey {
+        private final String statementId;
+        private final String sql;
+        private final String prefix;
+        private final String suffix;
+        private final int hash;
+
+        SqlKey(String statementId, String sql, String prefix, String suffix) {
+            this.statementId = statementId;
+            this.sql = sql;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.hash = Objects.hash(statementId, sql, prefix, suffix);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SqlKey)) {
+                return false;
+            }
+            SqlKey that = (SqlKey) o;
+            return hash == that.hash
+                    && Objects.equals(statementId, that.statementId)
+                    && Objects.equals(prefix, that.prefix)
+                    && Objects.equals(suffix, that.suffix)
+                    && Objects.equals(sql, that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
         }
     }
 
@@ -0,0 +1,24 @@
+package org.seed.mybatis.springboot.scatter;
+
+import org.seed.mybatis.core.TaskDecorator;
+
+/**
+ * 把提交任务线程的数据源、分表上下文传给执行线程，执行完恢复执行线程原来的上下文<br>
+ * 线程池中的线程复用，InheritableThreadLocal只在创建线程时继承一次，不能用来传递
+ */
+public class RoutingContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        RoutingDataSourceContext.Snapshot snapshot = RoutingDataSourceContext.snapshot();
+        return () -> {
+            RoutingDataSourceContext.Snapshot previous = RoutingDataSourceContext.snapshot();
+            RoutingDataSourceContext.restore(snapshot);
+            try {
+                task.run();
+            } finally {
+                RoutingDataSourceContext.restore(previous);
+            }
+        };
+    }
+}
@@ -1,8 +1,13 @@
 package org.seed.mybatis.springboot.scatter;
 
+import java.util.Arrays;
 
 /**
  * RoutingKey 存储上下文
+ *
+ * <p>数据源、表前后缀以及分表开关均保存在当前线程中，并发请求之间互不影响</p>
+ * <p>分表开关只在当前请求的线程中生效，不被子线程继承，避免调用期间创建的线程池线程一直按分表执行；
+ * 其它线程执行时通过{@link #snapshot()}、{@link #restore(Snapshot)}传递，见{@link RoutingContextTaskDecorator}</p>
  */
 public class RoutingDataSourceContext {
 
@@ -66,4 +71,84 @@ public class RoutingDataSourceContext {
         tableSuffix.remove();
     }
 
+
+
+    /**
+     * Table sharding switch，不被子线程继承
+     */
+    private static final ThreadLocal<Boolean> tableSharding = new ThreadLocal<>();
+
+
+    public static void setTableSharding(boolean enable) {
+        tableSharding.set(enable);
+    }
+
+    public static boolean isTableSharding() {
+        Boolean enable = tableSharding.get();
+        return enable != null && enable;
+    }
+
+    public static void clearTableSharding() {
+        tableSharding.remove();
+    }
+
+
+    /**
+     * 返回当前线程的路由标识，区分缓存中不同库、表的数据
+     *
+     * @return 开启分表时返回数据源、表前缀、表后缀，否则返回数据源，未设置数据源返回null
+     */
+    public static Object getRoutingKey() {
+        if (isTableSharding()) {
+            return Arrays.asList(getDataSourceKey(), getTablePrefix(), getTableSuffix());
+        }
+        return dataSourceKey.get();
+    }
+
+    /**
+     * 保存当前线程的上下文，用于嵌套调用结束后恢复
+     *
+     * @return 返回当前上下文快照
+     */
+    public static Snapshot snapshot() {
+        return new Snapshot(dataSourceKey.get(), tablePrefix.get(), tableSuffix.get(), tableSharding.get());
+    }
+
+    /**
+     * 恢复到指定快照，快照中为null的项会被清除
+     *
+     * @param snapshot 快照
+     */
+    public static void restore(Snapshot snapshot) {
+        restore(dataSourceKey, snapshot.dataSourceKey);
+        restore(tablePrefix, snapshot.tablePrefix);
+        restore(tableSuffix, snapshot.tableSuffix);
+        restore(tableSharding, snapshot.tableSharding);
+    }
+
+    private static <T> void restore(ThreadLocal<T> threadLocal, T value) {
+        if (value == null) {
+            threadLocal.remove();
+        } else {
+            threadLocal.set(value);
+        }
+    }
+
+    /**
+     * 上下文快照
+     */
+    public static final class Snapshot {
+        private final String dataSourceKey;
+        private final String tablePrefix;
+        private final String tableSuffix;
+        private final Boolean tableSharding;
+
+        private Snapshot(String dataSourceKey, String tablePrefix, String tableSuffix, Boolean tableSharding) {
+            this.dataSourceKey = dataSourceKey;
+            this.tablePrefix = tablePrefix;
+            this.tableSuffix = tableSuffix;
+            this.tableSharding = tableSharding;
+        }
+    }
+
 }
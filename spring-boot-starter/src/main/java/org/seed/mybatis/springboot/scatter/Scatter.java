@@ -34,4 +34,17 @@ public @interface Scatter {
      */
     Class<? extends ShardingStrategy> strategy() default VoidShardingStrategy.class;
 
+    /**
+     * 是否扇出到全部分片执行
+     *
+     * <p>为true时，忽略分库分表字段，在 {@link ShardingStrategy#getAllTargets()} 返回的每个分片上并行执行，
+     * 并合并结果：List合并（按Query排序、分页），数值求和，PageInfo/PageEasyui合并分页，
+     * 其它类型返回唯一不为null的分片结果。嵌套gather时内层在当前分片线程中依次执行。
+     * 各分片在独立线程中执行，不加入调用方的事务，也看不到调用方事务中未提交的数据，仅适用于查询。
+     * 分页查询时各分片使用Query的副本，不会修改调用方传入的Query</p>
+     *
+     * @return
+     */
+    boolean gather() default false;
+
 }
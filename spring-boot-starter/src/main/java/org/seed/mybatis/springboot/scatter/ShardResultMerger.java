@@ -0,0 +1,301 @@
+package org.seed.mybatis.springboot.scatter;
+
+import org.seed.mybatis.core.PageInfo;
+import org.seed.mybatis.core.PageResult;
+import org.seed.mybatis.core.annotation.Column;
+import org.seed.mybatis.core.ext.code.util.FieldUtil;
+import org.seed.mybatis.core.query.Query;
+import org.seed.mybatis.core.support.PageEasyui;
+import org.seed.mybatis.core.util.ClassUtil;
+import org.seed.mybatis.core.util.MapperUtil;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 合并多个分片的执行结果
+ *
+ * <pre>
+ * List/Collection：合并，按Query排序后截取分页
+ * 数值：求和，如getCount
+ * PageInfo/PageEasyui：合并结果集，总数求和，重新计算分页信息
+ * 其它类型（如实体类）：返回唯一不为null的结果，多个分片都有结果时报错
+ * </pre>
+ */
+class ShardResultMerger {
+
+    private static final String SORT_DESC = "DESC";
+
+    /**
+     * 排序字段对应的实体类字段，key：className#column
+     */
+    private static final Map<String, Optional<Field>> FIELD_CACHE = new ConcurrentHashMap<>(16);
+
+    /**
+     * 查询条件，可为null
+     */
+    private final Query query;
+
+    /**
+     * 原始分页起始位置，-1表示不分页
+     */
+    private final int start;
+
+    /**
+     * 原始分页大小
+     */
+    private final int limit;
+
+    /**
+     * @param query 查询条件，可为null
+     * @param start 原始分页起始位置，-1表示不分页
+     * @param limit 原始分页大小
+     */
+    ShardResultMerger(Query query, int start, int limit) {
+        this.query = query;
+        this.start = start;
+        this.limit = limit;
+    }
+
+    /**
+     * 合并结果
+     *
+     * @param returnType 方法返回类型
+     * @param results    各分片结果，按分片顺序
+     * @return 返回合并后的结果
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Object merge(Class<?> returnType, List<Object> results) {
+        if (returnType == void.class || returnType == Void.class) {
+            return null;
+        }
+        if (Collection.class.isAssignableFrom(returnType)) {
+            List<Object> list = new ArrayList<>();
+            for (Object result : results) {
+                if (result != null) {
+                    list.addAll((Collection) result);
+                }
+            }
+            return sortAndSlice(list);
+        }
+        if (isNumber(returnType)) {
+            return sum(returnType, results);
+        }
+        if (PageInfo.class.isAssignableFrom(returnType) || PageEasyui.class.isAssignableFrom(returnType)) {
+            return mergePage(results);
+        }
+        return single(returnType, results);
+    }
+
+    /**
+     * 单个对象只能来自一个分片，如getById
+     */
+    private static Object single(Class<?> returnType, List<Object> results) {
+        Object single = null;
+        for (Object result : results) {
+            if (result == null) {
+                continue;
+            }
+            if (single != null) {
+                throw new IllegalStateException("@Scatter(gather = true)多个分片返回了结果，无法合并为一个" + returnType.getName());
+            }
+            single = result;
+        }
+        return single;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object mergePage(List<Object> results) {
+        PageResult merged = null;
+        List<Object> list = new ArrayList<>();
+        long total = 0;
+        for (Object result : results) {
+            if (result == null) {
+                continue;
+            }
+            if (merged == null) {
+                merged = (PageResult) ClassUtil.newInstance(result.getClass());
+            }
+            List<?> data;
+            if (result instanceof PageInfo) {
+                data = ((PageInfo<?>) result).getData();
+                total += ((PageInfo<?>) result).getTotal();
+            } else {
+                data = ((PageEasyui<?>) result).getRows();
+                total += ((PageEasyui<?>) result).getTotal();
+            }
+            if (data != null) {
+                list.addAll(data);
+            }
+        }
+        if (merged == null) {
+            return null;
+        }
+        if (query != null && query.getIsSetTotal()) {
+            total = query.getTotal();
+        }
+        int pageCount = 0;
+        if (start >= 0 && limit > 0) {
+            if (total > 0) {
+                merged.setStart(start);
+                merged.setPageIndex(start / limit + 1);
+                merged.setPageSize(limit);
+                pageCount = MapperUtil.calcPageCount(total, limit);
+            }
+        } else if (total > 0) {
+            pageCount = 1;
+        }
+        merged.setList(sortAndSlice(list));
+        merged.setTotal(total);
+        merged.setPageCount(pageCount);
+        return merged;
+    }
+
+    private List<Object> sortAndSlice(List<Object> list) {
+        if (query != null && query.getSortable() && list.size() > 1) {
+            // 各分片结果已有序，TimSort会识别有序段并归并
+            list.sort(buildComparator(query.getOrder()));
+        }
+        if (start < 0 || limit <= 0) {
+            return list;
+        }
+        if (start >= list.size()) {
+            return new ArrayList<>(0);
+        }
+        return new ArrayList<>(list.subList(start, Math.min(list.size(), start + limit)));
+    }
+
+    private static Comparator<Object> buildComparator(String order) {
+        Comparator<Object> comparator = null;
+        for (String item : order.split(",")) {
+            String[] arr = item.trim().split("\\s+");
+            String column = FieldUtil.formatField(arr[0]);
+            boolean desc = arr.length > 1 && SORT_DESC.equalsIgnoreCase(arr[arr.length - 1]);
+            Comparator<Object> columnComparator = (o1, o2) -> compareValue(getValue(o1, column), getValue(o2, column));
+            if (desc) {
+                columnComparator = columnComparator.reversed();
+            }
+            comparator = comparator == null ? columnComparator : comparator.thenComparing(columnComparator);
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValue(Object v1, Object v2) {
+        // null值排在前面，与MySQL升序规则一致
+        if (v1 == v2) {
+            return 0;
+        }
+        if (v1 == null) {
+            return -1;
+        }
+        if (v2 == null) {
+            return 1;
+        }
+        if (v1 instanceof Comparable) {
+            return ((Comparable) v1).compareTo(v2);
+        }
+        return String.valueOf(v1).compareTo(String.valueOf(v2));
+    }
+
+    private static Object getValue(Object element, String column) {
+        if (element == null) {
+            return null;
+        }
+        if (element instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) element;
+            Object value = map.get(column);
+            return value != null ? value : map.get(FieldUtil.underlineToCamel(column));
+        }
+        Class<?> clazz = element.getClass();
+        Optional<Field> field = FIELD_CACHE.computeIfAbsent(clazz.getName() + "#" + column, k -> findField(clazz, column));
+        if (!field.isPresent()) {
+            throw new IllegalArgumentException("排序字段[" + column + "]在类" + clazz.getName() + "中不存在，无法合并排序");
+        }
+        try {
+            return field.get().get(element);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("读取排序字段失败：" + column, e);
+        }
+    }
+
+    private static Optional<Field> findField(Class<?> clazz, String column) {
+        Field field = ClassUtil.findField(clazz, FieldUtil.underlineToCamel(column));
+        if (field == null) {
+            field = ClassUtil.findField(clazz, column);
+        }
+        Class<?> searchType = clazz;
+        while (field == null && searchType != null && searchType != Object.class) {
+            for (Field declaredField : searchType.getDeclaredFields()) {
+                Column annotation = declaredField.getAnnotation(Column.class);
+                if (annotation != null && column.equalsIgnoreCase(annotation.name())) {
+                    field = declaredField;
+                    break;
+                }
+            }
+            searchType = searchType.getSuperclass();
+        }
+        if (field != null) {
+            ClassUtil.makeAccessible(field);
+        }
+        return Optional.ofNullable(field);
+    }
+
+    private static boolean isNumber(Class<?> type) {
+        return type == long.class || type == int.class || type == short.class
+                || Number.class.isAssignableFrom(type);
+    }
+
+    private static Object sum(Class<?> returnType, List<Object> results) {
+        if (returnType == BigDecimal.class) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (Object result : results) {
+                if (result != null) {
+                    total = total.add((BigDecimal) result);
+                }
+            }
+            return total;
+        }
+        if (returnType == BigInteger.class) {
+            BigInteger total = BigInteger.ZERO;
+            for (Object result : results) {
+                if (result != null) {
+                    total = total.add((BigInteger) result);
+                }
+            }
+            return total;
+        }
+        if (returnType == double.class || returnType == Double.class
+                || returnType == float.class || returnType == Float.class) {
+            double total = 0;
+            for (Object result : results) {
+                if (result != null) {
+                    total += ((Number) result).doubleValue();
+                }
+            }
+            return returnType == float.class || returnType == Float.class ? (Object) (float) total : (Object) total;
+        }
+        long total = 0;
+        for (Object result : results) {
+            if (result != null) {
+                total += ((Number) result).longValue();
+            }
+        }
+        if (returnType == int.class || returnType == Integer.class) {
+            return (int) total;
+        }
+        if (returnType == short.class || returnType == Short.class) {
+            return (short) total;
+        }
+        return total;
+    }
+
+}
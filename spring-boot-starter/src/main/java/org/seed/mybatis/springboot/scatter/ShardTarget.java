@@ -0,0 +1,70 @@
+package org.seed.mybatis.springboot.scatter;
+
+import java.util.Objects;
+
+/**
+ * 分片目标：数据源 + 表前缀 + 表后缀
+ */
+public class ShardTarget {
+
+    /**
+     * 数据源ID
+     */
+    private final String dataSourceId;
+
+    /**
+     * 表名前缀
+     */
+    private final String tablePrefix;
+
+    /**
+     * 表名后缀
+     */
+    private final String tableSuffix;
+
+    public ShardTarget(String dataSourceId, String tablePrefix, String tableSuffix) {
+        this.dataSourceId = dataSourceId;
+        this.tablePrefix = tablePrefix;
+        this.tableSuffix = tableSuffix;
+    }
+
+    public String getDataSourceId() {
+        return dataSourceId;
+    }
+
+    public String getTablePrefix() {
+        return tablePrefix;
+    }
+
+    public String getTableSuffix() {
+        return tableSuffix;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ShardTarget)) {
+            return false;
+        }
+        ShardTarget that = (ShardTarget) o;
+        return Objects.equals(dataSourceId, that.dataSourceId)
+                && Objects.equals(tablePrefix, that.tablePrefix)
+                && Objects.equals(tableSuffix, that.tableSuffix);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dataSourceId, tablePrefix, tableSuffix);
+    }
+
+    @Override
+    public String toString() {
+        return "ShardTarget{" +
+                "dataSourceId='" + dataSourceId + '\'' +
+                ", tablePrefix='" + tablePrefix + '\'' +
+                ", tableSuffix='" + tableSuffix + '\'' +
+                '}';
+    }
+}
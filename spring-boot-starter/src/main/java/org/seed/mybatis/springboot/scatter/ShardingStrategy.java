@@ -1,5 +1,8 @@
 package org.seed.mybatis.springboot.scatter;
 
+import java.util.Collection;
+import java.util.Collections;
+
 public interface ShardingStrategy {
 
     /**
@@ -34,4 +37,15 @@ public interface ShardingStrategy {
      */
     void setBasis(Object basis);
 
+    /**
+     * 全部分片
+     *
+     * <p>{@link Scatter#gather()}为true时，方法会在每个分片上并行执行，结果合并后返回。
+     * 默认只返回当前依据对应的分片</p>
+     * @return 分片集合
+     */
+    default Collection<ShardTarget> getAllTargets() {
+        return Collections.singletonList(new ShardTarget(getDataSourceId(), getTablePrefix(), getTableSuffix()));
+    }
+
 }
@@ -0,0 +1,179 @@
+package org.seed.mybatis.springboot.scatter;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.parser.SimpleNode;
+import net.sf.jsqlparser.parser.Token;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 表名重写
+ *
+ * <p>解析时记录SQL中每个表名引用的位置，重写时只替换这些位置，一次遍历生成新SQL。
+ * 字段名、别名中包含表名的情况不会被误替换。</p>
+ */
+public class TableNameRewriter {
+
+    private final String sql;
+
+    /**
+     * 表名在SQL中的起始位置（不含引号），升序
+     */
+    private final int[] starts;
+
+    /**
+     * 表名在SQL中的结束位置（不含引号，不包含该位置）
+     */
+    private final int[] ends;
+
+    private final List<String> tableNames;
+
+    private TableNameRewriter(String sql, int[] starts, int[] ends, List<String> tableNames) {
+        this.sql = sql;
+        this.starts = starts;
+        this.ends = ends;
+        this.tableNames = tableNames;
+    }
+
+    /**
+     * 解析SQL，记录表名位置
+     *
+     * @param sql SQL
+     * @return 返回TableNameRewriter
+     * @throws JSQLParserException SQL解析失败
+     */
+    public static TableNameRewriter parse(String sql) throws JSQLParserException {
+        Statement statement = CCJSqlParserUtil.parse(sql);
+        List<Table> tables = new ArrayList<>();
+        TablesNamesFinder tablesNamesFinder = new TablesNamesFinder() {
+            @Override
+            public void visit(Table table) {
+                super.visit(table);
+                tables.add(table);
+            }
+        };
+        List<String> tableNames = tablesNamesFinder.getTableList(statement);
+        // getTableList已排除WITH子句中的临时表名
+        Set<String> realTables = new HashSet<>(tableNames);
+        int[] lineStarts = lineStarts(sql);
+        int[][] ranges = new int[tables.size()][];
+        int count = 0;
+        for (Table table : tables) {
+            if (!realTables.contains(table.getFullyQualifiedName())) {
+                continue;
+            }
+            ranges[count++] = locate(sql, lineStarts, table);
+        }
+        int[][] sorted = Arrays.copyOf(ranges, count);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a[0], b[0]));
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        int size = 0;
+        for (int[] range : sorted) {
+            // 同一个表节点可能被访问多次
+            if (size > 0 && starts[size - 1] == range[0]) {
+                continue;
+            }
+            starts[size] = range[0];
+            ends[size] = range[1];
+            size++;
+        }
+        return new TableNameRewriter(sql, Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+                Collections.unmodifiableList(tableNames));
+    }
+
+    private static int[] locate(String sql, int[] lineStarts, Table table) {
+        SimpleNode node = table.getASTNode();
+        if (node == null || node.jjtGetLastToken() == null) {
+            throw new IllegalStateException("无法定位表名[" + table.getFullyQualifiedName() + "]，SQL：" + sql);
+        }
+        // 最后一个token是表名，前面是schema/database
+        Token token = node.jjtGetLastToken();
+        int start = lineStarts[token.beginLine - 1] + token.beginColumn - 1;
+        int end = lineStarts[token.endLine - 1] + token.endColumn;
+        if (end > sql.length() || !sql.regionMatches(start, token.image, 0, token.image.length())) {
+            throw new IllegalStateException("无法定位表名[" + table.getFullyQualifiedName() + "]，SQL：" + sql);
+        }
+        char first = sql.charAt(start);
+        if ((first == '`' || first == '"' || first == '[') && end - start >= 2) {
+            start++;
+            end--;
+        }
+        return new int[]{start, end};
+    }
+
+    /**
+     * 计算每行起始位置，换行规则与解析器保持一致：\n、\r、\r\n均算一次换行
+     */
+    private static int[] lineStarts(String sql) {
+        int[] lineStarts = new int[16];
+        int lines = 1;
+        int length = sql.length();
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+            if (c == '\r' && i + 1 < length && sql.charAt(i + 1) == '\n') {
+                i++;
+            } else if (c != '\r' && c != '\n') {
+                continue;
+            }
+            if (lines == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, lines << 1);
+            }
+            lineStarts[lines++] = i + 1;
+        }
+        return lineStarts;
+    }
+
+    /**
+     * 是否没有表名
+     *
+     * @return true：SQL中没有表
+     */
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    /**
+     * SQL中的表名
+     *
+     * @return 返回去重后的表名
+     */
+    public List<String> getTableNames() {
+        return tableNames;
+    }
+
+    /**
+     * 给表名加上前缀和后缀
+     *
+     * @param prefix 前缀
+     * @param suffix 后缀
+     * @return 返回新的SQL
+     */
+    public String rewrite(String prefix, String suffix) {
+        int extra = prefix.length() + suffix.length();
+        if (extra == 0) {
+            return sql;
+        }
+        StringBuilder builder = new StringBuilder(sql.length() + extra * starts.length);
+        int last = 0;
+        for (int i = 0; i < starts.length; i++) {
+            builder.append(sql, last, starts[i])
+                    .append(prefix)
+                    .append(sql, starts[i], ends[i])
+                    .append(suffix);
+            last = ends[i];
+        }
+        builder.append(sql, last, sql.length());
+        return builder.toString();
+    }
+
+}
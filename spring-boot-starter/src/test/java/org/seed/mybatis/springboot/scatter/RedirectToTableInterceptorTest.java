@@ -0,0 +1,208 @@
+package org.seed.mybatis.springboot.scatter;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程下分表重定向，每个线程只能看到自己的表名
+ */
+public class RedirectToTableInterceptorTest {
+
+    private static final String SQL = "SELECT t.id, t.name FROM t_user t WHERE t.id = ?";
+
+    private static final int THREADS = 16;
+
+    private static final int LOOPS = 500;
+
+    private final Configuration configuration = new Configuration();
+
+    /**
+     * 模拟执行器，返回实际执行的SQL
+     */
+    private final Executor executor = (Executor) Proxy.newProxyInstance(
+            Executor.class.getClassLoader(),
+            new Class<?>[]{Executor.class},
+            (proxy, method, args) -> {
+                if ("query".equals(method.getName())) {
+                    MappedStatement ms = (MappedStatement) args[0];
+                    return Collections.singletonList(ms.getBoundSql(args[1]).getSql());
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+    @After
+    public void after() {
+        RoutingDataSourceContext.clearTableSuffix();
+        RoutingDataSourceContext.clearTableSharding();
+    }
+
+    @Test
+    public void testNotSharding() throws Exception {
+        RedirectToTableInterceptor interceptor = new RedirectToTableInterceptor();
+        Assert.assertEquals(SQL, query(interceptor, buildStatement("demo.getById"), 1L));
+    }
+
+    @Test
+    public void testConcurrentSuffix() throws Exception {
+        // 缓存容量小于后缀数，并发时反复淘汰、重建
+        RedirectToTableInterceptor interceptor = new RedirectToTableInterceptor(4);
+        MappedStatement ms = buildStatement("demo.getById");
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>(THREADS);
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                String suffix = "_" + i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    RoutingDataSourceContext.setTableSuffix(suffix);
+                    RoutingDataSourceContext.setTableSharding(true);
+                    try {
+                        int count = 0;
+                        for (int j = 0; j < LOOPS; j++) {
+                            String sql = query(interceptor, ms, (long) j);
+                            Assert.assertEquals(SQL.replace("t_user", "t_user" + suffix), sql);
+                            count++;
+                        }
+                        return count;
+                    } finally {
+                        RoutingDataSourceContext.clearTableSuffix();
+                        RoutingDataSourceContext.clearTableSharding();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                Assert.assertEquals(LOOPS, future.get(30, TimeUnit.SECONDS).intValue());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentStatements() throws Exception {
+        // 同一后缀、不同statement，缓存key不能串
+        RedirectToTableInterceptor interceptor = new RedirectToTableInterceptor(4);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(THREADS);
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                MappedStatement ms = buildStatement("demo.get" + i);
+                String suffix = "_" + (i % 2);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    RoutingDataSourceContext.setTableSuffix(suffix);
+                    RoutingDataSourceContext.setTableSharding(true);
+                    try {
+                        for (int j = 0; j < LOOPS; j++) {
+                            Assert.assertEquals(SQL.replace("t_user", "t_user" + suffix), query(interceptor, ms, (long) j));
+                        }
+                        return null;
+                    } finally {
+                        RoutingDataSourceContext.clearTableSuffix();
+                        RoutingDataSourceContext.clearTableSharding();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPoolThreadCreatedInScatter() throws Exception {
+        // @Scatter调用期间才创建线程的线程池，调用结束后线程仍在复用，不能继续按分表执行
+        RedirectToTableInterceptor interceptor = new RedirectToTableInterceptor(4);
+        RoutingContextTaskDecorator decorator = new RoutingContextTaskDecorator();
+        MappedStatement ms = buildStatement("demo.getById");
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            RoutingDataSourceContext.setTableSuffix("_0");
+            RoutingDataSourceContext.setTableSharding(true);
+            List<Future<String>> futures = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> query(interceptor, ms, 1L)));
+            }
+            for (Future<String> future : futures) {
+                Assert.assertEquals(SQL, future.get(30, TimeUnit.SECONDS));
+            }
+            // 显式传递上下文时按分表执行，执行完恢复
+            for (int i = 0; i < LOOPS; i++) {
+                String[] sql = new String[1];
+                pool.submit(decorator.decorate(() -> sql[0] = queryUnchecked(interceptor, ms))).get(30, TimeUnit.SECONDS);
+                Assert.assertEquals(SQL.replace("t_user", "t_user_0"), sql[0]);
+            }
+            RoutingDataSourceContext.clearTableSuffix();
+            RoutingDataSourceContext.clearTableSharding();
+
+            // 调用结束后，线程池中的线程执行其它语句不分表
+            futures.clear();
+            for (int i = 0; i < THREADS * 4; i++) {
+                futures.add(pool.submit(() -> {
+                    Assert.assertFalse(RoutingDataSourceContext.isTableSharding());
+                    return query(interceptor, ms, 1L);
+                }));
+            }
+            for (Future<String> future : futures) {
+                Assert.assertEquals(SQL, future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private String queryUnchecked(RedirectToTableInterceptor interceptor, MappedStatement ms) {
+        try {
+            return query(interceptor, ms, 1L);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MappedStatement buildStatement(String id) {
+        List<ParameterMapping> mappings = Collections.singletonList(
+                new ParameterMapping.Builder(configuration, "id", Long.class).build());
+        StaticSqlSource sqlSource = new StaticSqlSource(configuration, SQL, mappings);
+        return new MappedStatement.Builder(configuration, id, sqlSource, SqlCommandType.SELECT).build();
+    }
+
+    private String query(RedirectToTableInterceptor interceptor, MappedStatement ms, Object param) throws Exception {
+        Method method = Executor.class.getMethod("query", MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class);
+        Object[] args = {ms, param, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER};
+        try {
+            List<?> result = (List<?>) interceptor.intercept(new Invocation(executor, method, args));
+            return (String) result.get(0);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
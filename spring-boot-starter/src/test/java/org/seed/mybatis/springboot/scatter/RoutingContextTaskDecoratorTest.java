@@ -0,0 +1,61 @@
+package org.seed.mybatis.springboot.scatter;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池线程复用时，执行线程使用提交线程的路由上下文
+ */
+public class RoutingContextTaskDecoratorTest {
+
+    private final RoutingContextTaskDecorator decorator = new RoutingContextTaskDecorator();
+
+    @After
+    public void after() {
+        RoutingDataSourceContext.clearDataSourceKey();
+        RoutingDataSourceContext.clearTableSuffix();
+        RoutingDataSourceContext.clearTableSharding();
+    }
+
+    @Test
+    public void testPropagate() throws Exception {
+        RoutingDataSourceContext.setDataSourceKey("ds0");
+        RoutingDataSourceContext.setTableSuffix("_0");
+        RoutingDataSourceContext.setTableSharding(true);
+        // 线程创建时继承了ds0、_0，不继承分表开关
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Assert.assertEquals("ds0|_0|false", run(executor, false));
+
+            RoutingDataSourceContext.setDataSourceKey("ds1");
+            RoutingDataSourceContext.setTableSuffix("_1");
+            // 未装饰：复用的线程仍是创建时的上下文
+            Assert.assertEquals("ds0|_0|false", run(executor, false));
+            Assert.assertEquals("ds1|_1|true", run(executor, true));
+
+            RoutingDataSourceContext.clearDataSourceKey();
+            RoutingDataSourceContext.clearTableSuffix();
+            RoutingDataSourceContext.clearTableSharding();
+            Assert.assertEquals("default||false", run(executor, true));
+            // 执行完恢复执行线程原来的上下文
+            Assert.assertEquals("ds0|_0|false", run(executor, false));
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private String run(ExecutorService executor, boolean decorate) throws Exception {
+        FutureTask<String> task = new FutureTask<>(() -> RoutingDataSourceContext.getDataSourceKey()
+                + "|" + RoutingDataSourceContext.getTableSuffix()
+                + "|" + RoutingDataSourceContext.isTableSharding());
+        executor.execute(decorate ? decorator.decorate(task) : task);
+        return task.get(5, TimeUnit.SECONDS);
+    }
+}
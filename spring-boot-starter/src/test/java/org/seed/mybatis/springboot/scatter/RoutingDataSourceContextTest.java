@@ -0,0 +1,39 @@
+package org.seed.mybatis.springboot.scatter;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * 路由标识：分表时包含数据源、表前缀、表后缀，否则为数据源
+ */
+public class RoutingDataSourceContextTest {
+
+    @After
+    public void after() {
+        RoutingDataSourceContext.clearDataSourceKey();
+        RoutingDataSourceContext.clearTableSuffix();
+        RoutingDataSourceContext.clearTableSharding();
+    }
+
+    @Test
+    public void testRoutingKey() {
+        Assert.assertNull(RoutingDataSourceContext.getRoutingKey());
+
+        RoutingDataSourceContext.setTableSharding(true);
+        RoutingDataSourceContext.setTableSuffix("_0");
+        Object key0 = RoutingDataSourceContext.getRoutingKey();
+        RoutingDataSourceContext.setTableSuffix("_1");
+        Assert.assertNotEquals(key0, RoutingDataSourceContext.getRoutingKey());
+        RoutingDataSourceContext.setTableSuffix("_0");
+        Assert.assertEquals(key0, RoutingDataSourceContext.getRoutingKey());
+        Assert.assertEquals(Arrays.asList(RoutingDataSourceContext.getDataSourceKey(),
+                RoutingDataSourceContext.getTablePrefix(), "_0"), key0);
+
+        RoutingDataSourceContext.clearTableSharding();
+        RoutingDataSourceContext.setDataSourceKey("ds1");
+        Assert.assertEquals("ds1", RoutingDataSourceContext.getRoutingKey());
+    }
+}